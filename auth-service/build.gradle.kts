@@ -4,10 +4,14 @@ plugins {
 }
 
 dependencies {
+    implementation(project(":virtual-threads"))
+    implementation(project(":idempotency"))
+
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-validation")
     implementation("org.springframework.boot:spring-boot-starter-data-jpa")
+    implementation("org.springframework.boot:spring-boot-starter-actuator")
 
     implementation("org.springframework.kafka:spring-kafka")
 
@@ -0,0 +1,10 @@
+package com.mike.auth.config;
+
+import com.mike.idempotency.PartitionedIdempotencyStoreProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "auth.idempotency-store")
+public class IdempotencyStoreProperties extends PartitionedIdempotencyStoreProperties {
+}
@@ -1,5 +1,6 @@
 package com.mike.auth.domain;
 
+import com.mike.idempotency.IdempotencyKey;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
@@ -14,7 +15,7 @@ import java.util.UUID;
 @Entity
 @Table(name = "idempotent_requests")
 @NoArgsConstructor
-public class IdempotentRequest {
+public class IdempotentRequest implements IdempotencyKey {
 
     @Id
     private String key;
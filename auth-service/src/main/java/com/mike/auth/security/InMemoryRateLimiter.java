@@ -7,11 +7,21 @@ import java.util.ArrayDeque;
 import java.util.Deque;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Component
 public class InMemoryRateLimiter {
 
-    private final Map<String, Deque<Long>> buckets = new ConcurrentHashMap<>();
+    /**
+     * Guarded by a ReentrantLock rather than a monitor: a virtual thread waiting for a contended
+     * monitor blocks its carrier thread.
+     */
+    private static final class Bucket {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Deque<Long> timestamps = new ArrayDeque<>();
+    }
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
 
     public boolean notAllowed(String key, int maxRequests, int windowSeconds) {
         if (maxRequests <= 0 || windowSeconds <= 0) {
@@ -21,9 +31,11 @@ public class InMemoryRateLimiter {
         long now = Instant.now().toEpochMilli();
         long windowStart = now - windowSeconds * 1000L;
 
-        Deque<Long> timestamps = buckets.computeIfAbsent(key, ignored -> new ArrayDeque<>());
+        Bucket bucket = buckets.computeIfAbsent(key, ignored -> new Bucket());
+        Deque<Long> timestamps = bucket.timestamps;
 
-        synchronized (timestamps) {
+        bucket.lock.lock();
+        try {
             while (!timestamps.isEmpty() && timestamps.peekFirst() < windowStart) {
                 timestamps.removeFirst();
             }
@@ -32,6 +44,8 @@ public class InMemoryRateLimiter {
             }
             timestamps.addLast(now);
             return false;
+        } finally {
+            bucket.lock.unlock();
         }
     }
 }
@@ -13,6 +13,7 @@ import com.mike.auth.outbox.OutboxEvent;
 import com.mike.auth.outbox.OutboxRepository;
 import com.mike.auth.repository.IdempotentRepository;
 import com.mike.auth.repository.UserCredentialsRepository;
+import com.mike.idempotency.RequestFingerprint;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.codec.digest.DigestUtils;
@@ -24,6 +25,7 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -39,6 +41,7 @@ public class AuthService {
     private final JwtService jwtService;
     private final OutboxRepository outboxRepository;
     private final IdempotentRepository idempotentRepository;
+    private final IdempotencyStore idempotencyStore;
     private final ObjectMapper objectMapper;
 
     @Transactional
@@ -51,25 +54,32 @@ public class AuthService {
         var existing = idempotentRepository.findById(idempotencyKey);
 
         if (existing.isPresent()) {
-            IdempotentRequest ir = existing.get();
-            if (!currentHash.equals(ir.getRequestHash())) {
-                throw new IdempotencyConflictException();
-            }
-            UserCredentials user = repository.findById(ir.getEntityId())
-                    .orElseThrow(() -> new IllegalStateException("User not found for idempotency key"));
-            return map(user);
+            return replay(existing.get(), currentHash, request);
         }
 
         return registerInternal(request, idempotencyKey, currentHash);
     }
 
+    /**
+     * The key is stored before anything else, so a concurrent request with the same key waits on its
+     * advisory lock until the first one commits and then replays it, even if the user it created is
+     * already visible by email.
+     */
     private UserResponse registerInternal(UserRegisteredRequest request, String idempotencyKey, String requestHash) {
 
+        UUID userId = UUID.randomUUID();
+        if (idempotencyKey != null
+                && !idempotencyStore.insert(List.of(new IdempotentRequest(idempotencyKey, userId, requestHash))).isEmpty()) {
+            // a concurrent registration stored the same key first
+            IdempotentRequest stored = idempotentRepository.findById(idempotencyKey)
+                    .orElseThrow(() -> new IllegalStateException("Idempotency key reported stored but not found"));
+            return replay(stored, requestHash, request);
+        }
+
         repository.findByEmail(request.email()).ifPresent(u -> {
             throw new UserAlreadyExistsException(request.email());
         });
 
-        UUID userId = UUID.randomUUID();
         UserCredentials user = new UserCredentials(
                 userId,
                 request.username(),
@@ -79,10 +89,6 @@ public class AuthService {
         );
         repository.save(user);
 
-        if (idempotencyKey != null) {
-            idempotentRepository.save(new IdempotentRequest(idempotencyKey, userId, requestHash));
-        }
-
         UserRegisteredEvent event = new UserRegisteredEvent(userId, request.username(), request.email());
 
         OutboxEvent outbox = new OutboxEvent(
@@ -104,6 +110,15 @@ public class AuthService {
         return map(user);
     }
 
+    private UserResponse replay(IdempotentRequest stored, String currentHash, UserRegisteredRequest request) {
+        if (!hashMatches(stored.getRequestHash(), currentHash, request)) {
+            throw new IdempotencyConflictException();
+        }
+        UserCredentials user = repository.findById(stored.getEntityId())
+                .orElseThrow(() -> new IllegalStateException("User not found for idempotency key"));
+        return map(user);
+    }
+
     public LoginResponse login(LoginRequest request) {
 
         UserCredentials user = repository.findByEmail(request.email())
@@ -133,6 +148,24 @@ public class AuthService {
     }
 
     private String computeHash(UserRegisteredRequest request) {
+        return RequestFingerprint.of("USER_REGISTERED")
+                .add(request.username())
+                .add(request.email())
+                .add(request.password())
+                .finish();
+    }
+
+    /**
+     * Keys stored before the "v2" fingerprint carry the legacy JSON hash, which is only computed for them.
+     */
+    private boolean hashMatches(String storedHash, String currentHash, UserRegisteredRequest request) {
+        if (RequestFingerprint.isCurrentFormat(storedHash)) {
+            return storedHash.equals(currentHash);
+        }
+        return storedHash.equals(legacyHash(request));
+    }
+
+    private String legacyHash(UserRegisteredRequest request) {
         try {
             Map<String, Object> map = objectMapper.convertValue(request, new TypeReference<>() {
             });
@@ -0,0 +1,21 @@
+package com.mike.auth.service;
+
+import com.mike.auth.config.IdempotencyStoreProperties;
+import com.mike.idempotency.PartitionedIdempotencyStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Auth-service's partitioned {@code idempotent_requests} store, configured under
+ * {@code auth.idempotency-store} and reporting {@code auth.idempotency.store.*} gauges.
+ */
+@Component
+public class IdempotencyStore extends PartitionedIdempotencyStore {
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            IdempotencyStoreProperties properties,
+                            MeterRegistry meterRegistry) {
+        super(jdbcTemplate, properties, "auth", meterRegistry);
+    }
+}
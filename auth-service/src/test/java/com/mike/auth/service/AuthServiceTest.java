@@ -0,0 +1,106 @@
+package com.mike.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.auth.domain.IdempotentRequest;
+import com.mike.auth.domain.Role;
+import com.mike.auth.domain.UserCredentials;
+import com.mike.auth.dto.UserRegisteredRequest;
+import com.mike.auth.dto.UserResponse;
+import com.mike.auth.exception.IdempotencyConflictException;
+import com.mike.auth.outbox.OutboxRepository;
+import com.mike.auth.repository.IdempotentRepository;
+import com.mike.auth.repository.UserCredentialsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AuthServiceTest {
+
+    private static final String KEY = "register-key";
+
+    @Mock
+    private UserCredentialsRepository repository;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private AuthenticationManager authenticationManager;
+
+    @Mock
+    private JwtService jwtService;
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private IdempotentRepository idempotentRepository;
+
+    @Mock
+    private IdempotencyStore idempotencyStore;
+
+    private AuthService authService;
+    private UserCredentials storedUser;
+    private final AtomicReference<IdempotentRequest> storedKey = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() {
+        authService = new AuthService(repository, passwordEncoder, authenticationManager, jwtService,
+                outboxRepository, idempotentRepository, idempotencyStore, new ObjectMapper());
+        storedUser = new UserCredentials(UUID.randomUUID(), "alice", "alice@example.com", "encoded", Role.ROLE_USER);
+        when(idempotentRepository.findById(KEY)).thenAnswer(invocation -> Optional.ofNullable(storedKey.get()));
+    }
+
+    @Test
+    void concurrentRetryWithSameRequest_replaysTheUserStoredFirst() {
+        // given
+        UserRegisteredRequest request = new UserRegisteredRequest("alice", "alice@example.com", "secret");
+        when(idempotencyStore.insert(anyCollection())).thenAnswer(invocation -> {
+            Collection<IdempotentRequest> ours = invocation.getArgument(0);
+            // the first request committed the key with the same fingerprint while this one was in flight
+            storedKey.set(new IdempotentRequest(KEY, storedUser.getId(), ours.iterator().next().getRequestHash()));
+            return Set.of(KEY);
+        });
+        when(repository.findById(storedUser.getId())).thenReturn(Optional.of(storedUser));
+
+        // when
+        UserResponse response = authService.register(request, KEY);
+
+        // then
+        assertThat(response.userId()).isEqualTo(storedUser.getId());
+        verify(repository, never()).findByEmail(any());
+        verify(repository, never()).save(any());
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    void concurrentRequestWithDifferentBody_conflicts() {
+        // given
+        UserRegisteredRequest request = new UserRegisteredRequest("alice", "alice@example.com", "other-secret");
+        when(idempotencyStore.insert(anyCollection())).thenAnswer(invocation -> {
+            storedKey.set(new IdempotentRequest(KEY, storedUser.getId(), "v2:fingerprint-of-another-body"));
+            return Set.of(KEY);
+        });
+
+        // when / then
+        assertThrows(IdempotencyConflictException.class, () -> authService.register(request, KEY));
+        verify(repository, never()).save(any());
+    }
+}
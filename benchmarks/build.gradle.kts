@@ -0,0 +1,36 @@
+plugins {
+    id("me.champeau.jmh")
+}
+
+dependencyManagement {
+    imports {
+        mavenBom("org.springframework.boot:spring-boot-dependencies:3.1.6")
+        mavenBom("org.springframework.cloud:spring-cloud-dependencies:2022.0.5")
+    }
+}
+
+dependencies {
+    jmhImplementation(project(":transfer-service"))
+
+    // transfer-service only exposes these at runtime; the benchmarks compile against them
+    jmhImplementation("com.fasterxml.jackson.core:jackson-databind")
+    jmhImplementation("org.springframework:spring-beans")
+    jmhImplementation("org.springframework:spring-jdbc")
+    jmhImplementation("org.springframework:spring-tx")
+    jmhImplementation("org.springframework.data:spring-data-jpa")
+    jmhImplementation("org.springframework.security:spring-security-core")
+    jmhImplementation("jakarta.persistence:jakarta.persistence-api")
+    jmhImplementation("io.micrometer:micrometer-core")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    // gc reports GC counts and time plus the allocation rate normalized per operation (gc.alloc.rate.norm)
+    profilers.set(listOf("gc"))
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("results/jmh/results.json"))
+    (findProperty("jmhIncludes") as String?)?.let { includes.set(it.split(",")) }
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
@@ -0,0 +1,170 @@
+package com.mike.transfer.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.transfer.columnar.ColumnarTransferStore;
+import com.mike.transfer.config.AccountLockingProperties;
+import com.mike.transfer.config.BalanceSlotProperties;
+import com.mike.transfer.config.CardCacheProperties;
+import com.mike.transfer.config.CardProjectionProperties;
+import com.mike.transfer.config.CardResolutionProperties;
+import com.mike.transfer.config.IdempotencyCacheProperties;
+import com.mike.transfer.config.IdempotencyCoalescingProperties;
+import com.mike.transfer.config.IdempotencyStoreProperties;
+import com.mike.transfer.config.LedgerProperties;
+import com.mike.transfer.engine.AccountEngine;
+import com.mike.transfer.repository.AccountRepository;
+import com.mike.transfer.repository.CardProjectionRepository;
+import com.mike.transfer.repository.IdempotentRepository;
+import com.mike.transfer.repository.TransferRepository;
+import com.mike.transfer.service.AccountLockManager;
+import com.mike.transfer.service.BalanceSlotService;
+import com.mike.transfer.service.CardCache;
+import com.mike.transfer.service.CardResolverService;
+import com.mike.transfer.service.IdempotencyKeyCache;
+import com.mike.transfer.service.IdempotencyStore;
+import com.mike.transfer.service.LedgerService;
+import com.mike.transfer.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory stand-ins for the database side of transfer-service, so benchmarks measure the service
+ * code itself. Repositories serve entities from a map and return the same instances, like a
+ * persistence context; writes are dropped. JDBC statements are accepted and do nothing.
+ * Spring proxies ({@code @Transactional}, {@code @Retryable}) are not applied.
+ */
+public final class StandIns {
+
+    private StandIns() {
+    }
+
+    /**
+     * A Spring Data repository backed by {@code rows}; only the methods the service paths call are supported.
+     */
+    @SuppressWarnings("unchecked")
+    public static <R> R repository(Class<R> type, Map<?, ?> rows) {
+        return (R) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "findById", "findByIdForUpdate" -> Optional.ofNullable(rows.get(args[0]));
+                    case "findAllById", "findAllByIdForUpdate" -> {
+                        List<Object> found = new ArrayList<>();
+                        for (Object id : (Iterable<?>) args[0]) {
+                            Object row = rows.get(id);
+                            if (row != null) {
+                                found.add(row);
+                            }
+                        }
+                        yield found;
+                    }
+                    case "existsById" -> rows.containsKey(args[0]);
+                    case "save", "saveAll" -> args[0];
+                    case "flush" -> null;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> type.getSimpleName() + " stand-in";
+                    default -> throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName());
+                });
+    }
+
+    /**
+     * A JdbcTemplate without a DataSource: updates and row callbacks do nothing and advisory
+     * try-locks always succeed.
+     */
+    public static JdbcTemplate jdbcTemplate() {
+        return new JdbcTemplate() {
+            @Override
+            public int update(String sql, PreparedStatementSetter pss) {
+                return 1;
+            }
+
+            @Override
+            public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+                return new int[batchArgs.size()];
+            }
+
+            @Override
+            public <T> T queryForObject(String sql, Class<T> requiredType, Object... args) {
+                return requiredType == Boolean.class ? requiredType.cast(Boolean.TRUE) : null;
+            }
+
+            @Override
+            public void query(PreparedStatementCreator psc, RowCallbackHandler rch) {
+            }
+        };
+    }
+
+    /**
+     * TransferService wired as in production with default properties (optimistic locking, balances on
+     * the account row, idempotency cache on), over the given accounts and card projections.
+     */
+    public static TransferService transferService(Map<?, ?> accounts, Map<?, ?> cardProjections) {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        JdbcTemplate jdbcTemplate = jdbcTemplate();
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        AccountRepository accountRepository = repository(AccountRepository.class, accounts);
+
+        return new TransferService(
+                accountRepository,
+                repository(TransferRepository.class, Map.of()),
+                repository(IdempotentRepository.class, Map.of()),
+                new CardResolverService(
+                        accountRepository,
+                        null,
+                        new CardCache(new CardCacheProperties(), meterRegistry),
+                        repository(CardProjectionRepository.class, cardProjections),
+                        new CardProjectionProperties(),
+                        new CardResolutionProperties()
+                ),
+                new AccountLockManager(accountRepository, new AccountLockingProperties(), meterRegistry),
+                new BalanceSlotService(jdbcTemplate, accountRepository, new BalanceSlotProperties(), null),
+                beans.getBeanProvider(AccountEngine.class),
+                beans.getBeanProvider(ColumnarTransferStore.class),
+                new LedgerService(jdbcTemplate, new NamedParameterJdbcTemplate(jdbcTemplate), new LedgerProperties(), null),
+                new IdempotencyKeyCache(new IdempotencyCacheProperties(), meterRegistry, null, null),
+                new IdempotencyStore(jdbcTemplate, new IdempotencyStoreProperties(),
+                        new IdempotencyCoalescingProperties(), meterRegistry),
+                new ObjectMapper(),
+                transactionTemplate()
+        );
+    }
+
+    /**
+     * Runs callbacks with transaction synchronization active and commits without any resource.
+     */
+    public static TransactionTemplate transactionTemplate() {
+        return new TransactionTemplate(new AbstractPlatformTransactionManager() {
+            @Override
+            protected Object doGetTransaction() {
+                return new Object();
+            }
+
+            @Override
+            protected void doBegin(Object transaction, TransactionDefinition definition) {
+            }
+
+            @Override
+            protected void doCommit(DefaultTransactionStatus status) {
+            }
+
+            @Override
+            protected void doRollback(DefaultTransactionStatus status) {
+            }
+        });
+    }
+}
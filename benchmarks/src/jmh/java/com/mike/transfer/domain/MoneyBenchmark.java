@@ -0,0 +1,99 @@
+package com.mike.transfer.domain;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance arithmetic on the account hot path. The {@code legacy*} benchmarks keep the former
+ * BigDecimal balance, normalized on every operation, as the baseline for the long minor-unit
+ * balance of {@link Account}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MoneyBenchmark {
+
+    private BigDecimal amount;
+    private Money money;
+    private Account account;
+    private LegacyAccount legacyAccount;
+
+    @Setup
+    public void setUp() {
+        amount = new BigDecimal("12.5");
+        money = Money.of(amount, Currency.USD);
+        account = new Account(UUID.randomUUID(), UUID.randomUUID(), Currency.USD);
+        account.credit(Money.of(new BigDecimal("1000000.00"), Currency.USD));
+        legacyAccount = new LegacyAccount();
+        legacyAccount.credit(new BigDecimal("1000000.00"));
+    }
+
+    @Benchmark
+    public BigDecimal normalize() {
+        return Money.normalize(amount);
+    }
+
+    @Benchmark
+    public Money of() {
+        return Money.of(amount, Currency.USD);
+    }
+
+    @Benchmark
+    public Account debitThenCredit() {
+        account.debit(money);
+        account.credit(money);
+        return account;
+    }
+
+    @Benchmark
+    public Account debitThenCreditFromDecimal() {
+        Money converted = Money.of(amount, account.getCurrency());
+        account.debit(converted);
+        account.credit(converted);
+        return account;
+    }
+
+    @Benchmark
+    public LegacyAccount legacyDebitThenCredit() {
+        legacyAccount.debit(amount);
+        legacyAccount.credit(amount);
+        return legacyAccount;
+    }
+
+    /**
+     * The account balance logic before balances were held as minor units.
+     */
+    public static final class LegacyAccount {
+
+        private BigDecimal balance = Money.normalize(BigDecimal.ZERO);
+
+        void credit(BigDecimal amount) {
+            validateAmount(amount);
+            balance = Money.normalize(balance.add(amount));
+        }
+
+        void debit(BigDecimal amount) {
+            validateAmount(amount);
+            BigDecimal normalized = Money.normalize(amount);
+            if (balance.compareTo(normalized) < 0) {
+                throw new IllegalStateException("Insufficient funds");
+            }
+            balance = Money.normalize(balance.subtract(amount));
+        }
+
+        private static void validateAmount(BigDecimal amount) {
+            if (amount == null || amount.signum() <= 0) {
+                throw new IllegalArgumentException("Invalid amount");
+            }
+        }
+    }
+}
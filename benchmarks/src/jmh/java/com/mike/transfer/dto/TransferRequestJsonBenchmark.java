@@ -0,0 +1,50 @@
+package com.mike.transfer.dto;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON mapping of the transfer request body, the way the controller receives it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransferRequestJsonBenchmark {
+
+    private ObjectReader reader;
+    private ObjectWriter writer;
+    private TransferRequest request;
+    private String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        reader = objectMapper.readerFor(TransferRequest.class);
+        writer = objectMapper.writerFor(TransferRequest.class);
+        request = new TransferRequest(UUID.randomUUID().toString(), UUID.randomUUID().toString(), new BigDecimal("125.40"));
+        json = writer.writeValueAsString(request);
+    }
+
+    @Benchmark
+    public TransferRequest deserialize() throws JsonProcessingException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public String serialize() throws JsonProcessingException {
+        return writer.writeValueAsString(request);
+    }
+}
@@ -0,0 +1,69 @@
+package com.mike.transfer.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.transfer.benchmark.StandIns;
+import com.mike.transfer.service.CardProjectionService;
+import com.mike.transfer.service.TransferService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and dispatch of card-events in {@link CardCreatedConsumer#listen}: envelope parse, payload
+ * mapping and projection building. The projection upsert goes to a stand-in JdbcTemplate and
+ * account creation, which calls card-service, is left out.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CardCreatedConsumerBenchmark {
+
+    private CardCreatedConsumer consumer;
+    private String cardCreated;
+    private String cardBlocked;
+    private String requestId;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper();
+        TransferService transferService = new TransferService(
+                null, null, null, null, null, null, null, null, null, null, null, null, null) {
+            @Override
+            public void createDefaultAccounts(UUID userId) {
+            }
+        };
+        consumer = new CardCreatedConsumer(
+                transferService,
+                new CardProjectionService(StandIns.jdbcTemplate(), objectMapper),
+                objectMapper
+        );
+
+        String userId = UUID.randomUUID().toString();
+        String cardId = UUID.randomUUID().toString();
+        cardCreated = """
+                {"type":"CARD_CREATED","payload":{"userId":"%s","cardId":"%s","currency":"USD","status":"ACTIVE","version":1}}
+                """.formatted(userId, cardId);
+        cardBlocked = """
+                {"type":"CARD_BLOCKED","payload":{"cardId":"%s","userId":"%s","accountId":"%s","status":"BLOCKED","version":2}}
+                """.formatted(cardId, userId, UUID.randomUUID());
+        requestId = "bench-" + UUID.randomUUID();
+    }
+
+    @Benchmark
+    public void cardCreated() throws JsonProcessingException {
+        consumer.listen(cardCreated, requestId);
+    }
+
+    @Benchmark
+    public void cardUpdated() throws JsonProcessingException {
+        consumer.listen(cardBlocked, requestId);
+    }
+}
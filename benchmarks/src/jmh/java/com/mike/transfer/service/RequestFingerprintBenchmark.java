@@ -0,0 +1,51 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.benchmark.StandIns;
+import com.mike.transfer.dto.TransferRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request fingerprint of an idempotent transfer. {@code legacyHash} is the baseline: the former
+ * {@code convertValue} to a map, JSON serialization and hex SHA-256, which is still computed to
+ * compare a request with a key stored in that format.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RequestFingerprintBenchmark {
+
+    // a stored legacy hash; matching it computes the legacy hash of the request
+    private static final String LEGACY_STORED_HASH =
+            "9f86d081884c7d659a2feaa0c55ad015a3bf4f1b2b0b822cd15d6c15b0f00a08";
+
+    private TransferService transferService;
+    private TransferRequest transferRequest;
+
+    @Setup
+    public void setUp() {
+        transferService = StandIns.transferService(Map.of(), Map.of());
+        transferRequest = new TransferRequest(
+                UUID.randomUUID().toString(), UUID.randomUUID().toString(), new BigDecimal("12.50"));
+    }
+
+    @Benchmark
+    public String fingerprint() {
+        return transferService.computeHash(transferRequest, "TRANSFER");
+    }
+
+    @Benchmark
+    public boolean legacyHash() {
+        return transferService.hashMatches(LEGACY_STORED_HASH, null, transferRequest, "TRANSFER");
+    }
+}
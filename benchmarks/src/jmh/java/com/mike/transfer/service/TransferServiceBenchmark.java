@@ -0,0 +1,86 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.benchmark.StandIns;
+import com.mike.transfer.domain.Account;
+import com.mike.transfer.domain.CardProjection;
+import com.mike.transfer.domain.Currency;
+import com.mike.transfer.domain.Money;
+import com.mike.transfer.dto.TransferRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Service-level cost of the money operations: card resolution from the projection, idempotency
+ * handling, balance updates and ledger rows, with the database replaced by {@link StandIns}.
+ * With {@code idempotencyKey=true} every call carries a fresh key, so the fingerprint, the key
+ * cache lookup and the key insert are included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TransferServiceBenchmark {
+
+    private static final BigDecimal OPENING_BALANCE = new BigDecimal("1000000000000.00");
+
+    @Param({"false", "true"})
+    public boolean idempotencyKey;
+
+    private TransferService transferService;
+    private TransferRequest transferRequest;
+    private UUID sourceAccountId;
+    private BigDecimal amount;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        UUID userId = UUID.randomUUID();
+        Account source = new Account(UUID.randomUUID(), userId, Currency.USD);
+        Account target = new Account(UUID.randomUUID(), userId, Currency.USD);
+        source.credit(Money.of(OPENING_BALANCE, Currency.USD));
+
+        UUID sourceCard = UUID.randomUUID();
+        UUID targetCard = UUID.randomUUID();
+        Map<UUID, Object> accounts = new HashMap<>();
+        accounts.put(source.getId(), source);
+        accounts.put(target.getId(), target);
+        Map<UUID, Object> cards = new HashMap<>();
+        cards.put(sourceCard, new CardProjection(sourceCard, userId, source.getId(), "ACTIVE", 1L));
+        cards.put(targetCard, new CardProjection(targetCard, userId, target.getId(), "ACTIVE", 1L));
+
+        transferService = StandIns.transferService(accounts, cards);
+        amount = new BigDecimal("12.50");
+        transferRequest = new TransferRequest(sourceCard.toString(), targetCard.toString(), amount);
+        sourceAccountId = source.getId();
+    }
+
+    @Benchmark
+    public UUID transfer() {
+        return transferService.transfer(transferRequest, nextKey());
+    }
+
+    @Benchmark
+    public BigDecimal topUp() {
+        return transferService.topUp(sourceAccountId, amount, nextKey());
+    }
+
+    @Benchmark
+    public BigDecimal withdraw() {
+        return transferService.withdraw(sourceAccountId, amount, nextKey());
+    }
+
+    private String nextKey() {
+        return idempotencyKey ? "bench-" + sequence++ : null;
+    }
+}
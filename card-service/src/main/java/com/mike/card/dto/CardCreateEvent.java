@@ -1,4 +1,4 @@
 package com.mike.card.dto;
 
-public record CardCreateEvent(String userId) {
+public record CardCreateEvent(String userId, String cardId, String currency, String status, long version) {
 }
@@ -0,0 +1,4 @@
+package com.mike.card.dto;
+
+public record CardUpdateEvent(String cardId, String userId, String accountId, String status, long version) {
+}
@@ -8,6 +8,7 @@ import com.mike.card.domain.CardType;
 import com.mike.card.domain.Currency;
 import com.mike.card.dto.CardCreateEvent;
 import com.mike.card.dto.CardResponse;
+import com.mike.card.dto.CardUpdateEvent;
 import com.mike.card.exception.CardAccessDeniedException;
 import com.mike.card.exception.CardNotFoundException;
 import com.mike.card.exception.EventSerializationException;
@@ -52,13 +53,13 @@ public class CardService {
                 return;
             }
             String number = generateCardNumber(Currency.USD);
-            cardRepository.save(new Card(
+            Card card = cardRepository.save(new Card(
                     userId,
                     number,
                     Currency.USD,
                     CardType.DEBIT
             ));
-            resolveAccountId(userId);
+            resolveAccountId(card);
             log.info(
                     "Card created | userId={} | currency={} | type={}",
                     userId, Currency.USD, CardType.DEBIT
@@ -98,6 +99,7 @@ public class CardService {
         Card card = findCardById(id);
         assertOwnerOrAdmin(authentication, card.getUserId());
         card.block();
+        publishCardUpdated(card, "CARD_BLOCKED");
     }
 
     @Transactional
@@ -105,17 +107,40 @@ public class CardService {
         Card card = findCardById(id);
         assertOwnerOrAdmin(authentication, card.getUserId());
         card.close();
+        publishCardUpdated(card, "CARD_CLOSED");
     }
 
-    public void resolveAccountId(UUID userId) {
-        CardCreateEvent event = new CardCreateEvent(userId.toString());
+    public void resolveAccountId(Card card) {
+        CardCreateEvent event = new CardCreateEvent(
+                card.getUserId().toString(),
+                card.getId().toString(),
+                card.getCurrency().name(),
+                card.getStatus().name(),
+                card.getVersion()
+        );
+        saveOutbox(card.getUserId().toString(), "CARD_CREATED", event);
+    }
+
+    private void publishCardUpdated(Card card, String type) {
+        // flush first so the event carries the version this change was committed with
+        cardRepository.saveAndFlush(card);
+        CardUpdateEvent event = new CardUpdateEvent(
+                card.getId().toString(),
+                card.getUserId().toString(),
+                card.getAccountId() != null ? card.getAccountId().toString() : null,
+                card.getStatus().name(),
+                card.getVersion()
+        );
+        saveOutbox(card.getId().toString(), type, event);
+    }
 
+    private void saveOutbox(String aggregateId, String type, Object event) {
         OutboxEvent outbox = new OutboxEvent(
                 UUID.randomUUID(),
                 "Card",
-                userId.toString(),
+                aggregateId,
                 MDC.get("requestId"),
-                "CARD_CREATED",
+                type,
                 toJson(event)
         );
         outboxRepository.save(outbox);
@@ -147,6 +172,7 @@ public class CardService {
         }
 
         card.setAccountId(accountId);
+        publishCardUpdated(card, "CARD_ACCOUNT_LINKED");
         log.info(
                 "Card linked successfully| cardId={} | accountId={}",
                 cardId, card.getAccountId()
@@ -0,0 +1,24 @@
+plugins {
+    `java-library`
+}
+
+dependencyManagement {
+    imports {
+        mavenBom("org.springframework.boot:spring-boot-dependencies:3.1.6")
+    }
+}
+
+dependencies {
+    api("org.springframework:spring-jdbc")
+    api("org.springframework:spring-context")
+    api("io.micrometer:micrometer-core")
+    implementation("org.slf4j:slf4j-api")
+
+    compileOnly("org.projectlombok:lombok:1.18.32")
+    annotationProcessor("org.projectlombok:lombok:1.18.32")
+
+    testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("org.testcontainers:junit-jupiter")
+    testImplementation("org.testcontainers:postgresql")
+    testRuntimeOnly("org.postgresql:postgresql")
+}
@@ -0,0 +1,16 @@
+package com.mike.idempotency;
+
+import java.util.UUID;
+
+/**
+ * A stored idempotency key: the entity the first request created and the fingerprint of that request.
+ * Implemented by each service's {@code idempotent_requests} entity.
+ */
+public interface IdempotencyKey {
+
+    String getKey();
+
+    UUID getEntityId();
+
+    String getRequestHash();
+}
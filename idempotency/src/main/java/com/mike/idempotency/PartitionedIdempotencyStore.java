@@ -0,0 +1,190 @@
+package com.mike.idempotency;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@code idempotent_requests} is range-partitioned by day on {@code created_at}, so expiring keys
+ * is a partition drop. Because the partition key is part of the primary key, uniqueness of a key
+ * across days is enforced by {@code insert_idempotency_keys}, which serializes inserts of the same
+ * key with an advisory lock and reports keys that are already stored.
+ * <p>
+ * Shared by the services that own such a table: each passes the settings bound under its own
+ * property prefix and the prefix of its gauges. Maintenance runs every
+ * {@link PartitionedIdempotencyStoreProperties#getMaintenanceInterval() maintenance interval} once
+ * the store is a bean of a context with scheduling enabled.
+ */
+public class PartitionedIdempotencyStore implements SchedulingConfigurer {
+
+    private static final Logger log = LoggerFactory.getLogger(PartitionedIdempotencyStore.class);
+
+    private static final String TABLE = "idempotent_requests";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final String INSERT_SQL = "SELECT key FROM insert_idempotency_keys(?, ?, ?) AS key";
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'idempotent_requests'::regclass
+            """;
+
+    private static final String SIZE_SQL = """
+            SELECT COALESCE(SUM(GREATEST(c.reltuples, 0)), 0)::bigint
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'idempotent_requests'::regclass
+            """;
+
+    private static final String OLDEST_SQL = "SELECT MIN(created_at) FROM idempotent_requests";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PartitionedIdempotencyStoreProperties properties;
+
+    private final AtomicLong size = new AtomicLong();
+    private final AtomicLong oldestAgeSeconds = new AtomicLong();
+
+    /**
+     * @param meterPrefix prefix of the {@code .idempotency.store.size} and
+     *                    {@code .idempotency.store.oldest.age} gauges, usually the service name
+     */
+    public PartitionedIdempotencyStore(JdbcTemplate jdbcTemplate,
+                                       PartitionedIdempotencyStoreProperties properties,
+                                       String meterPrefix,
+                                       MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        Gauge.builder(meterPrefix + ".idempotency.store.size", size, AtomicLong::get)
+                .description("Estimated number of stored idempotency keys")
+                .register(meterRegistry);
+        Gauge.builder(meterPrefix + ".idempotency.store.oldest.age", oldestAgeSeconds, AtomicLong::get)
+                .description("Age of the oldest stored idempotency key")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Stores the keys in the current transaction and returns the ones that were already stored;
+     * those are left untouched. Keys are inserted in sorted order so concurrent batches cannot deadlock.
+     */
+    public Set<String> insert(Collection<? extends IdempotencyKey> requests) {
+        if (requests.isEmpty()) {
+            return Set.of();
+        }
+        List<? extends IdempotencyKey> sorted = requests.stream()
+                .sorted(Comparator.comparing(IdempotencyKey::getKey))
+                .toList();
+
+        Set<String> existing = new LinkedHashSet<>();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+            Array keys = con.createArrayOf("text", sorted.stream().map(IdempotencyKey::getKey).toArray());
+            Array entityIds = con.createArrayOf("uuid", sorted.stream().map(IdempotencyKey::getEntityId).toArray());
+            Array hashes = con.createArrayOf("text", sorted.stream().map(IdempotencyKey::getRequestHash).toArray());
+            ps.setArray(1, keys);
+            ps.setArray(2, entityIds);
+            ps.setArray(3, hashes);
+            return ps;
+        }, rs -> {
+            existing.add(rs.getString(1));
+        });
+        return existing;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.addFixedDelayTask(this::maintain, properties.getMaintenanceInterval());
+    }
+
+    /**
+     * Creates partitions for the coming days, drops the ones whose keys are all past retention
+     * and refreshes the size and age gauges.
+     */
+    public void maintain() {
+        LocalDateTime now = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class);
+        LocalDate today = now.toLocalDate();
+
+        for (int i = 0; i <= properties.getPartitionsAhead(); i++) {
+            createPartition(today.plusDays(i));
+        }
+
+        LocalDateTime expiredBefore = now.minus(properties.getRetention());
+        for (String partition : jdbcTemplate.queryForList(PARTITIONS_SQL, String.class)) {
+            LocalDate day = partitionDay(partition);
+            if (day != null && !day.plusDays(1).atStartOfDay().isAfter(expiredBefore)) {
+                dropPartition(partition);
+            }
+        }
+
+        refreshMetrics(now);
+    }
+
+    private void createPartition(LocalDate day) {
+        String name = partitionName(day);
+        try {
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    name, TABLE, day, day.plusDays(1)));
+        } catch (Exception e) {
+            log.warn("Idempotency partition creation failed | partition={}", name, e);
+        }
+    }
+
+    private void dropPartition(String partition) {
+        try {
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition);
+            log.info("Idempotency partition dropped | partition={}", partition);
+        } catch (Exception e) {
+            log.warn("Idempotency partition drop failed | partition={}", partition, e);
+        }
+    }
+
+    private void refreshMetrics(LocalDateTime now) {
+        Long estimated = jdbcTemplate.queryForObject(SIZE_SQL, Long.class);
+        size.set(estimated != null ? estimated : 0);
+
+        Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_SQL, Timestamp.class);
+        oldestAgeSeconds.set(oldest != null
+                ? Math.max(0, Duration.between(oldest.toLocalDateTime(), now).toSeconds())
+                : 0);
+    }
+
+    static String partitionName(LocalDate day) {
+        return TABLE + "_" + PARTITION_SUFFIX.format(day);
+    }
+
+    /**
+     * The day a partition created by {@link #maintain()} covers, or null for any other partition.
+     */
+    static LocalDate partitionDay(String partition) {
+        String prefix = TABLE + "_";
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partition.substring(prefix.length()), PARTITION_SUFFIX);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.mike.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Settings of a {@link PartitionedIdempotencyStore}; each service binds them under its own prefix.
+ */
+@Getter
+@Setter
+public class PartitionedIdempotencyStoreProperties {
+
+    /**
+     * How long a key is guaranteed to be kept. Daily partitions are dropped once all their keys are older.
+     */
+    private Duration retention = Duration.ofHours(48);
+    private int partitionsAhead = 3;
+    private Duration maintenanceInterval = Duration.ofMinutes(10);
+}
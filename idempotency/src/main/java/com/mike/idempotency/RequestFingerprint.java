@@ -0,0 +1,159 @@
+package com.mike.idempotency;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.UUID;
+
+/**
+ * Canonical SHA-256 fingerprint of an idempotent request (format "v2"). Fields are fed straight into
+ * a per-thread digest as tagged, length-prefixed values, so no map, JSON or hex string is built.
+ * Decimals are compared by value: {@code 100} and {@code 100.00} give the same fingerprint.
+ * The result is {@code "v2:"} followed by the unpadded base64url digest, which fits the
+ * {@code request_hash} column next to legacy hex hashes. Auth- and transfer-service both store it, so
+ * any change to the encoding needs a new prefix rather than an edit of this one.
+ */
+public final class RequestFingerprint {
+
+    public static final String PREFIX = "v2:";
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte UUID_VALUE = 2;
+    private static final byte DECIMAL = 3;
+    private static final byte BIG_DECIMAL = 4;
+
+    private static final char[] BASE64 =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+    private static final ThreadLocal<RequestFingerprint> CURRENT = ThreadLocal.withInitial(RequestFingerprint::new);
+
+    private final MessageDigest digest;
+    private final byte[] buffer = new byte[256];
+    private final char[] text = new char[PREFIX.length() + 43];
+    private int position;
+
+    private RequestFingerprint() {
+        try {
+            this.digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        PREFIX.getChars(0, PREFIX.length(), text, 0);
+    }
+
+    public static RequestFingerprint of(String operationType) {
+        RequestFingerprint fingerprint = CURRENT.get();
+        fingerprint.digest.reset();
+        fingerprint.position = 0;
+        return fingerprint.add(operationType);
+    }
+
+    public static boolean isCurrentFormat(String hash) {
+        return hash != null && hash.startsWith(PREFIX);
+    }
+
+    public RequestFingerprint add(String value) {
+        if (value == null) {
+            return putByte(NULL);
+        }
+        putByte(STRING);
+        putInt(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                putByte((byte) c);
+            } else if (c < 0x800) {
+                putByte((byte) (0xC0 | (c >> 6)));
+                putByte((byte) (0x80 | (c & 0x3F)));
+            } else {
+                // surrogates are encoded per char; the encoding only has to be stable, not valid UTF-8
+                putByte((byte) (0xE0 | (c >> 12)));
+                putByte((byte) (0x80 | ((c >> 6) & 0x3F)));
+                putByte((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+        return this;
+    }
+
+    public RequestFingerprint add(UUID value) {
+        if (value == null) {
+            return putByte(NULL);
+        }
+        putByte(UUID_VALUE);
+        putLong(value.getMostSignificantBits());
+        return putLong(value.getLeastSignificantBits());
+    }
+
+    public RequestFingerprint add(BigDecimal value) {
+        if (value == null) {
+            return putByte(NULL);
+        }
+        BigDecimal canonical = value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros();
+        BigInteger unscaled = canonical.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            putByte(DECIMAL);
+            putInt(canonical.scale());
+            return putLong(unscaled.longValue());
+        }
+        byte[] bytes = unscaled.toByteArray();
+        putByte(BIG_DECIMAL);
+        putInt(canonical.scale());
+        putInt(bytes.length);
+        for (byte b : bytes) {
+            putByte(b);
+        }
+        return this;
+    }
+
+    public String finish() {
+        flush();
+        try {
+            digest.digest(buffer, 0, 32);
+        } catch (DigestException e) {
+            throw new IllegalStateException(e);
+        }
+
+        int out = PREFIX.length();
+        int i = 0;
+        for (; i + 3 <= 32; i += 3) {
+            int bits = (buffer[i] & 0xFF) << 16 | (buffer[i + 1] & 0xFF) << 8 | (buffer[i + 2] & 0xFF);
+            text[out++] = BASE64[bits >>> 18];
+            text[out++] = BASE64[(bits >>> 12) & 0x3F];
+            text[out++] = BASE64[(bits >>> 6) & 0x3F];
+            text[out++] = BASE64[bits & 0x3F];
+        }
+        int bits = (buffer[i] & 0xFF) << 16 | (buffer[i + 1] & 0xFF) << 8;
+        text[out++] = BASE64[bits >>> 18];
+        text[out++] = BASE64[(bits >>> 12) & 0x3F];
+        text[out++] = BASE64[(bits >>> 6) & 0x3F];
+        return new String(text, 0, out);
+    }
+
+    private RequestFingerprint putByte(byte value) {
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = value;
+        return this;
+    }
+
+    private RequestFingerprint putInt(int value) {
+        putByte((byte) (value >>> 24));
+        putByte((byte) (value >>> 16));
+        putByte((byte) (value >>> 8));
+        return putByte((byte) value);
+    }
+
+    private RequestFingerprint putLong(long value) {
+        putInt((int) (value >>> 32));
+        return putInt((int) value);
+    }
+
+    private void flush() {
+        digest.update(buffer, 0, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,167 @@
+package com.mike.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class PartitionedIdempotencyStoreTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    private static final String SCHEMA_SQL = """
+            DROP TABLE IF EXISTS idempotent_requests;
+            CREATE TABLE idempotent_requests (
+                key          varchar(128) NOT NULL,
+                entity_id    uuid         NOT NULL,
+                request_hash varchar(64)  NOT NULL,
+                created_at   timestamp    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                CONSTRAINT idempotent_requests_pkey PRIMARY KEY (key, created_at)
+            ) PARTITION BY RANGE (created_at);
+
+            CREATE OR REPLACE FUNCTION insert_idempotency_keys(p_keys text[], p_entity_ids uuid[], p_hashes text[])
+            RETURNS SETOF text
+            LANGUAGE plpgsql
+            AS $$
+            BEGIN
+                FOR i IN 1 .. COALESCE(array_length(p_keys, 1), 0) LOOP
+                    PERFORM pg_advisory_xact_lock(hashtextextended(p_keys[i], 0));
+                    IF EXISTS (SELECT 1 FROM idempotent_requests WHERE key = p_keys[i]) THEN
+                        RETURN NEXT p_keys[i];
+                    ELSE
+                        INSERT INTO idempotent_requests (key, entity_id, request_hash, created_at)
+                        VALUES (p_keys[i], p_entity_ids[i], p_hashes[i], LOCALTIMESTAMP);
+                    END IF;
+                END LOOP;
+            END
+            $$;
+            """;
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'idempotent_requests'::regclass
+            """;
+
+    private JdbcTemplate jdbcTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private PartitionedIdempotencyStore store;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword()));
+        jdbcTemplate.execute(SCHEMA_SQL);
+        today = jdbcTemplate.queryForObject("SELECT LOCALTIMESTAMP", LocalDateTime.class).toLocalDate();
+
+        PartitionedIdempotencyStoreProperties properties = new PartitionedIdempotencyStoreProperties();
+        properties.setRetention(Duration.ofHours(48));
+        properties.setPartitionsAhead(2);
+        meterRegistry = new SimpleMeterRegistry();
+        store = new PartitionedIdempotencyStore(jdbcTemplate, properties, "test", meterRegistry);
+    }
+
+    @Test
+    void maintain_createsTodayAndPartitionsAhead() {
+        store.maintain();
+
+        assertThat(partitions()).containsExactlyInAnyOrder(
+                PartitionedIdempotencyStore.partitionName(today),
+                PartitionedIdempotencyStore.partitionName(today.plusDays(1)),
+                PartitionedIdempotencyStore.partitionName(today.plusDays(2)));
+    }
+
+    @Test
+    void maintain_dropsPartitionsPastRetentionAndKeepsTheRest() {
+        // given
+        createPartition(today.minusDays(3));
+        // ends at the start of yesterday, less than 48 hours ago: some of its keys are still retained
+        createPartition(today.minusDays(2));
+        createPartition(today.minusDays(1));
+        jdbcTemplate.execute("CREATE TABLE idempotent_requests_default PARTITION OF idempotent_requests DEFAULT");
+
+        // when
+        store.maintain();
+
+        // then
+        assertThat(partitions())
+                .doesNotContain(PartitionedIdempotencyStore.partitionName(today.minusDays(3)))
+                .contains(
+                        PartitionedIdempotencyStore.partitionName(today.minusDays(2)),
+                        PartitionedIdempotencyStore.partitionName(today.minusDays(1)),
+                        "idempotent_requests_default");
+    }
+
+    @Test
+    void insert_reportsKeysStoredOnAnEarlierDay() {
+        // given
+        createPartition(today.minusDays(1));
+        store.maintain();
+        jdbcTemplate.update("""
+                INSERT INTO idempotent_requests (key, entity_id, request_hash, created_at)
+                VALUES ('stored', ?, 'hash', LOCALTIMESTAMP - interval '1 day')
+                """, UUID.randomUUID());
+
+        // when
+        var existing = store.insert(List.of(key("stored"), key("new")));
+
+        // then
+        assertThat(existing).containsExactly("stored");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM idempotent_requests WHERE key = 'new'", Integer.class)).isOne();
+        assertThat(meterRegistry.get("test.idempotency.store.size").gauge()).isNotNull();
+    }
+
+    @Test
+    void partitionDay_ignoresPartitionsNotNamedByDay() {
+        assertThat(PartitionedIdempotencyStore.partitionDay("idempotent_requests_20240131"))
+                .isEqualTo(LocalDate.of(2024, 1, 31));
+        assertThat(PartitionedIdempotencyStore.partitionDay("idempotent_requests_default")).isNull();
+        assertThat(PartitionedIdempotencyStore.partitionDay("other_20240131")).isNull();
+    }
+
+    private void createPartition(LocalDate day) {
+        jdbcTemplate.execute(String.format(
+                "CREATE TABLE %s PARTITION OF idempotent_requests FOR VALUES FROM ('%s') TO ('%s')",
+                PartitionedIdempotencyStore.partitionName(day), day, day.plusDays(1)));
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList(PARTITIONS_SQL, String.class);
+    }
+
+    private static IdempotencyKey key(String key) {
+        return new IdempotencyKey() {
+            @Override
+            public String getKey() {
+                return key;
+            }
+
+            @Override
+            public UUID getEntityId() {
+                return UUID.randomUUID();
+            }
+
+            @Override
+            public String getRequestHash() {
+                return "hash";
+            }
+        };
+    }
+}
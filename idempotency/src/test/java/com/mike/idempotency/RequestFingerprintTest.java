@@ -0,0 +1,42 @@
+package com.mike.idempotency;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestFingerprintTest {
+
+    @Test
+    void finish_isStableAndComparesDecimalsByValue() {
+        UUID accountId = UUID.randomUUID();
+
+        String first = RequestFingerprint.of("TOP_UP").add(accountId).add(new BigDecimal("100")).finish();
+        String second = RequestFingerprint.of("TOP_UP").add(accountId).add(new BigDecimal("100.00")).finish();
+
+        assertThat(first).isEqualTo(second).startsWith(RequestFingerprint.PREFIX).hasSize(46);
+        assertThat(RequestFingerprint.isCurrentFormat(first)).isTrue();
+    }
+
+    @Test
+    void finish_distinguishesOperationsFieldsAndFieldBoundaries() {
+        String transfer = RequestFingerprint.of("TRANSFER").add("ab").add("c").add(BigDecimal.ONE).finish();
+
+        assertThat(RequestFingerprint.of("TRANSFER").add("a").add("bc").add(BigDecimal.ONE).finish())
+                .isNotEqualTo(transfer);
+        assertThat(RequestFingerprint.of("WITHDRAW").add("ab").add("c").add(BigDecimal.ONE).finish())
+                .isNotEqualTo(transfer);
+        assertThat(RequestFingerprint.of("TRANSFER").add("ab").add("c").add(BigDecimal.TEN).finish())
+                .isNotEqualTo(transfer);
+        assertThat(RequestFingerprint.of("TRANSFER").add("ab").add((String) null).add(BigDecimal.ONE).finish())
+                .isNotEqualTo(transfer);
+    }
+
+    @Test
+    void isCurrentFormat_rejectsLegacyHexHashes() {
+        assertThat(RequestFingerprint.isCurrentFormat("a".repeat(64))).isFalse();
+        assertThat(RequestFingerprint.isCurrentFormat(null)).isFalse();
+    }
+}
@@ -0,0 +1,30 @@
+plugins {
+    application
+}
+
+dependencyManagement {
+    imports {
+        mavenBom("org.springframework.boot:spring-boot-dependencies:3.1.6")
+    }
+}
+
+dependencies {
+    implementation("org.hdrhistogram:HdrHistogram:2.1.12")
+    implementation("com.fasterxml.jackson.core:jackson-databind")
+    implementation("com.fasterxml.jackson.dataformat:jackson-dataformat-yaml")
+    implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310")
+    implementation("org.slf4j:slf4j-api")
+    runtimeOnly("ch.qos.logback:logback-classic")
+
+    testImplementation("org.junit.jupiter:junit-jupiter")
+    testImplementation("org.assertj:assertj-core")
+}
+
+application {
+    mainClass.set("com.mike.loadgen.LoadGenerator")
+}
+
+tasks.named<JavaExec>("run") {
+    // scenario paths are relative to this module
+    workingDir = projectDir
+}
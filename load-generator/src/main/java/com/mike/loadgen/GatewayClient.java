@@ -0,0 +1,133 @@
+package com.mike.loadgen;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+/**
+ * Thin HTTP/JSON client for api-gateway. Requests carry a {@code loadgen-} prefixed
+ * {@code X-Request-Id}, so they can be told apart in the service logs.
+ */
+final class GatewayClient {
+
+    record Response(int status, String body) {
+
+        boolean ok() {
+            return status >= 200 && status < 300;
+        }
+    }
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient;
+    private final String gateway;
+    private final Duration timeout;
+
+    GatewayClient(Scenario scenario) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .version(HttpClient.Version.HTTP_1_1);
+        if (scenario.insecure()) {
+            // the gateway serves the self-signed shared-services certificate
+            builder.sslContext(trustAll());
+        }
+        this.httpClient = builder.build();
+        this.gateway = scenario.gateway().replaceAll("/+$", "");
+        this.timeout = scenario.requestTimeout();
+    }
+
+    Response send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return new Response(response.statusCode(), response.body());
+    }
+
+    HttpRequest get(String path, String token) {
+        return builder(path, token).GET().build();
+    }
+
+    HttpRequest post(String path, String token, String idempotencyKey) {
+        HttpRequest.Builder builder = builder(path, token).POST(HttpRequest.BodyPublishers.noBody());
+        if (idempotencyKey != null) {
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
+        return builder.build();
+    }
+
+    HttpRequest postJson(String path, Object body, String token, String idempotencyKey) {
+        HttpRequest.Builder builder = builder(path, token)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(write(body)));
+        if (idempotencyKey != null) {
+            builder.header("Idempotency-Key", idempotencyKey);
+        }
+        return builder.build();
+    }
+
+    JsonNode read(Response response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest.Builder builder(String path, String token) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(gateway + path))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .header("X-Request-Id", "loadgen-" + UUID.randomUUID());
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private String write(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static SSLContext trustAll() {
+        // hostname verification is switched off in LoadGenerator before the client class is loaded
+        TrustManager trustAll = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[]{trustAll}, new SecureRandom());
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot create trust-all SSL context", e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.mike.loadgen;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Command line entry point:
+ * <pre>
+ * ./gradlew :load-generator:run --args="--scenario scenarios/mixed.yaml [--gateway https://host:port] [--out build/results/mixed.json]"
+ * </pre>
+ * Admin routes log in with {@code LOADGEN_ADMIN_EMAIL} / {@code LOADGEN_ADMIN_PASSWORD}.
+ */
+public final class LoadGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadGenerator.class);
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path scenarioPath = null;
+        String gateway = null;
+        Path out = null;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--scenario" -> scenarioPath = Path.of(value(args, ++i));
+                case "--gateway" -> gateway = value(args, ++i);
+                case "--out" -> out = Path.of(value(args, ++i));
+                default -> usage("Unknown argument " + args[i]);
+            }
+        }
+        if (scenarioPath == null) {
+            usage("--scenario is required");
+        }
+
+        String adminEmail = System.getenv("LOADGEN_ADMIN_EMAIL");
+        Scenario.Credentials admin = adminEmail != null
+                ? new Scenario.Credentials(adminEmail, System.getenv("LOADGEN_ADMIN_PASSWORD"))
+                : null;
+        Scenario scenario = Scenario.load(scenarioPath).with(gateway, admin);
+        scenario.validate();
+
+        if (scenario.insecure()) {
+            // must be set before the JDK HTTP client initializes
+            System.setProperty("jdk.internal.httpclient.disableHostnameVerification", "true");
+        }
+        GatewayClient client = new GatewayClient(scenario);
+        UserSetup setup = new UserSetup(client, scenario);
+
+        log.info("Preparing users | scenario={} | gateway={} | users={}",
+                scenario.name(), scenario.gateway(), scenario.users());
+        List<UserSetup.VirtualUser> users = setup.prepare();
+        String adminToken = scenario.admin() != null ? setup.login(scenario.admin()) : null;
+
+        Route.Context context = new Route.Context(client, setup, users, adminToken, scenario.transferAmount());
+        LoadRunner.Result result = new LoadRunner(scenario, context).run();
+
+        Report.Summary summary = Report.summarize(result);
+        Report.print(summary, System.out);
+        if (out != null) {
+            Report.write(summary, out);
+            log.info("Report written | path={}", out.toAbsolutePath());
+        }
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            usage(args[index - 1] + " needs a value");
+        }
+        return args[index];
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("usage: --scenario <file> [--gateway <url>] [--out <report.json>]");
+        System.exit(2);
+    }
+}
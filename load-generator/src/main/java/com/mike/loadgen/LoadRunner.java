@@ -0,0 +1,186 @@
+package com.mike.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load: arrivals are scheduled from the stage rates alone and every arrival gets its
+ * own virtual thread, so a slow gateway builds up in-flight requests instead of slowing the
+ * arrival rate down. Arrivals scheduled during the warmup are sent but not recorded.
+ */
+final class LoadRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(LoadRunner.class);
+
+    private static final long IDLE_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    record Result(Scenario scenario, Instant startedAt, Duration measured, List<RouteStats> routes) {
+    }
+
+    private final Scenario scenario;
+    private final Route.Context context;
+    private final Map<Route, RouteStats> stats = new EnumMap<>(Route.class);
+    private final Route[] routes;
+    private final int[] cumulativeWeights;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    LoadRunner(Scenario scenario, Route.Context context) {
+        this.scenario = scenario;
+        this.context = context;
+
+        List<Scenario.RouteWeight> weighted = scenario.mix().stream().filter(w -> w.weight() > 0).toList();
+        this.routes = new Route[weighted.size()];
+        this.cumulativeWeights = new int[weighted.size()];
+        int sum = 0;
+        for (int i = 0; i < weighted.size(); i++) {
+            sum += weighted.get(i).weight();
+            routes[i] = weighted.get(i).route();
+            cumulativeWeights[i] = sum;
+            stats.putIfAbsent(routes[i], new RouteStats(routes[i]));
+        }
+    }
+
+    Result run() throws InterruptedException {
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        long measuredFrom = start + scenario.warmup().toNanos();
+        log.info("Run started | scenario={} | duration={} | warmup={}",
+                scenario.name(), scenario.duration(), scenario.warmup());
+
+        Thread reporter = Thread.ofVirtual().name("loadgen-reporter").start(() -> report(start));
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            long next = start;
+            for (Scenario.Stage stage : scenario.stages()) {
+                long stageStart = next;
+                long stageNanos = stage.duration().toNanos();
+                long stageEnd = stageStart + stageNanos;
+                while (next < stageEnd) {
+                    double rate = stage.rateAt((next - stageStart) / (double) stageNanos);
+                    if (rate <= 0) {
+                        next += IDLE_STEP_NANOS;
+                        continue;
+                    }
+                    sleepUntil(next);
+                    arrive(executor, next, next >= measuredFrom);
+                    next += gapNanos(rate);
+                }
+                next = stageEnd;
+            }
+            // closing the executor waits for the requests still in flight
+        } finally {
+            reporter.interrupt();
+            reporter.join();
+        }
+
+        stats.values().forEach(RouteStats::interval);
+        Duration measured = Duration.ofNanos(Math.max(0, System.nanoTime() - measuredFrom));
+        return new Result(scenario, startedAt, measured, new ArrayList<>(stats.values()));
+    }
+
+    private void arrive(ExecutorService executor, long intendedNanos, boolean measured) {
+        Route route = pick(ThreadLocalRandom.current());
+        RouteStats routeStats = stats.get(route);
+        if (inFlight.incrementAndGet() > scenario.maxInFlight()) {
+            inFlight.decrementAndGet();
+            if (measured) {
+                routeStats.recordDropped();
+            }
+            return;
+        }
+        executor.execute(() -> execute(routeStats, intendedNanos, measured));
+    }
+
+    private void execute(RouteStats routeStats, long intendedNanos, boolean measured) {
+        try {
+            HttpRequest request = routeStats.route().request(context, ThreadLocalRandom.current());
+            GatewayClient.Response response = context.client().send(request);
+            if (!measured) {
+                return;
+            }
+            long latencyMicros = (System.nanoTime() - intendedNanos) / 1_000;
+            if (response.ok()) {
+                routeStats.recordSuccess(latencyMicros);
+            } else {
+                routeStats.recordError(latencyMicros, "HTTP " + response.status());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (measured) {
+                routeStats.recordError((System.nanoTime() - intendedNanos) / 1_000, e.getClass().getSimpleName());
+            }
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    Route pick(ThreadLocalRandom random) {
+        int ticket = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (ticket < cumulativeWeights[i]) {
+                return routes[i];
+            }
+        }
+        return routes[routes.length - 1];
+    }
+
+    private long gapNanos(double rate) {
+        double meanNanos = 1e9 / rate;
+        if (scenario.arrivals() == Scenario.Arrivals.CONSTANT) {
+            return Math.max(1, (long) meanNanos);
+        }
+        return Math.max(1, (long) (-Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) * meanNanos));
+    }
+
+    private void report(long start) {
+        long intervalNanos = scenario.reportInterval().toNanos();
+        long next = start + intervalNanos;
+        while (!Thread.currentThread().isInterrupted()) {
+            sleepUntil(next);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+            Histogram merged = new Histogram(RouteStats.HIGHEST_MICROS, 3);
+            long errors = 0;
+            for (RouteStats routeStats : stats.values()) {
+                merged.add(routeStats.interval());
+                errors += routeStats.errors();
+            }
+            log.info(
+                    "t={}s | completed={}/s | inFlight={} | p50={}ms | p99={}ms | errorsSoFar={}",
+                    TimeUnit.NANOSECONDS.toSeconds(next - start),
+                    Math.round(merged.getTotalCount() / (intervalNanos / 1e9)),
+                    inFlight.get(),
+                    Report.millis(merged.getValueAtPercentile(50)),
+                    Report.millis(merged.getValueAtPercentile(99)),
+                    errors
+            );
+            next += intervalNanos;
+        }
+    }
+
+    private static void sleepUntil(long deadlineNanos) {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.currentThread().isInterrupted()) {
+                return;
+            }
+        }
+    }
+}
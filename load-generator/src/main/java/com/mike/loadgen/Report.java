@@ -0,0 +1,109 @@
+package com.mike.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-route summary of a run: throughput, error rate and latency percentiles, printed as a table
+ * and optionally written as JSON so runs can be compared.
+ */
+final class Report {
+
+    record RouteSummary(String route, long requests, long errors, long dropped, double errorRate,
+                        double throughput, BigDecimal p50Ms, BigDecimal p99Ms, BigDecimal p999Ms,
+                        BigDecimal maxMs, Map<String, Long> errorsByType) {
+    }
+
+    record Summary(String scenario, String startedAt, double measuredSeconds, RouteSummary total,
+                   List<RouteSummary> routes) {
+    }
+
+    private Report() {
+    }
+
+    static Summary summarize(LoadRunner.Result result) {
+        double seconds = Math.max(result.measured().toMillis() / 1000.0, 0.001);
+        Histogram all = new Histogram(RouteStats.HIGHEST_MICROS, 3);
+        long errors = 0;
+        long dropped = 0;
+        Map<String, Long> errorsByType = new LinkedHashMap<>();
+        List<RouteSummary> routes = new ArrayList<>();
+        for (RouteStats stats : result.routes()) {
+            Histogram histogram = stats.total();
+            all.add(histogram);
+            errors += stats.errors();
+            dropped += stats.dropped();
+            stats.errorsByType().forEach((type, count) -> errorsByType.merge(type, count, Long::sum));
+            routes.add(summary(stats.route().id(), histogram, stats.errors(), stats.dropped(),
+                    stats.errorsByType(), seconds));
+        }
+        return new Summary(
+                result.scenario().name(),
+                result.startedAt().toString(),
+                seconds,
+                summary("total", all, errors, dropped, errorsByType, seconds),
+                routes
+        );
+    }
+
+    static void print(Summary summary, PrintStream out) {
+        out.printf("%nScenario %s, %.1fs measured%n", summary.scenario(), summary.measuredSeconds());
+        out.printf("%-22s %9s %9s %8s %9s %9s %9s %9s %9s%n",
+                "route", "requests", "req/s", "errors%", "dropped", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        for (RouteSummary route : summary.routes()) {
+            printRow(route, out);
+        }
+        printRow(summary.total(), out);
+        if (!summary.total().errorsByType().isEmpty()) {
+            out.println("errors: " + summary.total().errorsByType());
+        }
+    }
+
+    static void write(Summary summary, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), summary);
+    }
+
+    static BigDecimal millis(long micros) {
+        return BigDecimal.valueOf(micros).divide(BigDecimal.valueOf(1000), 1, RoundingMode.HALF_UP);
+    }
+
+    private static RouteSummary summary(String route, Histogram histogram, long errors, long dropped,
+                                        Map<String, Long> errorsByType, double seconds) {
+        long requests = histogram.getTotalCount();
+        long arrivals = requests + dropped;
+        return new RouteSummary(
+                route,
+                requests,
+                errors,
+                dropped,
+                arrivals == 0 ? 0 : (errors + dropped) / (double) arrivals,
+                requests / seconds,
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()),
+                errorsByType
+        );
+    }
+
+    private static void printRow(RouteSummary row, PrintStream out) {
+        out.printf("%-22s %9d %9.1f %8.2f %9d %9s %9s %9s %9s%n",
+                row.route(), row.requests(), row.throughput(), row.errorRate() * 100, row.dropped(),
+                row.p50Ms(), row.p99Ms(), row.p999Ms(), row.maxMs());
+    }
+}
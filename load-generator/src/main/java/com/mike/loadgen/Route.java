@@ -0,0 +1,116 @@
+package com.mike.loadgen;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.math.BigDecimal;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Gateway operations a scenario mix can draw from. Each arrival picks a random prepared user
+ * (and for transfers a second one as the recipient).
+ */
+public enum Route {
+
+    REGISTER("register"),
+    LOGIN("login"),
+    CARDS("cards"),
+    CARD("card"),
+    ACCOUNT("account"),
+    BALANCE("balance"),
+    TRANSFER("transfer"),
+    TOP_UP("top-up"),
+    WITHDRAW("withdraw"),
+    HISTORY("history"),
+    TURNOVER("turnover"),
+    ADMIN_TURNOVER("admin-turnover"),
+    ADMIN_TOP_TRANSFERS("admin-top-transfers");
+
+    private static final Duration ANALYTICS_WINDOW = Duration.ofDays(1);
+
+    record Context(GatewayClient client, UserSetup setup, List<UserSetup.VirtualUser> users,
+                   String adminToken, BigDecimal amount) {
+    }
+
+    private final String id;
+
+    Route(String id) {
+        this.id = id;
+    }
+
+    @JsonValue
+    public String id() {
+        return id;
+    }
+
+    @JsonCreator
+    public static Route of(String id) {
+        for (Route route : values()) {
+            if (route.id.equalsIgnoreCase(id) || route.name().equalsIgnoreCase(id)) {
+                return route;
+            }
+        }
+        throw new IllegalArgumentException("Unknown route " + id);
+    }
+
+    public boolean isAdmin() {
+        return this == ADMIN_TURNOVER || this == ADMIN_TOP_TRANSFERS;
+    }
+
+    HttpRequest request(Context ctx, ThreadLocalRandom random) {
+        GatewayClient client = ctx.client();
+        UserSetup.VirtualUser user = ctx.users().get(random.nextInt(ctx.users().size()));
+        String token = user.token();
+        String amount = ctx.amount().toPlainString();
+
+        return switch (this) {
+            case REGISTER -> {
+                String username = ctx.setup().newUsername();
+                yield client.postJson("/auth/register",
+                        Map.of("username", username, "email", username + "@loadgen.local",
+                                "password", "Loadgen-" + UUID.randomUUID()),
+                        null, UUID.randomUUID().toString());
+            }
+            case LOGIN -> client.postJson("/auth/login",
+                    Map.of("email", user.email(), "password", user.password()), null, null);
+            case CARDS -> client.get("/cards/" + user.userId() + "/user", token);
+            case CARD -> client.get("/cards/" + user.cardId(), token);
+            case ACCOUNT -> client.get("/transfers/" + user.userId() + "/account", token);
+            case BALANCE -> client.get("/transfers/accounts/" + user.accountId() + "/balance", token);
+            case TRANSFER -> {
+                UserSetup.VirtualUser recipient = otherThan(user, ctx.users(), random);
+                yield client.postJson("/transfers",
+                        Map.of("fromCardId", user.cardId().toString(),
+                                "toCardId", recipient.cardId().toString(),
+                                "amount", ctx.amount()),
+                        token, UUID.randomUUID().toString());
+            }
+            case TOP_UP -> client.post("/transfers/accounts/" + user.accountId() + "/top-up?amount=" + amount,
+                    token, UUID.randomUUID().toString());
+            case WITHDRAW -> client.post("/transfers/accounts/" + user.accountId() + "/withdraw?amount=" + amount,
+                    token, UUID.randomUUID().toString());
+            case HISTORY -> client.get("/transfers/accounts/" + user.accountId() + "/history?size=20", token);
+            case TURNOVER -> client.get("/analytics/accounts/" + user.accountId() + "/turnover?" + window(), token);
+            case ADMIN_TURNOVER -> client.get("/analytics/admin/turnover?" + window(), ctx.adminToken());
+            case ADMIN_TOP_TRANSFERS -> client.get("/analytics/admin/top-transfers?" + window() + "&limit=10",
+                    ctx.adminToken());
+        };
+    }
+
+    private static UserSetup.VirtualUser otherThan(UserSetup.VirtualUser user, List<UserSetup.VirtualUser> users,
+                                                  ThreadLocalRandom random) {
+        UserSetup.VirtualUser other = users.get(random.nextInt(users.size() - 1));
+        return other == user ? users.get(users.size() - 1) : other;
+    }
+
+    private static String window() {
+        Instant to = Instant.now();
+        return "from=" + to.minus(ANALYTICS_WINDOW) + "&to=" + to;
+    }
+}
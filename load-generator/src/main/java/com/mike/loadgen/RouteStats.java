@@ -0,0 +1,82 @@
+package com.mike.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and outcome counts of one route. Latency is measured from the arrival's scheduled
+ * start, not from when the request was actually sent, so a slow gateway cannot hide queueing
+ * delay (coordinated omission).
+ */
+final class RouteStats {
+
+    static final long HIGHEST_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final Route route;
+    private final Recorder recorder = new Recorder(HIGHEST_MICROS, 3);
+    private final Histogram total = new Histogram(HIGHEST_MICROS, 3);
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final Map<String, LongAdder> errorsByType = new ConcurrentHashMap<>();
+
+    RouteStats(Route route) {
+        this.route = route;
+    }
+
+    Route route() {
+        return route;
+    }
+
+    void recordSuccess(long latencyMicros) {
+        recorder.recordValue(Math.min(latencyMicros, HIGHEST_MICROS));
+    }
+
+    /**
+     * A failed request still counts towards latency: an error page returned quickly is not a fast success.
+     */
+    void recordError(long latencyMicros, String type) {
+        recorder.recordValue(Math.min(latencyMicros, HIGHEST_MICROS));
+        errors.increment();
+        errorsByType.computeIfAbsent(type, t -> new LongAdder()).increment();
+    }
+
+    /**
+     * The arrival was not sent because max-in-flight requests were already outstanding.
+     */
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    /**
+     * Moves what was recorded since the previous call into the run total and returns it.
+     */
+    synchronized Histogram interval() {
+        Histogram interval = recorder.getIntervalHistogram();
+        total.add(interval);
+        return interval;
+    }
+
+    synchronized Histogram total() {
+        return total.copy();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    long dropped() {
+        return dropped.sum();
+    }
+
+    Map<String, Long> errorsByType() {
+        Map<String, Long> copy = new TreeMap<>();
+        errorsByType.forEach((type, count) -> copy.put(type, count.sum()));
+        return copy;
+    }
+}
@@ -0,0 +1,117 @@
+package com.mike.loadgen;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * A load scenario as checked in under {@code scenarios/}. Arrivals follow the stages regardless of
+ * how fast the gateway answers (open model); each arrival runs one request of a route drawn from
+ * the weighted mix.
+ */
+public record Scenario(
+        String name,
+        String gateway,
+        Boolean insecure,
+        Integer users,
+        BigDecimal initialBalance,
+        BigDecimal transferAmount,
+        Arrivals arrivals,
+        Duration warmup,
+        List<Stage> stages,
+        List<RouteWeight> mix,
+        Integer maxInFlight,
+        Duration requestTimeout,
+        Duration setupTimeout,
+        Duration reportInterval,
+        Credentials admin
+) {
+
+    public enum Arrivals {
+        /** evenly spaced arrivals */
+        CONSTANT,
+        /** exponentially distributed gaps, i.e. independent clients */
+        POISSON
+    }
+
+    /** {@code rate} arrivals per second for {@code duration}; {@code rampTo} makes the rate change linearly. */
+    public record Stage(double rate, Double rampTo, Duration duration) {
+
+        double rateAt(double fraction) {
+            return rampTo == null ? rate : rate + (rampTo - rate) * fraction;
+        }
+    }
+
+    public record RouteWeight(Route route, int weight) {
+    }
+
+    public record Credentials(String email, String password) {
+    }
+
+    public Scenario {
+        if (name == null) name = "unnamed";
+        if (gateway == null) gateway = "https://localhost:8080";
+        if (insecure == null) insecure = true;
+        if (users == null) users = 20;
+        if (initialBalance == null) initialBalance = new BigDecimal("100000.00");
+        if (transferAmount == null) transferAmount = new BigDecimal("1.00");
+        if (arrivals == null) arrivals = Arrivals.POISSON;
+        if (warmup == null) warmup = Duration.ZERO;
+        if (maxInFlight == null) maxInFlight = 10_000;
+        if (requestTimeout == null) requestTimeout = Duration.ofSeconds(10);
+        if (setupTimeout == null) setupTimeout = Duration.ofMinutes(2);
+        if (reportInterval == null) reportInterval = Duration.ofSeconds(10);
+    }
+
+    public static Scenario load(Path path) throws IOException {
+        ObjectMapper yaml = YAMLMapper.builder()
+                .addModule(new JavaTimeModule())
+                .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
+                .build();
+        return yaml.readValue(path.toFile(), Scenario.class);
+    }
+
+    /**
+     * Applies command line and environment overrides; admin credentials are never checked in.
+     */
+    public Scenario with(String gateway, Credentials admin) {
+        return new Scenario(name, gateway != null ? gateway : this.gateway, insecure, users, initialBalance,
+                transferAmount, arrivals, warmup, stages, mix, maxInFlight, requestTimeout, setupTimeout,
+                reportInterval, admin != null ? admin : this.admin);
+    }
+
+    public Duration duration() {
+        return stages.stream().map(Stage::duration).reduce(Duration.ZERO, Duration::plus);
+    }
+
+    void validate() {
+        if (stages == null || stages.isEmpty()) {
+            throw new IllegalArgumentException("Scenario " + name + " has no stages");
+        }
+        for (Stage stage : stages) {
+            if (stage.duration() == null || stage.duration().isNegative() || stage.duration().isZero()) {
+                throw new IllegalArgumentException("Every stage needs a positive duration");
+            }
+            if (stage.rate() < 0 || (stage.rampTo() != null && stage.rampTo() < 0)) {
+                throw new IllegalArgumentException("Stage rates cannot be negative");
+            }
+        }
+        if (mix == null || mix.isEmpty() || mix.stream().mapToInt(RouteWeight::weight).sum() <= 0) {
+            throw new IllegalArgumentException("Scenario " + name + " needs a mix with positive weights");
+        }
+        if (users < 2) {
+            throw new IllegalArgumentException("Transfers need at least 2 users");
+        }
+        boolean adminRoutes = mix.stream().anyMatch(w -> w.weight() > 0 && w.route().isAdmin());
+        if (adminRoutes && admin == null) {
+            throw new IllegalArgumentException("Scenario " + name + " uses admin routes but has no admin credentials");
+        }
+    }
+}
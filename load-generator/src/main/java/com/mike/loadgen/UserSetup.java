@@ -0,0 +1,148 @@
+package com.mike.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Creates the users the scenario runs as, through the same gateway routes a client would use:
+ * register, log in, wait until card-service has issued the card and transfer-service has linked it
+ * to an account (both happen asynchronously over Kafka), then fund the account.
+ */
+final class UserSetup {
+
+    private static final Logger log = LoggerFactory.getLogger(UserSetup.class);
+
+    private static final int CONCURRENCY = 16;
+    private static final long POLL_MILLIS = 500;
+
+    record VirtualUser(String email, String password, UUID userId, String token, UUID cardId, UUID accountId) {
+    }
+
+    private final GatewayClient client;
+    private final Scenario scenario;
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+
+    UserSetup(GatewayClient client, Scenario scenario) {
+        this.client = client;
+        this.scenario = scenario;
+    }
+
+    List<VirtualUser> prepare() throws InterruptedException {
+        long deadline = System.nanoTime() + scenario.setupTimeout().toNanos();
+        Semaphore permits = new Semaphore(CONCURRENCY);
+        List<Future<VirtualUser>> pending = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < scenario.users(); i++) {
+                int index = i;
+                pending.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return prepare(index, deadline);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+        }
+
+        List<VirtualUser> users = new ArrayList<>(pending.size());
+        for (Future<VirtualUser> future : pending) {
+            try {
+                users.add(future.get());
+            } catch (Exception e) {
+                throw new IllegalStateException("User setup failed: " + rootMessage(e), e);
+            }
+        }
+        log.info("Users ready | count={}", users.size());
+        return users;
+    }
+
+    /**
+     * Registers a throwaway user; used by the register route too.
+     */
+    GatewayClient.Response register(String username, String email, String password)
+            throws IOException, InterruptedException {
+        return client.send(client.postJson("/auth/register",
+                Map.of("username", username, "email", email, "password", password),
+                null, UUID.randomUUID().toString()));
+    }
+
+    String login(Scenario.Credentials credentials) throws IOException, InterruptedException {
+        GatewayClient.Response response = client.send(client.postJson("/auth/login",
+                Map.of("email", credentials.email(), "password", credentials.password()), null, null));
+        expectOk(response, "login " + credentials.email());
+        return client.read(response).path("token").asText();
+    }
+
+    String newUsername() {
+        return "lg-" + runId + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private VirtualUser prepare(int index, long deadline) throws IOException, InterruptedException {
+        String username = "lg-" + runId + "-" + index;
+        String email = username + "@loadgen.local";
+        String password = "Loadgen-" + UUID.randomUUID();
+
+        GatewayClient.Response registered = register(username, email, password);
+        expectOk(registered, "register " + email);
+        UUID userId = UUID.fromString(client.read(registered).path("userId").asText());
+        String token = login(new Scenario.Credentials(email, password));
+
+        UUID cardId = awaitLinkedCard(userId, token, deadline);
+        GatewayClient.Response account = client.send(client.get("/transfers/" + userId + "/account", token));
+        expectOk(account, "account of " + userId);
+        UUID accountId = UUID.fromString(client.read(account).path("id").asText());
+
+        GatewayClient.Response funded = client.send(client.post(
+                "/transfers/accounts/" + accountId + "/top-up?amount=" + scenario.initialBalance().toPlainString(),
+                token, UUID.randomUUID().toString()));
+        expectOk(funded, "top-up of " + accountId);
+
+        return new VirtualUser(email, password, userId, token, cardId, accountId);
+    }
+
+    private UUID awaitLinkedCard(UUID userId, String token, long deadline) throws IOException, InterruptedException {
+        while (true) {
+            GatewayClient.Response cards = client.send(client.get("/cards/" + userId + "/user", token));
+            if (cards.ok()) {
+                for (JsonNode card : client.read(cards)) {
+                    if ("ACTIVE".equals(card.path("status").asText()) && !card.path("accountId").isNull()
+                            && !card.path("accountId").isMissingNode()) {
+                        return UUID.fromString(card.path("id").asText());
+                    }
+                }
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("No active card linked to an account for user " + userId
+                        + " within setup-timeout");
+            }
+            TimeUnit.MILLISECONDS.sleep(POLL_MILLIS);
+        }
+    }
+
+    private static void expectOk(GatewayClient.Response response, String what) {
+        if (!response.ok()) {
+            throw new IllegalStateException(what + " failed with HTTP " + response.status() + ": " + response.body());
+        }
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
@@ -0,0 +1,53 @@
+package com.mike.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ScenarioTest {
+
+    private static final Scenario.Credentials ADMIN = new Scenario.Credentials("admin@bank.local", "secret");
+
+    @Test
+    void checkedInScenarios_parseAndValidate() throws IOException {
+        List<Path> files;
+        try (Stream<Path> paths = Files.list(Path.of("scenarios"))) {
+            files = paths.filter(p -> p.toString().endsWith(".yaml")).toList();
+        }
+
+        assertThat(files).isNotEmpty();
+        for (Path file : files) {
+            Scenario scenario = Scenario.load(file).with(null, ADMIN);
+            scenario.validate();
+            assertThat(scenario.duration()).isPositive();
+        }
+    }
+
+    @Test
+    void adminRoutes_requireCredentials() throws IOException {
+        Scenario scenario = Scenario.load(Path.of("scenarios/admin-analytics.yaml"));
+
+        assertThatThrownBy(scenario::validate).hasMessageContaining("admin credentials");
+    }
+
+    @Test
+    void rampedStage_interpolatesRate() throws IOException {
+        Scenario scenario = Scenario.load(Path.of("scenarios/transfer-ramp.yaml"));
+        Scenario.Stage ramp = scenario.stages().get(1);
+
+        assertThat(ramp.rateAt(0)).isEqualTo(50);
+        assertThat(ramp.rateAt(0.5)).isEqualTo(525);
+        assertThat(ramp.rateAt(1)).isEqualTo(1000);
+        assertThat(ramp.duration()).isEqualTo(Duration.ofMinutes(5));
+        assertThat(scenario.mix()).extracting(Scenario.RouteWeight::route)
+                .containsExactly(Route.TRANSFER, Route.BALANCE);
+    }
+}
@@ -6,6 +6,7 @@ pluginManagement {
     plugins {
         id("org.springframework.boot") version "3.1.6"
         id("io.spring.dependency-management") version "1.1.4"
+        id("me.champeau.jmh") version "0.7.2"
     }
 }
 
@@ -16,5 +17,9 @@ include(
     "user-service",
     "card-service",
     "transfer-service",
-    "api-gateway"
+    "api-gateway",
+    "benchmarks",
+    "load-generator",
+    "virtual-threads",
+    "idempotency"
 )
@@ -0,0 +1,310 @@
+package com.mike.transfer.columnar;
+
+import com.mike.transfer.config.ColumnarStoreProperties;
+import com.mike.transfer.domain.Currency;
+import com.mike.transfer.domain.Money;
+import com.mike.transfer.domain.Transfer;
+import com.mike.transfer.dto.AmountHistogramBucket;
+import com.mike.transfer.dto.SystemTurnover;
+import com.mike.transfer.dto.TransferSummary;
+import com.mike.transfer.exception.AnalyticsUnavailableException;
+import com.mike.transfer.exception.InvalidLimitException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * In-process columnar snapshot of {@code transfers} for system-wide analytics. The table is streamed
+ * into {@link TransferColumns} once the application is ready; afterwards transfers written on this
+ * node are appended when their transaction commits, and a periodic sync pulls in transfers committed
+ * by other nodes. Each sync re-reads a {@code transfer.columnar.sync-lag} window and skips ids it has
+ * already seen, so late commits are neither lost nor counted twice.
+ *
+ * <p>Transfers are insert-only; rows of partitions detached into the archive schema are not loaded.
+ */
+@Component
+@ConditionalOnProperty(prefix = "transfer.columnar", name = "enabled", havingValue = "true")
+public class ColumnarTransferStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarTransferStore.class);
+
+    private static final String LOAD_SQL = """
+            SELECT t.id, t.from_account, t.to_account, a.currency, t.amount, t.transaction_at
+            FROM transfers t
+            JOIN accounts a ON a.id = t.from_account
+            """;
+
+    private static final String SYNC_SQL = LOAD_SQL + "WHERE t.transaction_at >= ?";
+
+    private static final String CURRENCIES_SQL = "SELECT id, currency FROM accounts WHERE id = ANY(?)";
+
+    private static final int APPEND_BATCH = 4096;
+
+    private static final String LOADING = "Columnar analytics store is still loading";
+    private static final String LOAD_FAILED = "Columnar analytics store failed to load";
+    private static final String TOO_LARGE = "Columnar analytics store exceeded transfer.columnar.max-rows";
+
+    private final ColumnarStoreProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final TransferColumns columns = new TransferColumns();
+
+    // ids of rows stamped inside the current sync window, guarded by this
+    private final Map<UUID, Long> recent = new HashMap<>();
+
+    // null once loaded and serving
+    private volatile String unavailableReason = LOADING;
+    private boolean switchedOff;
+    private Instant syncedUntil;
+
+    public ColumnarTransferStore(ColumnarStoreProperties properties,
+                                 JdbcTemplate jdbcTemplate,
+                                 DataSource dataSource,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(properties.getLoadFetchSize());
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+
+        Gauge.builder("transfer.columnar.rows", columns, TransferColumns::rows)
+                .description("Transfers held by the columnar analytics store")
+                .register(meterRegistry);
+        Gauge.builder("transfer.columnar.estimated.bytes", columns, TransferColumns::estimatedBytes)
+                .description("Estimated heap used by the columnar analytics store")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.nanoTime();
+        Instant loadStart = Instant.now();
+        long recentFrom = loadStart.minus(properties.getSyncLag()).toEpochMilli();
+
+        List<TransferColumns.Row> batch = new ArrayList<>(APPEND_BATCH);
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> cursorTemplate.query(LOAD_SQL, rs -> {
+                batch.add(row(rs));
+                if (batch.size() == APPEND_BATCH) {
+                    appendLoaded(batch, recentFrom);
+                }
+            }));
+            appendLoaded(batch, recentFrom);
+        } catch (RuntimeException e) {
+            log.error("Columnar store load failed", e);
+            unavailableReason = LOAD_FAILED;
+            return;
+        }
+
+        synchronized (this) {
+            if (switchedOff) {
+                return;
+            }
+            syncedUntil = loadStart;
+            unavailableReason = null;
+        }
+        log.info(
+                "Columnar store loaded | rows={} | estimatedBytes={} | tookMs={}",
+                columns.rows(), columns.estimatedBytes(), (System.nanoTime() - started) / 1_000_000
+        );
+    }
+
+    /**
+     * Appends transfers written in the current transaction once it commits. Must be called after the
+     * transfers have been saved.
+     */
+    public void appendOnCommit(Collection<Transfer> transfers) {
+        if (unavailableReason != null || transfers.isEmpty()) {
+            return;
+        }
+        List<Transfer> copy = List.copyOf(transfers);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    appendCommitted(copy);
+                }
+            });
+        } else {
+            appendCommitted(copy);
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${transfer.columnar.sync-interval:PT5S}",
+            fixedDelayString = "${transfer.columnar.sync-interval:PT5S}"
+    )
+    public void sync() {
+        if (unavailableReason != null) {
+            return;
+        }
+        Instant started = Instant.now();
+        Instant windowStart;
+        synchronized (this) {
+            windowStart = syncedUntil.minus(properties.getSyncLag());
+        }
+
+        List<TransferColumns.Row> rows = readOnlyTransaction.execute(status ->
+                jdbcTemplate.query(SYNC_SQL, (rs, i) -> row(rs), windowStart.atOffset(ZoneOffset.UTC)));
+
+        int appended;
+        synchronized (this) {
+            appended = appendNew(rows);
+            long keepFrom = started.minus(properties.getSyncLag()).toEpochMilli();
+            recent.values().removeIf(at -> at < keepFrom);
+            syncedUntil = started;
+        }
+        if (appended > 0) {
+            log.debug("Columnar store synced | appended={} | rows={}", appended, columns.rows());
+        }
+    }
+
+    public List<SystemTurnover> turnover(Instant from, Instant to) {
+        assertReady();
+        return columns.turnover(from, to);
+    }
+
+    public List<TransferSummary> topTransfers(Instant from, Instant to, Currency currency, int limit) {
+        if (limit < 1 || limit > properties.getMaxLimit()) {
+            throw new InvalidLimitException(properties.getMaxLimit());
+        }
+        assertReady();
+        return columns.topTransfers(from, to, currency, limit);
+    }
+
+    public List<AmountHistogramBucket> amountHistogram(Instant from, Instant to, Currency currency) {
+        assertReady();
+        return columns.amountHistogram(from, to, currency);
+    }
+
+    private void assertReady() {
+        String reason = unavailableReason;
+        if (reason != null) {
+            throw new AnalyticsUnavailableException(reason);
+        }
+    }
+
+    private void appendCommitted(List<Transfer> transfers) {
+        try {
+            Map<UUID, Currency> currencies = currencies(transfers);
+            List<TransferColumns.Row> rows = transfers.stream()
+                    .map(t -> new TransferColumns.Row(
+                            t.getId(), t.getFromAccount(), t.getToAccount(), currencies.get(t.getFromAccount()),
+                            Money.toMinor(t.getAmount(), currencies.get(t.getFromAccount())),
+                            t.getTransactionAt().toEpochMilli()))
+                    .toList();
+            synchronized (this) {
+                appendNew(rows);
+            }
+        } catch (RuntimeException e) {
+            // the next sync picks the transfers up
+            log.warn("Columnar store append failed | transfers={}", transfers.size(), e);
+        }
+    }
+
+    private Map<UUID, Currency> currencies(List<Transfer> transfers) {
+        Map<UUID, Currency> currencies = new HashMap<>();
+        List<UUID> unknown = new ArrayList<>();
+        for (Transfer transfer : transfers) {
+            UUID accountId = transfer.getFromAccount();
+            if (currencies.containsKey(accountId)) {
+                continue;
+            }
+            Currency currency = columns.currencyOf(accountId);
+            currencies.put(accountId, currency);
+            if (currency == null) {
+                unknown.add(accountId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            jdbcTemplate.query(CURRENCIES_SQL,
+                    ps -> ps.setArray(1, ps.getConnection().createArrayOf("uuid", unknown.toArray())),
+                    rs -> {
+                        currencies.put(rs.getObject("id", UUID.class), Currency.valueOf(rs.getString("currency")));
+                    });
+        }
+        return currencies;
+    }
+
+    // caller holds this
+    private int appendNew(List<TransferColumns.Row> rows) {
+        if (switchedOff) {
+            return 0;
+        }
+        List<TransferColumns.Row> fresh = new ArrayList<>(rows.size());
+        for (TransferColumns.Row row : rows) {
+            if (recent.putIfAbsent(row.id(), row.epochMillis()) == null) {
+                fresh.add(row);
+            }
+        }
+        if (fits(fresh.size())) {
+            columns.append(fresh);
+        }
+        return fresh.size();
+    }
+
+    private synchronized void appendLoaded(List<TransferColumns.Row> batch, long recentFrom) {
+        if (fits(batch.size())) {
+            columns.append(batch);
+            for (TransferColumns.Row row : batch) {
+                if (row.epochMillis() >= recentFrom) {
+                    recent.put(row.id(), row.epochMillis());
+                }
+            }
+        }
+        batch.clear();
+    }
+
+    // caller holds this; answers would be partial past max-rows, so the store stops serving instead
+    private boolean fits(int extra) {
+        if (switchedOff) {
+            return false;
+        }
+        if ((long) columns.rows() + extra <= properties.getMaxRows()) {
+            return true;
+        }
+        switchedOff = true;
+        unavailableReason = TOO_LARGE;
+        log.error("Columnar store switched off | rows={} | maxRows={}", columns.rows(), properties.getMaxRows());
+        return false;
+    }
+
+    private static TransferColumns.Row row(ResultSet rs) throws SQLException {
+        Currency currency = Currency.valueOf(rs.getString("currency"));
+        return new TransferColumns.Row(
+                rs.getObject("id", UUID.class),
+                rs.getObject("from_account", UUID.class),
+                rs.getObject("to_account", UUID.class),
+                currency,
+                Money.toMinor(rs.getBigDecimal("amount"), currency),
+                rs.getTimestamp("transaction_at").getTime()
+        );
+    }
+}
@@ -0,0 +1,388 @@
+package com.mike.transfer.columnar;
+
+import com.mike.transfer.domain.Currency;
+import com.mike.transfer.domain.Money;
+import com.mike.transfer.dto.AmountHistogramBucket;
+import com.mike.transfer.dto.SystemTurnover;
+import com.mike.transfer.dto.TransferSummary;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+/**
+ * Append-only columnar copy of transfers. Rows are kept in fixed-size chunks of primitive arrays
+ * (account indexes, epoch millis, amount in minor units of the account currency); accounts are interned into a dictionary
+ * that also holds each account's currency.
+ *
+ * <p>Appends are serialized on this object and write past the published row count, then publish a
+ * new {@link View}. Readers take the current view once and scan only its rows, so they never lock
+ * and never see a half-written row. Aggregations split the view by chunk and run on the common
+ * fork-join pool.
+ */
+final class TransferColumns {
+
+    static final int CHUNK_SIZE = 1 << 14;
+
+    /**
+     * Heap per row: two account indexes, epoch millis, amount and the two halves of the id.
+     */
+    static final int ROW_BYTES = 2 * Integer.BYTES + 4 * Long.BYTES;
+
+    // rough retained size of an interned account: the UUID, its map entry and the array slots
+    private static final int ACCOUNT_BYTES = 96;
+
+    // decade buckets over minor units: [1, 10), [10, 100), ... up to Long.MAX_VALUE
+    private static final int DECADES = 19;
+    private static final Currency[] CURRENCIES = Currency.values();
+
+    record Row(UUID id, UUID from, UUID to, Currency currency, long amountMinor, long epochMillis) {
+    }
+
+    static final class Chunk {
+        final long[] idHigh = new long[CHUNK_SIZE];
+        final long[] idLow = new long[CHUNK_SIZE];
+        final int[] from = new int[CHUNK_SIZE];
+        final int[] to = new int[CHUNK_SIZE];
+        final long[] at = new long[CHUNK_SIZE];
+        final long[] amount = new long[CHUNK_SIZE];
+    }
+
+    record View(Chunk[] chunks, int rows, UUID[] accounts, byte[] currencies, int accountCount) {
+
+        int rowsIn(int chunk) {
+            return Math.min(CHUNK_SIZE, rows - chunk * CHUNK_SIZE);
+        }
+
+        int chunkCount() {
+            return (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        }
+    }
+
+    private final Map<UUID, Integer> accountIndex = new HashMap<>();
+    private Chunk[] chunks = new Chunk[0];
+    private UUID[] accounts = new UUID[1024];
+    private byte[] currencies = new byte[1024];
+    private int accountCount;
+    private int rows;
+
+    private volatile View view = new View(chunks, 0, accounts, currencies, 0);
+
+    View view() {
+        return view;
+    }
+
+    int rows() {
+        return view.rows();
+    }
+
+    long estimatedBytes() {
+        View current = view;
+        return (long) current.chunks().length * CHUNK_SIZE * ROW_BYTES
+                + (long) current.accountCount() * ACCOUNT_BYTES;
+    }
+
+    synchronized Currency currencyOf(UUID accountId) {
+        Integer index = accountIndex.get(accountId);
+        return index == null ? null : CURRENCIES[currencies[index]];
+    }
+
+    synchronized void append(Collection<Row> batch) {
+        for (Row row : batch) {
+            int chunk = rows / CHUNK_SIZE;
+            int offset = rows % CHUNK_SIZE;
+            if (chunk == chunks.length) {
+                chunks = Arrays.copyOf(chunks, chunk + 1);
+                chunks[chunk] = new Chunk();
+            }
+            Chunk target = chunks[chunk];
+            target.idHigh[offset] = row.id().getMostSignificantBits();
+            target.idLow[offset] = row.id().getLeastSignificantBits();
+            target.from[offset] = intern(row.from(), row.currency());
+            target.to[offset] = intern(row.to(), row.currency());
+            target.at[offset] = row.epochMillis();
+            target.amount[offset] = row.amountMinor();
+            rows++;
+        }
+        view = new View(chunks, rows, accounts, currencies, accountCount);
+    }
+
+    private int intern(UUID accountId, Currency currency) {
+        Integer index = accountIndex.get(accountId);
+        if (index != null) {
+            return index;
+        }
+        if (accountCount == accounts.length) {
+            accounts = Arrays.copyOf(accounts, accountCount * 2);
+            currencies = Arrays.copyOf(currencies, accountCount * 2);
+        }
+        accounts[accountCount] = accountId;
+        currencies[accountCount] = (byte) currency.ordinal();
+        accountIndex.put(accountId, accountCount);
+        return accountCount++;
+    }
+
+    /**
+     * Count, sum and distinct source accounts of transfers in {@code [from, to]}, per currency.
+     */
+    List<SystemTurnover> turnover(Instant from, Instant to) {
+        View v = view;
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        // every writer only ever stores 1, and byte writes cannot tear, so the race is benign;
+        // the parallel stream's join publishes the flags to this thread
+        byte[] active = new byte[v.accountCount()];
+
+        long[] totals = IntStream.range(0, v.chunkCount()).parallel()
+                .mapToObj(c -> {
+                    Chunk chunk = v.chunks()[c];
+                    byte[] currencies = v.currencies();
+                    long[] partial = new long[CURRENCIES.length * 2];
+                    for (int i = 0, n = v.rowsIn(c); i < n; i++) {
+                        long at = chunk.at[i];
+                        if (at < fromMillis || at > toMillis) {
+                            continue;
+                        }
+                        int account = chunk.from[i];
+                        int currency = currencies[account];
+                        partial[currency * 2]++;
+                        partial[currency * 2 + 1] += chunk.amount[i];
+                        active[account] = 1;
+                    }
+                    return partial;
+                })
+                .reduce(new long[CURRENCIES.length * 2], TransferColumns::sum);
+
+        long[] accountsPerCurrency = new long[CURRENCIES.length];
+        for (int a = 0; a < v.accountCount(); a++) {
+            if (active[a] != 0) {
+                accountsPerCurrency[v.currencies()[a]]++;
+            }
+        }
+
+        List<SystemTurnover> result = new ArrayList<>();
+        for (Currency currency : CURRENCIES) {
+            int c = currency.ordinal();
+            if (totals[c * 2] > 0) {
+                result.add(new SystemTurnover(
+                        currency.name(), totals[c * 2], accountsPerCurrency[c], Money.toDecimal(totals[c * 2 + 1], currency)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The {@code limit} largest transfers in {@code [from, to]} across all accounts, largest first;
+     * {@code currency} restricts them to one currency when not null.
+     */
+    List<TransferSummary> topTransfers(Instant from, Instant to, Currency currency, int limit) {
+        View v = view;
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        int wanted = currency == null ? -1 : currency.ordinal();
+
+        TopRows top = IntStream.range(0, v.chunkCount()).parallel()
+                .mapToObj(c -> {
+                    Chunk chunk = v.chunks()[c];
+                    byte[] currencies = v.currencies();
+                    TopRows partial = new TopRows(limit);
+                    for (int i = 0, n = v.rowsIn(c); i < n; i++) {
+                        long at = chunk.at[i];
+                        if (at < fromMillis || at > toMillis || (wanted >= 0 && currencies[chunk.from[i]] != wanted)) {
+                            continue;
+                        }
+                        partial.offer(chunk.amount[i], c * CHUNK_SIZE + i);
+                    }
+                    return partial;
+                })
+                .reduce(new TopRows(limit), TopRows::merge);
+
+        return top.rowsLargestFirst().stream()
+                .map(position -> summary(v, position))
+                .toList();
+    }
+
+    /**
+     * Transfers in {@code [from, to]} in one currency, bucketed by decade of the amount, from the
+     * smallest to the largest non-empty bucket.
+     */
+    List<AmountHistogramBucket> amountHistogram(Instant from, Instant to, Currency currency) {
+        View v = view;
+        long fromMillis = from.toEpochMilli();
+        long toMillis = to.toEpochMilli();
+        byte wanted = (byte) currency.ordinal();
+
+        long[] totals = IntStream.range(0, v.chunkCount()).parallel()
+                .mapToObj(c -> {
+                    Chunk chunk = v.chunks()[c];
+                    byte[] currencies = v.currencies();
+                    long[] partial = new long[DECADES * 2];
+                    for (int i = 0, n = v.rowsIn(c); i < n; i++) {
+                        long at = chunk.at[i];
+                        if (at < fromMillis || at > toMillis || currencies[chunk.from[i]] != wanted) {
+                            continue;
+                        }
+                        long amount = chunk.amount[i];
+                        int decade = decade(amount);
+                        partial[decade * 2]++;
+                        partial[decade * 2 + 1] += amount;
+                    }
+                    return partial;
+                })
+                .reduce(new long[DECADES * 2], TransferColumns::sum);
+
+        int first = 0;
+        while (first < DECADES && totals[first * 2] == 0) {
+            first++;
+        }
+        int last = DECADES - 1;
+        while (last >= first && totals[last * 2] == 0) {
+            last--;
+        }
+
+        List<AmountHistogramBucket> buckets = new ArrayList<>();
+        for (int d = first; d <= last; d++) {
+            BigDecimal upper = d + 1 < DECADES ? Money.toDecimal(pow10(d + 1), currency) : null;
+            buckets.add(new AmountHistogramBucket(Money.toDecimal(pow10(d), currency), upper,
+                    totals[d * 2], Money.toDecimal(totals[d * 2 + 1], currency)));
+        }
+        return buckets;
+    }
+
+    static int decade(long amountMinor) {
+        int decade = 0;
+        for (long bound = 10; decade < DECADES - 1 && amountMinor >= bound; bound *= 10) {
+            decade++;
+        }
+        return decade;
+    }
+
+    private static long pow10(int exponent) {
+        long value = 1;
+        for (int i = 0; i < exponent; i++) {
+            value *= 10;
+        }
+        return value;
+    }
+
+    private static TransferSummary summary(View v, int position) {
+        Chunk chunk = v.chunks()[position / CHUNK_SIZE];
+        int i = position % CHUNK_SIZE;
+        Currency currency = CURRENCIES[v.currencies()[chunk.from[i]]];
+        return new TransferSummary(
+                new UUID(chunk.idHigh[i], chunk.idLow[i]),
+                v.accounts()[chunk.from[i]],
+                v.accounts()[chunk.to[i]],
+                Money.toDecimal(chunk.amount[i], currency),
+                Instant.ofEpochMilli(chunk.at[i])
+        );
+    }
+
+    private static long[] sum(long[] left, long[] right) {
+        long[] result = new long[left.length];
+        for (int i = 0; i < left.length; i++) {
+            result[i] = left[i] + right[i];
+        }
+        return result;
+    }
+
+    /**
+     * Bounded min-heap of (amount, row position) pairs in two primitive arrays; the root is the
+     * smallest amount kept, so most rows are rejected by a single comparison.
+     */
+    static final class TopRows {
+
+        private final long[] amounts;
+        private final int[] positions;
+        private int size;
+
+        TopRows(int limit) {
+            this.amounts = new long[limit];
+            this.positions = new int[limit];
+        }
+
+        void offer(long amount, int position) {
+            if (size < amounts.length) {
+                amounts[size] = amount;
+                positions[size] = position;
+                siftUp(size++);
+            } else if (amounts.length > 0 && amount > amounts[0]) {
+                amounts[0] = amount;
+                positions[0] = position;
+                siftDown(0);
+            }
+        }
+
+        TopRows merge(TopRows other) {
+            TopRows merged = new TopRows(amounts.length);
+            for (int i = 0; i < size; i++) {
+                merged.offer(amounts[i], positions[i]);
+            }
+            for (int i = 0; i < other.size; i++) {
+                merged.offer(other.amounts[i], other.positions[i]);
+            }
+            return merged;
+        }
+
+        List<Integer> rowsLargestFirst() {
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                order[i] = i;
+            }
+            Arrays.sort(order, (a, b) -> amounts[a] != amounts[b]
+                    ? Long.compare(amounts[b], amounts[a])
+                    : Integer.compare(positions[a], positions[b]));
+            List<Integer> result = new ArrayList<>(size);
+            for (Integer i : order) {
+                result.add(positions[i]);
+            }
+            return result;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (amounts[parent] <= amounts[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int smallest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && amounts[left] < amounts[smallest]) {
+                    smallest = left;
+                }
+                if (right < size && amounts[right] < amounts[smallest]) {
+                    smallest = right;
+                }
+                if (smallest == i) {
+                    return;
+                }
+                swap(i, smallest);
+                i = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long amount = amounts[a];
+            amounts[a] = amounts[b];
+            amounts[b] = amount;
+            int position = positions[a];
+            positions[a] = positions[b];
+            positions[b] = position;
+        }
+    }
+}
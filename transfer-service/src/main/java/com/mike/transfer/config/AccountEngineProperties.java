@@ -0,0 +1,26 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.engine")
+public class AccountEngineProperties {
+
+    /**
+     * Runs transfers, top-ups and withdrawals on the in-memory account engine instead of JPA.
+     * The engine must be the only writer of account balances, so it is meant for a single node.
+     */
+    private boolean enabled;
+    private int shards = 4;
+    private String journalDir = "/var/lib/transfer-service/journal";
+    private int maxBatch = 512;
+    private Duration snapshotInterval = Duration.ofMinutes(1);
+    private Duration timeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,29 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.locking")
+public class AccountLockingProperties {
+
+    private Mode mode = Mode.OPTIMISTIC;
+
+    /**
+     * Accounts that get their own tag on lock metrics, all others are reported as "other"
+     * to keep metric cardinality bounded.
+     */
+    private Set<UUID> trackedAccounts = new HashSet<>();
+
+    public enum Mode {
+        OPTIMISTIC, PESSIMISTIC
+    }
+}
@@ -0,0 +1,34 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.analytics-cache")
+public class AnalyticsCacheProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Upper bound on the estimated heap taken by cached results.
+     */
+    private long maxBytes = 64L * 1024 * 1024;
+    private Duration expireAfterAccess = Duration.ofMinutes(30);
+
+    /**
+     * A range ending longer ago than this is closed, and its results are cached without an account
+     * version until evicted. Closing a range is only safe once nothing can still appear in it: no
+     * money transaction that stamped a transfer inside it is still uncommitted and, with the read
+     * replica enabled, no replica the query may run on is missing it. The replica is used while its
+     * last check found it within {@code transfer.read-replica.max-lag}, so it can be up to
+     * {@code max-lag} plus one {@code lag-check-interval} behind; startup fails unless this lag is
+     * longer than that.
+     */
+    private Duration closedPeriodLag = Duration.ofMinutes(1);
+}
@@ -0,0 +1,31 @@
+package com.mike.transfer.config;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.validation.annotation.Validated;
+
+@Getter
+@Setter
+@Component
+@Validated
+@ConfigurationProperties(prefix = "transfer.analytics")
+public class AnalyticsProperties {
+
+    /**
+     * Transfers kept per month in {@code monthly_top_transfers}: the depth passed to
+     * {@code track_monthly_top_transfers} and the backfill rank in V10. Change all three together.
+     */
+    public static final int MONTHLY_TOP_TRANSFERS_DEPTH = 100;
+
+    /**
+     * Largest N accepted by the top transfers query. Answers are merged from the per-month lists, so a
+     * larger N would miss transfers of full months; startup fails if it exceeds their depth.
+     */
+    @Min(1)
+    @Max(MONTHLY_TOP_TRANSFERS_DEPTH)
+    private int topTransfersCap = MONTHLY_TOP_TRANSFERS_DEPTH;
+}
@@ -0,0 +1,30 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.balance-slots")
+public class BalanceSlotProperties {
+
+    /**
+     * High fan-in accounts whose credits are spread across sub-balance slots.
+     */
+    private Set<UUID> accounts = new HashSet<>();
+    private int slotCount = 8;
+    private Strategy strategy = Strategy.HASH;
+    private Duration compactionInterval = Duration.ofSeconds(30);
+
+    public enum Strategy {
+        HASH, ROUND_ROBIN
+    }
+}
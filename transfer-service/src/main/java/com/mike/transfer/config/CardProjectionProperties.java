@@ -0,0 +1,23 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.card-projection")
+public class CardProjectionProperties {
+
+    private boolean enabled = true;
+    private Bootstrap bootstrap = new Bootstrap();
+
+    @Getter
+    @Setter
+    public static class Bootstrap {
+        private boolean enabled;
+        private int batchSize = 5_000;
+    }
+}
@@ -0,0 +1,20 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.card-resolution")
+public class CardResolutionProperties {
+
+    /**
+     * Deadline shared by the card-service lookups of one transfer; lookups still running then are cancelled.
+     */
+    private Duration timeout = Duration.ofSeconds(3);
+}
@@ -0,0 +1,37 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.columnar")
+public class ColumnarStoreProperties {
+
+    private boolean enabled = false;
+    private int loadFetchSize = 10_000;
+
+    /**
+     * How often transfers committed by other nodes are pulled into the store.
+     */
+    private Duration syncInterval = Duration.ofSeconds(5);
+
+    /**
+     * Each sync re-reads transfers stamped this long before the previous sync started. A transfer
+     * becomes visible only when its transaction commits, which can be after a sync already read past
+     * its stamp; it is still loaded as long as the commit follows the stamp by less than this.
+     */
+    private Duration syncLag = Duration.ofMinutes(1);
+
+    /**
+     * The store switches itself off rather than grow past this many rows (about 40 bytes each).
+     */
+    private int maxRows = 20_000_000;
+
+    private int maxLimit = 1000;
+}
@@ -0,0 +1,34 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.idempotency-cache")
+public class IdempotencyCacheProperties {
+
+    private boolean enabled = true;
+    private long maxSize = 100_000;
+    private Duration ttl = Duration.ofMinutes(10);
+
+    /**
+     * Sizing of the negative-lookup Bloom filter over stored keys. It holds the keys of the
+     * idempotency store's retention plus up to one rebuild interval.
+     */
+    private long bloomExpectedKeys = 1_000_000;
+    private double bloomFalsePositiveRate = 0.01;
+    private Duration bloomRebuildInterval = Duration.ofHours(24);
+
+    /**
+     * How often keys stored by other nodes are added to the filter. Lookups are not skipped while
+     * the last sync is older than three intervals.
+     */
+    private Duration bloomSyncInterval = Duration.ofSeconds(1);
+    private Duration bloomSyncOverlap = Duration.ofMinutes(1);
+}
@@ -0,0 +1,27 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.idempotency-coalescing")
+public class IdempotencyCoalescingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How long a duplicate waits for the in-flight request before running on its own.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(30);
+
+    /**
+     * Serializes requests with the same key across nodes with a transaction-scoped advisory lock.
+     */
+    private boolean crossNodeLock = true;
+}
@@ -0,0 +1,32 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.ledger")
+public class LedgerProperties {
+
+    /**
+     * Where balances are read from. LEDGER stops updating {@code accounts.balance} and derives
+     * balances from the latest checkpoint plus the ledger entries not yet rolled into it.
+     */
+    private BalanceSource balanceSource = BalanceSource.ACCOUNT;
+    private Duration checkpointInterval = Duration.ofMinutes(5);
+
+    /**
+     * Entries younger than this, by the database clock, are left out of a checkpoint. Only batches the
+     * updates: entries committed after a checkpoint are picked up by the next one whatever the lag.
+     */
+    private Duration checkpointLag = Duration.ofMinutes(1);
+
+    public enum BalanceSource {
+        ACCOUNT, LEDGER
+    }
+}
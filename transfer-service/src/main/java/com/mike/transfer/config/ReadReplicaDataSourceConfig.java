@@ -0,0 +1,89 @@
+package com.mike.transfer.config;
+
+import com.mike.transfer.datasource.ReplicaLagMonitor;
+import com.mike.transfer.datasource.ReplicaRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Replaces the auto-configured pool with a primary pool, a replica pool and a routing
+ * {@link DataSource} in front of both. Liquibase, JPA and {@code JdbcTemplate} all see the routing
+ * one, so only read-only transactions can reach the replica.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "transfer.read-replica", name = "enabled", havingValue = "true")
+public class ReadReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties dataSourceProperties,
+                                              ReadReplicaProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        dataSource.setJdbcUrl(properties.getUrl());
+        dataSource.setUsername(properties.getUsername());
+        dataSource.setPassword(properties.getPassword());
+        dataSource.setMaximumPoolSize(properties.getMaxPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                               @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                               ReadReplicaProperties properties,
+                                               AnalyticsCacheProperties analyticsCacheProperties,
+                                               MeterRegistry meterRegistry) {
+        assertClosedPeriodsOutlastLag(properties, analyticsCacheProperties);
+        return new ReplicaLagMonitor(primaryDataSource, replicaDataSource, properties, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource,
+                                 ReplicaLagMonitor replicaLagMonitor) {
+        ReplicaRoutingDataSource routing =
+                new ReplicaRoutingDataSource(primaryDataSource, replicaDataSource, replicaLagMonitor);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    /**
+     * Closed analytics ranges are cached without a version, so one computed on a replica that had not
+     * yet replayed its last transfers would be served stale until evicted. The replica stays in use
+     * until a check finds it past {@code max-lag}, so it can fall one check interval further behind.
+     */
+    static void assertClosedPeriodsOutlastLag(ReadReplicaProperties replica, AnalyticsCacheProperties cache) {
+        if (!cache.isEnabled()) {
+            return;
+        }
+        Duration staleness = replica.getMaxLag().plus(replica.getLagCheckInterval());
+        if (cache.getClosedPeriodLag().compareTo(staleness) <= 0) {
+            throw new IllegalStateException("transfer.analytics-cache.closed-period-lag ("
+                    + cache.getClosedPeriodLag() + ") must exceed transfer.read-replica.max-lag plus "
+                    + "lag-check-interval (" + staleness + ")");
+        }
+    }
+}
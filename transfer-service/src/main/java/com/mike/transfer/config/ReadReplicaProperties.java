@@ -0,0 +1,31 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.read-replica")
+public class ReadReplicaProperties {
+
+    /**
+     * Routes {@code @Transactional(readOnly = true)} work to the replica below. Writes, and reads
+     * joining a read-write transaction, always use {@code spring.datasource}.
+     */
+    private boolean enabled = false;
+    private String url;
+    private String username;
+    private String password;
+    private int maxPoolSize = 10;
+
+    /**
+     * Replication lag above which read-only work goes to the primary until the replica catches up.
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+    private Duration lagCheckInterval = Duration.ofSeconds(2);
+}
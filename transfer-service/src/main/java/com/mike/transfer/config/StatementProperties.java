@@ -0,0 +1,27 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.statement")
+public class StatementProperties {
+
+    /**
+     * Rows fetched per round trip from the server-side cursor; bounds the heap used by an export
+     * regardless of the statement length.
+     */
+    private int fetchSize = 1000;
+
+    /**
+     * How long a statement download may stream before it is cut off. Applies to the statement
+     * endpoint only; other async requests keep the default MVC timeout.
+     */
+    private Duration timeout = Duration.ofMinutes(30);
+}
@@ -0,0 +1,16 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.history")
+public class TransferHistoryProperties {
+
+    private int defaultPageSize = 50;
+    private int maxPageSize = 200;
+}
@@ -0,0 +1,25 @@
+package com.mike.transfer.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "transfer.partitions")
+public class TransferPartitionProperties {
+
+    private int monthsAhead = 3;
+    private Duration maintenanceInterval = Duration.ofHours(1);
+
+    /**
+     * Monthly partitions older than this many full months are detached from {@code transfers} and
+     * moved to {@link #archiveSchema}. 0 keeps every month attached.
+     */
+    private int archiveAfterMonths = 0;
+    private String archiveSchema = "transfers_archive";
+}
@@ -0,0 +1,98 @@
+package com.mike.transfer.controller;
+
+import com.mike.transfer.columnar.ColumnarTransferStore;
+import com.mike.transfer.domain.Currency;
+import com.mike.transfer.dto.AmountHistogramBucket;
+import com.mike.transfer.dto.SystemTurnover;
+import com.mike.transfer.dto.TransferSummary;
+import com.mike.transfer.exception.AnalyticsUnavailableException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/analytics/admin")
+@RequiredArgsConstructor
+public class AdminAnalyticsController {
+
+    private final ObjectProvider<ColumnarTransferStore> columnarTransferStore;
+
+    @Operation(summary = "System-wide turnover per currency for the period (in-memory columnar store)")
+    @GetMapping("/turnover")
+    public List<SystemTurnover> getTurnover(
+            @Schema(
+                    description = "Start of the period, inclusive",
+                    defaultValue = "2026-01-01T00:00:00Z"
+            )
+            @RequestParam Instant from,
+            @Schema(
+                    description = "End of the period, inclusive",
+                    defaultValue = "2026-06-01T00:00:00Z"
+            )
+            @RequestParam Instant to
+    ) {
+        return store().turnover(from, to);
+    }
+
+    @Operation(summary = "Top N transfers across all accounts for the period (in-memory columnar store)")
+    @GetMapping("/top-transfers")
+    public List<TransferSummary> getTopTransfers(
+            @Schema(
+                    description = "Start of the period, inclusive",
+                    defaultValue = "2026-01-01T00:00:00Z"
+            )
+            @RequestParam Instant from,
+            @Schema(
+                    description = "End of the period, inclusive",
+                    defaultValue = "2026-06-01T00:00:00Z"
+            )
+            @RequestParam Instant to,
+            @Schema(description = "Only transfers from accounts in this currency; all currencies when omitted")
+            @RequestParam(required = false) Currency currency,
+            @Schema(
+                    description = "Number of transfers, at most transfer.columnar.max-limit",
+                    defaultValue = "10"
+            )
+            @RequestParam int limit
+    ) {
+        return store().topTransfers(from, to, currency, limit);
+    }
+
+    @Operation(summary = "Transfer amounts in one currency by decade for the period (in-memory columnar store)")
+    @GetMapping("/amount-histogram")
+    public List<AmountHistogramBucket> getAmountHistogram(
+            @Schema(
+                    description = "Start of the period, inclusive",
+                    defaultValue = "2026-01-01T00:00:00Z"
+            )
+            @RequestParam Instant from,
+            @Schema(
+                    description = "End of the period, inclusive",
+                    defaultValue = "2026-06-01T00:00:00Z"
+            )
+            @RequestParam Instant to,
+            @Schema(
+                    description = "Currency of the source accounts",
+                    defaultValue = "USD"
+            )
+            @RequestParam Currency currency
+    ) {
+        return store().amountHistogram(from, to, currency);
+    }
+
+    private ColumnarTransferStore store() {
+        ColumnarTransferStore store = columnarTransferStore.getIfAvailable();
+        if (store == null) {
+            throw new AnalyticsUnavailableException("Columnar analytics store is disabled (transfer.columnar.enabled)");
+        }
+        return store;
+    }
+}
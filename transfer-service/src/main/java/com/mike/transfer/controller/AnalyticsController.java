@@ -1,13 +1,30 @@
 package com.mike.transfer.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.transfer.config.StatementProperties;
 import com.mike.transfer.dto.AccountTurnover;
+import com.mike.transfer.dto.BatchTurnoverRequest;
+import com.mike.transfer.dto.StatementFormat;
 import com.mike.transfer.dto.TransferDto;
 import com.mike.transfer.service.AnalyticsService;
+import com.mike.transfer.service.StatementExportService;
+import com.mike.transfer.service.TransferService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
@@ -18,6 +35,10 @@ import java.util.UUID;
 public class AnalyticsController {
 
     private final AnalyticsService analyticsService;
+    private final StatementExportService statementExportService;
+    private final StatementProperties statementProperties;
+    private final TransferService transferService;
+    private final ObjectMapper objectMapper;
 
     @Operation(summary = "Account turnover for the period (native SQL)")
     @GetMapping("/accounts/{accountId}/turnover")
@@ -37,6 +58,27 @@ public class AnalyticsController {
         return analyticsService.getAccountTurnover(accountId, from, to);
     }
 
+    @Operation(summary = "Turnover of many accounts for the period in one set-based query (admin)")
+    @PostMapping(value = "/turnover/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getTurnovers(@Valid @RequestBody BatchTurnoverRequest request) {
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            generator.writeStartArray();
+            analyticsService.forEachAccountTurnover(request.accountIds(), request.from(), request.to(), row -> {
+                try {
+                    generator.writeObject(row);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            generator.writeEndArray();
+            generator.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @Operation(summary = "Account top N transfers for the period (native SQL)")
     @GetMapping("/transfers/{accountId}/top-transfers")
     public List<TransferDto> getTopTransfers(
@@ -47,11 +89,51 @@ public class AnalyticsController {
             )
             @RequestParam Instant from,
             @Schema(
-                    description = "Number of operations",
+                    description = "Number of operations, at most transfer.analytics.top-transfers-cap",
                     defaultValue = "3"
             )
             @RequestParam int limit
     ) {
         return analyticsService.getTopTransfers(accountId, from, limit);
     }
+
+    /**
+     * Statements of long periods stream for minutes, so the download gets its own
+     * {@code transfer.statement.timeout} instead of raising the async timeout of every request.
+     */
+    @Operation(summary = "Stream the account statement (transfers in both directions) as CSV or NDJSON")
+    @GetMapping("/accounts/{accountId}/statement")
+    public WebAsyncTask<Void> getStatement(
+            @PathVariable UUID accountId,
+            @Schema(
+                    description = "Start of the period",
+                    defaultValue = "2026-01-01T00:00:00Z"
+            )
+            @RequestParam Instant from,
+            @Schema(
+                    description = "End of the period",
+                    defaultValue = "2026-06-01T00:00:00Z"
+            )
+            @RequestParam Instant to,
+            @Schema(
+                    description = "csv or ndjson",
+                    defaultValue = "csv"
+            )
+            @RequestParam(defaultValue = "csv") String format,
+            Authentication authentication,
+            HttpServletResponse response
+    ) {
+        StatementFormat statementFormat = StatementFormat.parse(format);
+        statementExportService.validatePeriod(from, to);
+        transferService.assertUserCanAccessAccount(authentication, accountId);
+
+        response.setContentType(statementFormat.mediaType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"statement-" + accountId + "." + statementFormat.extension() + "\"");
+        return new WebAsyncTask<>(statementProperties.getTimeout().toMillis(), () -> {
+            statementExportService.export(accountId, from, to, statementFormat, response.getOutputStream());
+            response.flushBuffer();
+            return null;
+        });
+    }
 }
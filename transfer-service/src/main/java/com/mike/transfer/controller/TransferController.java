@@ -2,19 +2,30 @@ package com.mike.transfer.controller;
 
 import com.mike.transfer.common.ApiError;
 import com.mike.transfer.domain.Account;
+import com.mike.transfer.domain.Money;
 import com.mike.transfer.dto.AccountResponse;
+import com.mike.transfer.dto.BatchTransferRequest;
+import com.mike.transfer.dto.BatchTransferResult;
+import com.mike.transfer.dto.TransferDirection;
+import com.mike.transfer.dto.TransferHistoryPage;
 import com.mike.transfer.dto.TransferRequest;
+import com.mike.transfer.service.BatchTransferService;
+import com.mike.transfer.service.InFlightRequests;
+import com.mike.transfer.service.TransferHistoryService;
 import com.mike.transfer.service.TransferService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Positive;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -22,9 +33,16 @@ import java.util.UUID;
 public class TransferController {
 
     private final TransferService service;
+    private final BatchTransferService batchService;
+    private final InFlightRequests inFlightRequests;
+    private final TransferHistoryService historyService;
 
-    public TransferController(TransferService service) {
+    public TransferController(TransferService service, BatchTransferService batchService,
+                              InFlightRequests inFlightRequests, TransferHistoryService historyService) {
         this.service = service;
+        this.batchService = batchService;
+        this.inFlightRequests = inFlightRequests;
+        this.historyService = historyService;
     }
 
     @Operation(summary = "Make transfer between cards")
@@ -42,7 +60,21 @@ public class TransferController {
                              @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
                              Authentication authentication) {
         service.assertUserCanUseSourceCard(authentication, UUID.fromString(request.fromCardId()));
-        service.transfer(request, idempotencyKey);
+        inFlightRequests.execute(idempotencyKey, List.of("TRANSFER", request),
+                () -> service.transfer(request, idempotencyKey));
+    }
+
+    @Operation(summary = "Make many transfers in one request, results are reported per item")
+    @ApiResponse(responseCode = "200", description = "Batch processed",
+            content = @Content(mediaType = "application/json", array = @ArraySchema(schema = @Schema(implementation = BatchTransferResult.class))))
+    @ApiResponse(responseCode = "400", description = "Validation error",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    @ApiResponse(responseCode = "500", description = "Internal server error",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    @PostMapping("/batch")
+    public List<BatchTransferResult> makeBatchTransfer(@Valid @RequestBody BatchTransferRequest request,
+                                                       Authentication authentication) {
+        return batchService.transfer(request.items(), authentication);
     }
 
     @Operation(summary = "Account top-up")
@@ -57,12 +89,14 @@ public class TransferController {
     @PostMapping("/accounts/{accountId}/top-up")
     public BigDecimal topUp(
             @PathVariable UUID accountId,
-            @RequestParam @Positive BigDecimal amount,
+            @RequestParam @Positive @Digits(integer = Money.MAX_INTEGER_DIGITS, fraction = Money.SCALE)
+            BigDecimal amount,
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication
     ) {
         service.assertUserCanAccessAccount(authentication, accountId);
-        return service.topUp(accountId, amount, idempotencyKey);
+        return inFlightRequests.execute(idempotencyKey, List.of("TOP_UP", accountId, amount),
+                () -> service.topUp(accountId, amount, idempotencyKey));
     }
 
     @Operation(summary = "Account withdraw")
@@ -79,12 +113,14 @@ public class TransferController {
     @PostMapping("/accounts/{accountId}/withdraw")
     public BigDecimal withdraw(
             @PathVariable UUID accountId,
-            @RequestParam @Positive BigDecimal amount,
+            @RequestParam @Positive @Digits(integer = Money.MAX_INTEGER_DIGITS, fraction = Money.SCALE)
+            BigDecimal amount,
             @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             Authentication authentication
     ) {
         service.assertUserCanAccessAccount(authentication, accountId);
-        return service.withdraw(accountId, amount, idempotencyKey);
+        return inFlightRequests.execute(idempotencyKey, List.of("WITHDRAW", accountId, amount),
+                () -> service.withdraw(accountId, amount, idempotencyKey));
     }
 
     @Operation(summary = "Account get balance")
@@ -115,7 +151,32 @@ public class TransferController {
                 account.getId(),
                 account.getUserId(),
                 account.getCurrency().name(),
-                account.getBalance()
+                service.getBalance(account)
         );
     }
+
+    @Operation(summary = "Account transfer history, newest first, with keyset pagination")
+    @ApiResponse(responseCode = "200", description = "Page of transfers",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = TransferHistoryPage.class)))
+    @ApiResponse(responseCode = "400", description = "Invalid filter, page size or cursor",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    @ApiResponse(responseCode = "500", description = "Internal server error",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ApiError.class)))
+    @GetMapping("/accounts/{accountId}/history")
+    public TransferHistoryPage getHistory(
+            @PathVariable UUID accountId,
+            @Schema(description = "in, out or both", defaultValue = "both")
+            @RequestParam(defaultValue = "both") String direction,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @Schema(description = "Page size, at most transfer.history.max-page-size")
+            @RequestParam(required = false) Integer size,
+            @Schema(description = "nextCursor of the previous page")
+            @RequestParam(required = false) String cursor,
+            Authentication authentication
+    ) {
+        TransferDirection transferDirection = TransferDirection.parse(direction);
+        service.assertUserCanAccessAccount(authentication, accountId);
+        return historyService.history(accountId, transferDirection, minAmount, maxAmount, size, cursor);
+    }
 }
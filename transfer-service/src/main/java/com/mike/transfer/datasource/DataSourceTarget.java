@@ -0,0 +1,5 @@
+package com.mike.transfer.datasource;
+
+public enum DataSourceTarget {
+    PRIMARY, REPLICA
+}
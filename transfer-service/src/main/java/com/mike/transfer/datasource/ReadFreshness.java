@@ -0,0 +1,43 @@
+package com.mike.transfer.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Per-call freshness for read-only work. Reads run inside {@link #readOwnWrites} or an
+ * {@link #ownWrites()} scope go to the primary even when they are read-only, so a caller sees
+ * what it has just written.
+ */
+public final class ReadFreshness {
+
+    private static final ThreadLocal<Boolean> OWN_WRITES = new ThreadLocal<>();
+
+    private ReadFreshness() {
+    }
+
+    public static <T> T readOwnWrites(Supplier<T> action) {
+        try (Scope ignored = ownWrites()) {
+            return action.get();
+        }
+    }
+
+    public static Scope ownWrites() {
+        Boolean previous = OWN_WRITES.get();
+        OWN_WRITES.set(Boolean.TRUE);
+        return () -> {
+            if (previous == null) {
+                OWN_WRITES.remove();
+            } else {
+                OWN_WRITES.set(previous);
+            }
+        };
+    }
+
+    public static boolean requiresPrimary() {
+        return Boolean.TRUE.equals(OWN_WRITES.get());
+    }
+
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
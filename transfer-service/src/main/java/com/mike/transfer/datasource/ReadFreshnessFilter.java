@@ -0,0 +1,40 @@
+package com.mike.transfer.datasource;
+
+import jakarta.servlet.*;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+/**
+ * Lets a client that has just written ask for its reads to be served by the primary with
+ * {@code X-Read-Own-Writes: true}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "transfer.read-replica", name = "enabled", havingValue = "true")
+public class ReadFreshnessFilter implements Filter {
+
+    public static final String HEADER = "X-Read-Own-Writes";
+
+    @Override
+    public void doFilter(
+            ServletRequest request,
+            ServletResponse response,
+            FilterChain chain
+    ) throws IOException, ServletException {
+
+        String header = ((HttpServletRequest) request).getHeader(HEADER);
+        if (!Boolean.parseBoolean(header)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        try (ReadFreshness.Scope ignored = ReadFreshness.ownWrites()) {
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.mike.transfer.datasource;
+
+import com.mike.transfer.config.ReadReplicaProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+/**
+ * Polls the replica for its replay lag. The replica counts as usable only after a successful check
+ * that found the lag within {@code transfer.read-replica.max-lag}; until then, and whenever the
+ * check fails, read-only work stays on the primary.
+ *
+ * <p>The lag is measured against the primary rather than the replica's own view, which cannot tell a
+ * replica that replayed everything from one that stopped receiving: every check samples the primary's
+ * WAL position first, and the replica is as stale as the newest sample its replay position has reached.
+ * A replica whose WAL receiver is not streaming is not used at all.
+ */
+public class ReplicaLagMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private static final String PRIMARY_LSN_SQL = "SELECT pg_current_wal_lsn()::text";
+
+    private static final String REPLICA_STATUS_SQL = """
+            SELECT pg_is_in_recovery() AS in_recovery,
+                   pg_last_wal_replay_lsn()::text AS replay_lsn,
+                   EXISTS (SELECT 1 FROM pg_stat_wal_receiver WHERE status = 'streaming') AS streaming
+            """;
+
+    record ReplicaStatus(boolean inRecovery, String replayLsn, boolean streaming) {
+    }
+
+    private record Sample(long lsn, long sampledAtNanos) {
+    }
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final ReadReplicaProperties properties;
+    private final Deque<Sample> samples = new ArrayDeque<>();
+
+    private volatile double lagSeconds = Double.NaN;
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource primaryDataSource, DataSource replicaDataSource,
+                             ReadReplicaProperties properties, MeterRegistry meterRegistry) {
+        int queryTimeout = Math.max(1, (int) properties.getLagCheckInterval().toSeconds());
+        this.primary = new JdbcTemplate(primaryDataSource);
+        this.primary.setQueryTimeout(queryTimeout);
+        this.replica = new JdbcTemplate(replicaDataSource);
+        this.replica.setQueryTimeout(queryTimeout);
+        this.properties = properties;
+        Gauge.builder("transfer.datasource.replica.lag", this, m -> m.lagSeconds)
+                .description("Replay lag of the read replica, NaN while it is unreachable and infinite "
+                        + "while it does not stream or is behind every recent sample of the primary")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("transfer.datasource.replica.usable", this, m -> m.usable ? 1 : 0)
+                .description("Whether read-only transactions are routed to the replica")
+                .register(meterRegistry);
+    }
+
+    public boolean isUsable() {
+        return usable;
+    }
+
+    @Scheduled(fixedDelayString = "${transfer.read-replica.lag-check-interval:PT2S}")
+    public synchronized void check() {
+        try {
+            // the primary goes first: whatever the replica has replayed now is compared with an earlier position
+            long primaryLsn = parseLsn(primary.queryForObject(PRIMARY_LSN_SQL, String.class));
+            long sampledAt = System.nanoTime();
+            ReplicaStatus status = replica.queryForObject(REPLICA_STATUS_SQL, (rs, rowNum) -> new ReplicaStatus(
+                    rs.getBoolean("in_recovery"), rs.getString("replay_lsn"), rs.getBoolean("streaming")));
+            update(lag(status, primaryLsn, sampledAt));
+        } catch (Exception e) {
+            if (usable) {
+                log.warn("Read replica unreachable, routing reads to primary | error={}", e.getMessage());
+            }
+            lagSeconds = Double.NaN;
+            usable = false;
+        }
+    }
+
+    /**
+     * Seconds since the newest primary sample the replica has replayed, zero if it replayed the one just
+     * taken and infinite if it replayed none of the samples still kept. Samples older than twice the
+     * maximum lag are dropped, so an infinite lag always means the replica is too far behind.
+     */
+    double lag(ReplicaStatus status, long primaryLsn, long sampledAtNanos) {
+        samples.addLast(new Sample(primaryLsn, sampledAtNanos));
+        long window = properties.getMaxLag().multipliedBy(2).toNanos();
+        while (samples.size() > 1 && sampledAtNanos - samples.peekFirst().sampledAtNanos() > window) {
+            samples.removeFirst();
+        }
+
+        if (!status.inRecovery()) {
+            // a server that is not in recovery does not replay from anything, it is read as it is
+            return 0;
+        }
+        if (!status.streaming() || status.replayLsn() == null) {
+            return Double.POSITIVE_INFINITY;
+        }
+        long replayLsn = parseLsn(status.replayLsn());
+        Iterator<Sample> newestFirst = samples.descendingIterator();
+        while (newestFirst.hasNext()) {
+            Sample sample = newestFirst.next();
+            if (sample.lsn() <= replayLsn) {
+                return (sampledAtNanos - sample.sampledAtNanos()) / 1e9;
+            }
+        }
+        return Double.POSITIVE_INFINITY;
+    }
+
+    static long parseLsn(String lsn) {
+        int slash = lsn.indexOf('/');
+        return (Long.parseLong(lsn.substring(0, slash), 16) << 32) | Long.parseLong(lsn.substring(slash + 1), 16);
+    }
+
+    void update(double lag) {
+        boolean nowUsable = Duration.ofMillis((long) (lag * 1000)).compareTo(properties.getMaxLag()) <= 0;
+        if (nowUsable != usable) {
+            log.info("Read replica routing changed | usable={} | lagSeconds={}", nowUsable, lag);
+        }
+        lagSeconds = lag;
+        usable = nowUsable;
+    }
+}
@@ -1,13 +1,14 @@
 package com.mike.transfer.domain;
 
+import com.mike.transfer.exception.CurrencyMismatchException;
 import com.mike.transfer.exception.InsufficientFundsException;
 import com.mike.transfer.exception.InvalidAmountException;
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 
-import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -30,8 +31,10 @@ public class Account {
     @Version
     private long version;
 
+    // minor units of the account currency
     @Column(nullable = false)
-    private BigDecimal balance;
+    @Getter(AccessLevel.NONE)
+    private long balance;
 
     @Column(name = "created_at", updatable = false)
     private Instant createdAt;
@@ -42,27 +45,31 @@ public class Account {
         this.id = id;
         this.userId = userId;
         this.currency = currency;
-        this.balance = Money.normalize(BigDecimal.ZERO);
         this.createdAt = Instant.now();
     }
 
-    public void credit(BigDecimal amount) {
+    public Money getBalance() {
+        return Money.ofMinor(balance, currency);
+    }
+
+    public void credit(Money amount) {
         validateAmount(amount);
-        balance = Money.normalize(balance.add(amount));
+        balance = Math.addExact(balance, amount.minor());
     }
 
-    public void debit(BigDecimal amount) {
+    public void debit(Money amount) {
         validateAmount(amount);
-        BigDecimal normalized = Money.normalize(amount);
-        if (balance.compareTo(normalized) < 0) {
+        if (balance < amount.minor()) {
             throw new InsufficientFundsException();
         }
-        balance = Money.normalize(balance.subtract(amount));
+        balance -= amount.minor();
     }
 
-    private void validateAmount(BigDecimal amount) {
+    private void validateAmount(Money amount) {
         if (amount == null || amount.signum() <= 0)
             throw new InvalidAmountException();
+        if (amount.currency() != currency)
+            throw new CurrencyMismatchException();
     }
 }
 
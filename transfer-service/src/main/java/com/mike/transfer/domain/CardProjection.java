@@ -0,0 +1,62 @@
+package com.mike.transfer.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Local read model of a card-service card, maintained from card-events.
+ * Rows are only ever overwritten by a snapshot with a higher card version.
+ */
+@Getter
+@Entity
+@Table(name = "card_projection")
+public class CardProjection {
+
+    @Id
+    @Column(name = "card_id")
+    @JdbcTypeCode(SqlTypes.UUID)
+    private UUID cardId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "account_id")
+    private UUID accountId;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(nullable = false)
+    private long version;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    protected CardProjection() {
+    }
+
+    public CardProjection(UUID cardId, UUID userId, UUID accountId, String status, long version) {
+        this.cardId = cardId;
+        this.userId = userId;
+        this.accountId = accountId;
+        this.status = status;
+        this.version = version;
+        this.updatedAt = Instant.now();
+    }
+
+    public boolean isActive() {
+        return "ACTIVE".equalsIgnoreCase(status);
+    }
+
+    public boolean isNewerThan(CardProjection other) {
+        return other == null || version > other.version;
+    }
+}
@@ -1,5 +1,18 @@
 package com.mike.transfer.domain;
 
+import lombok.Getter;
+
+@Getter
 public enum Currency {
-    USD, EUR
+    USD(2),
+    EUR(2);
+
+    /**
+     * Digits after the decimal point; amounts are held as {@code long} multiples of 10^-scale.
+     */
+    private final int scale;
+
+    Currency(int scale) {
+        this.scale = scale;
+    }
 }
@@ -1,11 +1,11 @@
 package com.mike.transfer.domain;
 
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Id;
-import jakarta.persistence.Table;
+import com.mike.idempotency.IdempotencyKey;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 import java.util.UUID;
@@ -14,7 +14,7 @@ import java.util.UUID;
 @Entity
 @Table(name = "idempotent_requests")
 @NoArgsConstructor
-public class IdempotentRequest {
+public class IdempotentRequest implements IdempotencyKey, Persistable<String> {
 
     @Id
     private String key;
@@ -34,4 +34,24 @@ public class IdempotentRequest {
 
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private boolean isNew = true;
+
+    @Override
+    public String getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
 }
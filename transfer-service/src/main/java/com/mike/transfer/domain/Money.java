@@ -1,16 +1,135 @@
 package com.mike.transfer.domain;
 
+import com.mike.transfer.exception.CurrencyMismatchException;
+import com.mike.transfer.exception.InvalidAmountException;
+
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Amount of one currency as a {@code long} of minor units (10^-{@link Currency#getScale()}).
+ * Arithmetic is exact and fails on overflow; {@link BigDecimal} is only used to convert at the
+ * JSON and JDBC boundaries.
+ */
+public final class Money implements Comparable<Money> {
 
-public final class Money {
+    /**
+     * Scale of the {@code numeric} money columns and of decimal amounts at the API.
+     */
     public static final int SCALE = 2;
     public static final RoundingMode ROUNDING = RoundingMode.HALF_EVEN;
 
+    /**
+     * Integer digits of an amount accepted at the API, far enough from the {@code long} range that
+     * balances built from such amounts cannot overflow in practice.
+     */
+    public static final int MAX_INTEGER_DIGITS = 15;
+
+    private final long minor;
+    private final Currency currency;
+
+    private Money(long minor, Currency currency) {
+        this.minor = minor;
+        this.currency = Objects.requireNonNull(currency, "currency");
+    }
+
+    public static Money ofMinor(long minor, Currency currency) {
+        return new Money(minor, currency);
+    }
+
+    public static Money of(BigDecimal amount, Currency currency) {
+        return new Money(toMinor(amount, currency), currency);
+    }
+
+    public static Money zero(Currency currency) {
+        return new Money(0, currency);
+    }
+
+    /**
+     * Minor units of {@code amount}, rounded to the currency's scale. Fails with
+     * {@link InvalidAmountException} if they do not fit a long.
+     */
+    public static long toMinor(BigDecimal amount, Currency currency) {
+        try {
+            return amount.setScale(currency.getScale(), ROUNDING).unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new InvalidAmountException();
+        }
+    }
+
+    /**
+     * Whether {@code amount} is positive with at most {@link #MAX_INTEGER_DIGITS} integer digits and
+     * {@link #SCALE} decimals, the same rule as the {@code @Digits} constraints on request amounts.
+     */
+    public static boolean isValidAmount(BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            return false;
+        }
+        BigDecimal stripped = amount.stripTrailingZeros();
+        return stripped.scale() <= SCALE && stripped.precision() - stripped.scale() <= MAX_INTEGER_DIGITS;
+    }
+
+    public static BigDecimal toDecimal(long minor, Currency currency) {
+        return BigDecimal.valueOf(minor, currency.getScale());
+    }
+
     public static BigDecimal normalize(BigDecimal value) {
         return value.setScale(SCALE, ROUNDING);
     }
 
-    private Money() {
+    public long minor() {
+        return minor;
+    }
+
+    public Currency currency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        return new Money(Math.addExact(minor, sameCurrency(other).minor), currency);
+    }
+
+    public Money minus(Money other) {
+        return new Money(Math.subtractExact(minor, sameCurrency(other).minor), currency);
+    }
+
+    public int signum() {
+        return Long.signum(minor);
+    }
+
+    public boolean isLessThan(Money other) {
+        return minor < sameCurrency(other).minor;
+    }
+
+    public BigDecimal toBigDecimal() {
+        return toDecimal(minor, currency);
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minor, sameCurrency(other).minor);
+    }
+
+    private Money sameCurrency(Money other) {
+        if (other.currency != currency) {
+            throw new CurrencyMismatchException();
+        }
+        return other;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && minor == other.minor && currency == other.currency;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(minor) * 31 + currency.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString() + " " + currency;
     }
 }
@@ -1,13 +1,12 @@
 package com.mike.transfer.domain;
 
 import com.mike.transfer.exception.InvalidAmountException;
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.Id;
-import jakarta.persistence.Table;
+import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -16,7 +15,7 @@ import java.util.UUID;
 @Getter
 @Entity
 @Table(name = "transfers")
-public class Transfer {
+public class Transfer implements Persistable<UUID> {
 
     @Id
     @JdbcTypeCode(SqlTypes.UUID)
@@ -34,6 +33,11 @@ public class Transfer {
     @Column(name = "transaction_at", nullable = false, updatable = false)
     private Instant transactionAt;
 
+    // transfers are insert-only, so save() can persist directly instead of merging
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private boolean isNew = true;
+
     protected Transfer() {
     }
 
@@ -47,5 +51,15 @@ public class Transfer {
         this.amount = Money.normalize(amount);
         this.transactionAt = Instant.now();
     }
-}
 
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
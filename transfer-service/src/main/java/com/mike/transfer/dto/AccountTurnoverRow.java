@@ -0,0 +1,33 @@
+package com.mike.transfer.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+public record AccountTurnoverRow(UUID accountId, String currency, Long operationsCount, BigDecimal turnover)
+        implements AccountTurnover {
+
+    public static AccountTurnoverRow of(AccountTurnover turnover) {
+        return new AccountTurnoverRow(
+                turnover.getAccountId(), turnover.getCurrency(), turnover.getOperationsCount(), turnover.getTurnover());
+    }
+
+    @Override
+    public UUID getAccountId() {
+        return accountId;
+    }
+
+    @Override
+    public String getCurrency() {
+        return currency;
+    }
+
+    @Override
+    public Long getOperationsCount() {
+        return operationsCount;
+    }
+
+    @Override
+    public BigDecimal getTurnover() {
+        return turnover;
+    }
+}
@@ -0,0 +1,9 @@
+package com.mike.transfer.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Transfers with {@code from <= amount < to}; {@code to} is null for the last possible bucket.
+ */
+public record AmountHistogramBucket(BigDecimal from, BigDecimal to, long count, BigDecimal turnover) {
+}
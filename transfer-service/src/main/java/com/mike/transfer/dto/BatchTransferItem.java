@@ -0,0 +1,20 @@
+package com.mike.transfer.dto;
+
+import com.mike.transfer.domain.Money;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+
+public record BatchTransferItem(
+        @Size(max = 128) String idempotencyKey,
+        @NotBlank String fromCardId,
+        @NotBlank String toCardId,
+        @NotNull @Positive @Digits(integer = Money.MAX_INTEGER_DIGITS, fraction = Money.SCALE) BigDecimal amount
+) {
+    public TransferRequest toTransferRequest() {
+        return new TransferRequest(fromCardId, toCardId, amount);
+    }
+}
@@ -0,0 +1,10 @@
+package com.mike.transfer.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public record BatchTransferRequest(
+        @NotEmpty @Size(max = 1000) List<@Valid BatchTransferItem> items
+) {}
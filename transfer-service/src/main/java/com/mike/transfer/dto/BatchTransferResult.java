@@ -0,0 +1,31 @@
+package com.mike.transfer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.UUID;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BatchTransferResult(
+        int index,
+        String idempotencyKey,
+        Status status,
+        UUID transferId,
+        String errorType,
+        String detail
+) {
+    public enum Status {
+        COMPLETED, REPLAYED, FAILED
+    }
+
+    public static BatchTransferResult completed(int index, String idempotencyKey, UUID transferId) {
+        return new BatchTransferResult(index, idempotencyKey, Status.COMPLETED, transferId, null, null);
+    }
+
+    public static BatchTransferResult replayed(int index, String idempotencyKey, UUID transferId) {
+        return new BatchTransferResult(index, idempotencyKey, Status.REPLAYED, transferId, null, null);
+    }
+
+    public static BatchTransferResult failed(int index, String idempotencyKey, String errorType, String detail) {
+        return new BatchTransferResult(index, idempotencyKey, Status.FAILED, null, errorType, detail);
+    }
+}
@@ -0,0 +1,15 @@
+package com.mike.transfer.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public record BatchTurnoverRequest(
+        @NotEmpty @Size(max = 1000) List<@NotNull UUID> accountIds,
+        @NotNull Instant from,
+        @NotNull Instant to
+) {}
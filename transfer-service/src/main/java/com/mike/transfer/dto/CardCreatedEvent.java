@@ -1,4 +1,4 @@
 package com.mike.transfer.dto;
 
-public record CardCreatedEvent(String userId, String cardId, String currency) {
+public record CardCreatedEvent(String userId, String cardId, String currency, String status, Long version) {
 }
@@ -0,0 +1,4 @@
+package com.mike.transfer.dto;
+
+public record CardUpdatedEvent(String cardId, String userId, String accountId, String status, Long version) {
+}
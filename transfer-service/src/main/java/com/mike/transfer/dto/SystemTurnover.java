@@ -0,0 +1,6 @@
+package com.mike.transfer.dto;
+
+import java.math.BigDecimal;
+
+public record SystemTurnover(String currency, long operationsCount, long activeAccounts, BigDecimal turnover) {
+}
@@ -0,0 +1,16 @@
+package com.mike.transfer.dto;
+
+import com.mike.transfer.exception.InvalidHistoryQueryException;
+
+public enum TransferDirection {
+    IN, OUT, BOTH;
+
+    public static TransferDirection parse(String value) {
+        for (TransferDirection direction : values()) {
+            if (direction.name().equalsIgnoreCase(value)) {
+                return direction;
+            }
+        }
+        throw new InvalidHistoryQueryException("Unsupported direction: " + value + " (expected in, out or both)");
+    }
+}
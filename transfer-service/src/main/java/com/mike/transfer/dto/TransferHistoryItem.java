@@ -0,0 +1,14 @@
+package com.mike.transfer.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+public record TransferHistoryItem(
+        UUID id,
+        TransferDirection direction,
+        UUID counterpartyAccount,
+        BigDecimal amount,
+        Instant transactionAt
+) {
+}
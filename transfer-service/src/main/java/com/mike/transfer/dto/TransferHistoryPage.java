@@ -0,0 +1,12 @@
+package com.mike.transfer.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * One page of an account's history, newest first. {@code nextCursor} is absent on the last page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TransferHistoryPage(List<TransferHistoryItem> items, String nextCursor) {
+}
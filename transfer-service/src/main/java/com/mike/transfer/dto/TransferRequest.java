@@ -1,5 +1,7 @@
 package com.mike.transfer.dto;
 
+import com.mike.transfer.domain.Money;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -8,5 +10,5 @@ import java.math.BigDecimal;
 public record TransferRequest(
         @NotBlank String fromCardId,
         @NotBlank String toCardId,
-        @NotNull @Positive BigDecimal amount
+        @NotNull @Positive @Digits(integer = Money.MAX_INTEGER_DIGITS, fraction = Money.SCALE) BigDecimal amount
 ) {}
@@ -0,0 +1,42 @@
+package com.mike.transfer.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Detached copy of a {@link TransferDto} projection, safe to keep after the query has finished.
+ */
+public record TransferSummary(UUID id, UUID fromAccount, UUID toAccount, BigDecimal amount, Instant transactionAt)
+        implements TransferDto {
+
+    public static TransferSummary of(TransferDto transfer) {
+        return new TransferSummary(transfer.getId(), transfer.getFromAccount(), transfer.getToAccount(),
+                transfer.getAmount(), transfer.getTransactionAt());
+    }
+
+    @Override
+    public UUID getId() {
+        return id;
+    }
+
+    @Override
+    public UUID getFromAccount() {
+        return fromAccount;
+    }
+
+    @Override
+    public UUID getToAccount() {
+        return toAccount;
+    }
+
+    @Override
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    @Override
+    public Instant getTransactionAt() {
+        return transactionAt;
+    }
+}
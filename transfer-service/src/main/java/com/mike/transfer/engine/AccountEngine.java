@@ -0,0 +1,490 @@
+package com.mike.transfer.engine;
+
+import com.mike.transfer.config.AccountEngineProperties;
+import com.mike.transfer.domain.Currency;
+import com.mike.transfer.domain.Money;
+import com.mike.transfer.exception.AccountNotFoundException;
+import com.mike.transfer.exception.InvalidAmountException;
+import com.mike.transfer.exception.SameAccountTransferException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory, single-writer execution engine for balance changes. Accounts are partitioned across
+ * single-threaded shards; each shard journals its operations to a local file with one fsync per batch
+ * and acknowledges callers only after that fsync. Balances are periodically written back to the
+ * {@code accounts} table together with a per-shard checkpoint sequence, and on start the journal tail
+ * after the checkpoint is replayed into the table.
+ *
+ * <p>The engine assumes it is the only writer of {@code accounts.balance}: run a single node with it
+ * enabled and do not combine it with balance slots.
+ *
+ * <p>Callers never wait on the engine inside their database transaction. They {@code reserve*} the
+ * change before it, which checks the accounts and holds the debited funds, record it in the transaction
+ * with {@link Reservation#settleAfterCommit()}, and the engine journals and applies it once the
+ * transaction committed. A rollback, or a retry of the whole operation, only releases the hold. The
+ * {@code engine_operations} row written by the transaction lets recovery settle a committed operation
+ * whose settlement never reached the journal.
+ */
+@Component
+@ConditionalOnProperty(prefix = "transfer.engine", name = "enabled", havingValue = "true")
+public class AccountEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(AccountEngine.class);
+
+    private static final String LOAD_ACCOUNT_SQL = "SELECT currency, balance FROM accounts WHERE id = ?";
+
+    private static final String LOAD_CHECKPOINTS_SQL = "SELECT shard, sequence FROM engine_checkpoints";
+
+    private static final String INSERT_OPERATION_SQL = """
+            INSERT INTO engine_operations (operation_id, type, from_account, to_account, amount_minor)
+            VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final String LOAD_OPERATIONS_SQL = """
+            SELECT operation_id, type, from_account, to_account, amount_minor FROM engine_operations
+            """;
+
+    private static final String DELETE_OPERATION_SQL = "DELETE FROM engine_operations WHERE operation_id = ?";
+
+    private static final String DELETE_OPERATIONS_SQL = "DELETE FROM engine_operations";
+
+    private static final String APPLY_DELTA_SQL = """
+            UPDATE accounts SET balance = balance + ?, version = version + 1 WHERE id = ?
+            """;
+
+    private static final String WRITE_BALANCE_SQL = """
+            UPDATE accounts SET balance = ?, version = version + 1 WHERE id = ?
+            """;
+
+    private static final String WRITE_CHECKPOINT_SQL = """
+            INSERT INTO engine_checkpoints (shard, sequence, updated_at)
+            VALUES (?, ?, now())
+            ON CONFLICT (shard)
+            DO UPDATE SET sequence = EXCLUDED.sequence, updated_at = EXCLUDED.updated_at
+            """;
+
+    private final AccountEngineProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, Currency> currencies = new ConcurrentHashMap<>();
+    private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+    // not a monitor: the snapshot blocks on JDBC and would pin a virtual scheduling thread
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final AtomicLong inFlight = new AtomicLong();
+
+    private EngineShard[] shards;
+    private Thread[] threads;
+
+    public AccountEngine(AccountEngineProperties properties,
+                         JdbcTemplate jdbcTemplate,
+                         TransactionTemplate transactionTemplate) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @PostConstruct
+    void start() {
+        Path journalDir = Path.of(properties.getJournalDir());
+        Map<Integer, Long> sequences = recover(journalDir);
+
+        int count = properties.getShards();
+        shards = new EngineShard[count];
+        threads = new Thread[count];
+        for (int i = 0; i < count; i++) {
+            long sequence = sequences.getOrDefault(i, 0L);
+            Journal journal = new Journal(journalDir, i, properties.getMaxBatch());
+            journal.open(sequence + 1);
+            shards[i] = new EngineShard(i, journal, sequence, properties.getMaxBatch(),
+                    this::loadAccount, this::shardFor);
+            threads[i] = new Thread(shards[i], "account-engine-" + i);
+            threads[i].start();
+        }
+        log.info("Account engine started | shards={} | journalDir={}", count, journalDir);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        try {
+            snapshot();
+        } finally {
+            for (EngineShard shard : shards) {
+                shard.stop();
+            }
+            for (Thread thread : threads) {
+                thread.join(properties.getTimeout().toMillis());
+            }
+        }
+    }
+
+    /**
+     * Holds {@code amount} on the source account for a transfer; fails like the transfer would.
+     */
+    public Reservation reserveTransfer(UUID transferId, UUID from, UUID to, BigDecimal amount) {
+        if (from.equals(to)) {
+            throw new SameAccountTransferException();
+        }
+        long minor = toMinor(from, amount);
+        submit(from, new EngineShard.Reserve(from, to, minor, this::currencyOf));
+        return new Reservation(JournalRecord.Type.TRANSFER, transferId, from, to, minor);
+    }
+
+    /**
+     * Credits hold nothing, so this only checks the account and the amount.
+     */
+    public Reservation reserveTopUp(UUID operationId, UUID accountId, BigDecimal amount) {
+        long minor = toMinor(accountId, amount);
+        return new Reservation(JournalRecord.Type.TOP_UP, operationId, null, accountId, minor);
+    }
+
+    public Reservation reserveWithdraw(UUID operationId, UUID accountId, BigDecimal amount) {
+        long minor = toMinor(accountId, amount);
+        submit(accountId, new EngineShard.Reserve(accountId, null, minor, this::currencyOf));
+        return new Reservation(JournalRecord.Type.WITHDRAW, operationId, accountId, null, minor);
+    }
+
+    public BigDecimal balance(UUID accountId) {
+        return toDecimal(accountId, submit(accountId, new EngineShard.Balance(accountId)));
+    }
+
+    /**
+     * Writes dirty balances and per-shard checkpoint sequences in one transaction, then drops the journal
+     * segments the checkpoint covers. New commands are held back only while the shards are captured.
+     */
+    @Scheduled(fixedDelayString = "${transfer.engine.snapshot-interval:PT1M}")
+    public void snapshot() {
+        snapshotLock.lock();
+        try {
+            writeSnapshot();
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    private void writeSnapshot() {
+        List<EngineShard.Checkpoint> checkpoints = capture();
+        int accounts = checkpoints.stream().mapToInt(checkpoint -> checkpoint.balances().size()).sum();
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                List<Object[]> balances = new ArrayList<>(accounts);
+                List<Object[]> sequences = new ArrayList<>(checkpoints.size());
+                List<Object[]> operations = new ArrayList<>();
+                for (EngineShard.Checkpoint checkpoint : checkpoints) {
+                    checkpoint.balances().forEach((accountId, balance) ->
+                            balances.add(new Object[]{balance, accountId}));
+                    sequences.add(new Object[]{checkpoint.shard(), checkpoint.sequence()});
+                    checkpoint.operations().forEach(operationId -> operations.add(new Object[]{operationId}));
+                }
+                jdbcTemplate.batchUpdate(WRITE_BALANCE_SQL, balances);
+                jdbcTemplate.batchUpdate(WRITE_CHECKPOINT_SQL, sequences);
+                // settled operations covered by the checkpoint no longer need recovery
+                jdbcTemplate.batchUpdate(DELETE_OPERATION_SQL, operations);
+            });
+        } catch (RuntimeException ex) {
+            for (EngineShard.Checkpoint checkpoint : checkpoints) {
+                shards[checkpoint.shard()].enqueue(
+                        new EngineShard.MarkDirty(checkpoint.balances().keySet(), checkpoint.operations()));
+            }
+            log.error("Account engine snapshot failed | accounts={}", accounts, ex);
+            throw ex;
+        }
+
+        for (EngineShard shard : shards) {
+            shard.enqueue(new EngineShard.DeleteCoveredSegments());
+        }
+        log.debug("Account engine snapshot written | accounts={}", accounts);
+    }
+
+    private List<EngineShard.Checkpoint> capture() {
+        gate.writeLock().lock();
+        try {
+            long deadline = System.nanoTime() + properties.getTimeout().toNanos();
+            while (inFlight.get() > 0) {
+                if (System.nanoTime() > deadline) {
+                    throw new IllegalStateException("Account engine did not drain for snapshot");
+                }
+                LockSupport.parkNanos(100_000);
+            }
+
+            List<EngineShard.Capture> captures = new ArrayList<>(shards.length);
+            for (EngineShard shard : shards) {
+                EngineShard.Capture capture = new EngineShard.Capture();
+                shard.enqueue(capture);
+                captures.add(capture);
+            }
+            List<EngineShard.Checkpoint> checkpoints = new ArrayList<>(captures.size());
+            for (EngineShard.Capture capture : captures) {
+                checkpoints.add(await(capture.checkpoint));
+            }
+            return checkpoints;
+        } finally {
+            gate.writeLock().unlock();
+        }
+    }
+
+    private long submit(UUID accountId, EngineShard.Command command) {
+        gate.readLock().lock();
+        try {
+            inFlight.incrementAndGet();
+            command.result.whenComplete((result, ex) -> inFlight.decrementAndGet());
+            shardFor(accountId).enqueue(command);
+        } finally {
+            gate.readLock().unlock();
+        }
+        return await(command.result);
+    }
+
+    private <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get(properties.getTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            throw new IllegalStateException("Account engine did not respond in time", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private EngineShard shardFor(UUID accountId) {
+        return shards[Math.floorMod(accountId.hashCode(), shards.length)];
+    }
+
+    private Currency currencyOf(UUID accountId) {
+        return currencies.computeIfAbsent(accountId, id -> {
+            EngineAccount account = loadAccount(id);
+            return account != null ? account.currency() : null;
+        });
+    }
+
+    private EngineAccount loadAccount(UUID accountId) {
+        return jdbcTemplate.query(LOAD_ACCOUNT_SQL, rs -> rs.next()
+                ? new EngineAccount(accountId, Currency.valueOf(rs.getString("currency")), rs.getLong("balance"))
+                : null, accountId);
+    }
+
+    /**
+     * Applies journaled operations newer than the last checkpoint to the {@code accounts} table, then
+     * the committed operations in {@code engine_operations} whose settlement never reached the journal,
+     * and records the sequences, so the replay is not repeated if the node stops again before a snapshot.
+     */
+    private Map<Integer, Long> recover(Path journalDir) {
+        Map<Integer, Long> sequences = new HashMap<>();
+        jdbcTemplate.query(LOAD_CHECKPOINTS_SQL, rs -> {
+            sequences.put(rs.getInt("shard"), rs.getLong("sequence"));
+        });
+
+        Map<UUID, Long> deltas = new HashMap<>();
+        Set<UUID> journaled = new HashSet<>();
+        for (int shard : Journal.shardsWithSegments(journalDir)) {
+            for (JournalRecord record : Journal.read(journalDir, shard, sequences.getOrDefault(shard, 0L))) {
+                applyDelta(deltas, record.type(), record.from(), record.to(), record.amountMinor());
+                journaled.add(record.operationId());
+                sequences.put(shard, record.sequence());
+            }
+        }
+
+        int[] unsettled = {0};
+        jdbcTemplate.query(LOAD_OPERATIONS_SQL, rs -> {
+            if (!journaled.contains(rs.getObject("operation_id", UUID.class))) {
+                applyDelta(deltas, JournalRecord.Type.valueOf(rs.getString("type")),
+                        rs.getObject("from_account", UUID.class), rs.getObject("to_account", UUID.class),
+                        rs.getLong("amount_minor"));
+                unsettled[0]++;
+            }
+        });
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Object[]> updates = new ArrayList<>(deltas.size());
+            deltas.forEach((accountId, delta) -> updates.add(new Object[]{delta, accountId}));
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, updates);
+
+            List<Object[]> checkpoints = new ArrayList<>(sequences.size());
+            sequences.forEach((shard, sequence) -> checkpoints.add(new Object[]{shard, sequence}));
+            jdbcTemplate.batchUpdate(WRITE_CHECKPOINT_SQL, checkpoints);
+            jdbcTemplate.update(DELETE_OPERATIONS_SQL);
+        });
+        if (!journaled.isEmpty() || unsettled[0] > 0) {
+            log.info("Account engine recovered | journaled={} | unsettled={} | accounts={}",
+                    journaled.size(), unsettled[0], deltas.size());
+        }
+
+        Journal.deleteAll(journalDir);
+        return sequences;
+    }
+
+    private static void applyDelta(Map<UUID, Long> deltas, JournalRecord.Type type, UUID from, UUID to, long amount) {
+        switch (type) {
+            case TRANSFER -> {
+                deltas.merge(from, -amount, Long::sum);
+                deltas.merge(to, amount, Long::sum);
+            }
+            case TOP_UP -> deltas.merge(to, amount, Long::sum);
+            case WITHDRAW -> deltas.merge(from, -amount, Long::sum);
+        }
+    }
+
+    /**
+     * Records the operations in the current transaction and settles them in the engine after commit.
+     * All of them are marked committed before the first one is settled, and a failed settlement is
+     * logged and left to recovery, so it neither stops the others nor lets their holds be released.
+     */
+    public void settleAfterCommit(List<Reservation> reservations) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Engine operations are recorded in a transaction");
+        }
+        if (reservations.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(INSERT_OPERATION_SQL, reservations.stream().map(Reservation::row).toList());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                reservations.forEach(Reservation::commit);
+                for (Reservation reservation : reservations) {
+                    try {
+                        reservation.settle();
+                    } catch (RuntimeException ex) {
+                        log.error("Account engine settlement failed, left to recovery | operationId={}",
+                                reservation.operationId(), ex);
+                    }
+                }
+            }
+        });
+    }
+
+    // amounts and balances are minor units of the account currency
+    private long toMinor(UUID accountId, BigDecimal amount) {
+        if (amount == null || amount.signum() <= 0) {
+            throw new InvalidAmountException();
+        }
+        return Money.toMinor(amount, knownCurrency(accountId));
+    }
+
+    private BigDecimal toDecimal(UUID accountId, long minor) {
+        return Money.toDecimal(minor, knownCurrency(accountId));
+    }
+
+    private Currency knownCurrency(UUID accountId) {
+        Currency currency = currencyOf(accountId);
+        if (currency == null) {
+            throw new AccountNotFoundException(accountId);
+        }
+        return currency;
+    }
+
+    /**
+     * A balance change checked, and for debits held, by the engine but not applied yet. Once the
+     * transaction that recorded it committed it is settled at most once and can no longer be released,
+     * even if settling fails: the hold stays until recovery applies the committed row. Closing a
+     * reservation that was never committed releases the hold.
+     */
+    public final class Reservation implements AutoCloseable {
+
+        private enum State {
+            RESERVED, COMMITTED, SETTLED, RELEASED
+        }
+
+        private final JournalRecord.Type type;
+        private final UUID operationId;
+        private final UUID from;
+        private final UUID to;
+        private final long amount;
+        private final AtomicReference<State> state = new AtomicReference<>(State.RESERVED);
+        private volatile BigDecimal balance;
+
+        private Reservation(JournalRecord.Type type, UUID operationId, UUID from, UUID to, long amount) {
+            this.type = type;
+            this.operationId = operationId;
+            this.from = from;
+            this.to = to;
+            this.amount = amount;
+        }
+
+        /**
+         * Records the operation in the current transaction and settles it in the engine after commit.
+         */
+        public void settleAfterCommit() {
+            AccountEngine.this.settleAfterCommit(List.of(this));
+        }
+
+        public UUID operationId() {
+            return operationId;
+        }
+
+        public boolean isSettled() {
+            return state.get() == State.SETTLED;
+        }
+
+        /**
+         * Balance of the debited account, or of the credited one for a top-up, right after settlement.
+         */
+        public BigDecimal balance() {
+            return balance;
+        }
+
+        @Override
+        public void close() {
+            if (state.compareAndSet(State.RESERVED, State.RELEASED) && type != JournalRecord.Type.TOP_UP) {
+                submit(from, new EngineShard.Release(from, amount));
+            }
+        }
+
+        private Object[] row() {
+            return new Object[]{operationId, type.name(), from, to, amount};
+        }
+
+        private void commit() {
+            if (!state.compareAndSet(State.RESERVED, State.COMMITTED)) {
+                throw new IllegalStateException("Engine operation " + operationId + " is already " + state.get());
+            }
+        }
+
+        private void settle() {
+            UUID accountId = type == JournalRecord.Type.TOP_UP ? to : from;
+            EngineShard.Command command = switch (type) {
+                case TRANSFER -> new EngineShard.Transfer(operationId, from, to, amount);
+                case TOP_UP -> new EngineShard.TopUp(operationId, to, amount);
+                case WITHDRAW -> new EngineShard.Withdraw(operationId, from, amount);
+            };
+            balance = toDecimal(accountId, submit(accountId, command));
+            state.set(State.SETTLED);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.mike.transfer.engine;
+
+import com.mike.transfer.domain.Currency;
+
+import java.util.UUID;
+
+/**
+ * In-memory account state. The balance is in minor units and is only touched by the owning shard thread.
+ * {@code held} is the part of it reserved by debits whose database transaction has not completed yet.
+ */
+final class EngineAccount {
+
+    private final UUID id;
+    private final Currency currency;
+    private long balance;
+    private long held;
+
+    EngineAccount(UUID id, Currency currency, long balance) {
+        this.id = id;
+        this.currency = currency;
+        this.balance = balance;
+    }
+
+    UUID id() {
+        return id;
+    }
+
+    Currency currency() {
+        return currency;
+    }
+
+    long balance() {
+        return balance;
+    }
+
+    long available() {
+        return balance - held;
+    }
+
+    void add(long amount) {
+        balance = Math.addExact(balance, amount);
+    }
+
+    void hold(long amount) {
+        held = Math.addExact(held, amount);
+    }
+
+    void release(long amount) {
+        held -= amount;
+    }
+
+    /**
+     * Turns a hold into a debit.
+     */
+    void settle(long amount) {
+        release(amount);
+        add(-amount);
+    }
+}
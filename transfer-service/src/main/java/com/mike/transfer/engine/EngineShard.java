@@ -0,0 +1,412 @@
+package com.mike.transfer.engine;
+
+import com.mike.transfer.domain.Currency;
+import com.mike.transfer.exception.AccountNotFoundException;
+import com.mike.transfer.exception.CurrencyMismatchException;
+import com.mike.transfer.exception.InsufficientFundsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Single-threaded owner of a partition of accounts. Commands are drained in batches; every batch is
+ * appended to the journal and fsynced once before any of its results become visible to callers or
+ * before credits are handed to other shards. A journal failure stops the shard for good: the in-memory
+ * state can no longer be trusted and the node has to be restarted to recover from the journal.
+ *
+ * <p>Debits are reserved first ({@link Reserve}), which only holds funds and is not journaled, and are
+ * journaled when the caller settles them after its database transaction committed.
+ */
+final class EngineShard implements Runnable {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineShard.class);
+
+    private final int index;
+    private final Journal journal;
+    private final int maxBatch;
+    private final Function<UUID, EngineAccount> loader;
+    private final Function<UUID, EngineShard> router;
+    private final BlockingQueue<Command> queue = new LinkedBlockingQueue<>();
+
+    private final Map<UUID, EngineAccount> accounts = new HashMap<>();
+    private final Set<UUID> dirty = new HashSet<>();
+    private final List<JournalRecord> pendingRecords = new ArrayList<>();
+    private final List<UUID> settledOperations = new ArrayList<>();
+    private final List<Runnable> afterSync = new ArrayList<>();
+
+    private long sequence;
+    private volatile boolean running = true;
+    private volatile Throwable failure;
+
+    EngineShard(int index, Journal journal, long sequence, int maxBatch,
+                Function<UUID, EngineAccount> loader, Function<UUID, EngineShard> router) {
+        this.index = index;
+        this.journal = journal;
+        this.sequence = sequence;
+        this.maxBatch = maxBatch;
+        this.loader = loader;
+        this.router = router;
+    }
+
+    void enqueue(Command command) {
+        Throwable cause = failure;
+        if (cause != null || !running) {
+            command.fail(new IllegalStateException("Account engine shard " + index + " is stopped", cause));
+            return;
+        }
+        queue.add(command);
+    }
+
+    void stop() {
+        running = false;
+    }
+
+    @Override
+    public void run() {
+        List<Command> batch = new ArrayList<>(maxBatch);
+        try {
+            while (running || !queue.isEmpty()) {
+                Command first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                process(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                journal.close();
+            } catch (Exception e) {
+                log.error("Failed to close journal | shard={}", index, e);
+            }
+        }
+    }
+
+    private void process(List<Command> batch) {
+        for (Command command : batch) {
+            try {
+                command.execute(this);
+            } catch (RuntimeException ex) {
+                command.fail(ex);
+            }
+        }
+
+        if (!pendingRecords.isEmpty()) {
+            try {
+                journal.append(pendingRecords);
+                journal.sync();
+            } catch (Exception ex) {
+                failure = ex;
+                running = false;
+                log.error("Journal write failed, stopping account engine shard | shard={}", index, ex);
+                IllegalStateException stopped = new IllegalStateException("Journal write failed", ex);
+                batch.forEach(command -> command.fail(stopped));
+                queue.forEach(command -> command.fail(stopped));
+                queue.clear();
+                pendingRecords.clear();
+                afterSync.clear();
+                return;
+            }
+            pendingRecords.forEach(record -> settledOperations.add(record.operationId()));
+            pendingRecords.clear();
+        }
+
+        for (Runnable action : afterSync) {
+            action.run();
+        }
+        afterSync.clear();
+    }
+
+    private EngineAccount account(UUID accountId) {
+        EngineAccount account = accounts.get(accountId);
+        if (account == null) {
+            account = loader.apply(accountId);
+            if (account == null) {
+                throw new AccountNotFoundException(accountId);
+            }
+            accounts.put(accountId, account);
+        }
+        return account;
+    }
+
+    private void record(JournalRecord.Type type, UUID operationId, UUID from, UUID to, long amount) {
+        pendingRecords.add(new JournalRecord(++sequence, type, operationId, from, to, amount));
+    }
+
+    abstract static class Command {
+
+        final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        abstract void execute(EngineShard shard);
+
+        void fail(Throwable cause) {
+            result.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Holds {@code amount} of an account's available balance for a debit that is settled or released
+     * later. With a counterparty the hold is for a transfer, so the counterparty has to exist and use
+     * the same currency.
+     */
+    static final class Reserve extends Command {
+
+        private final UUID accountId;
+        private final UUID counterparty;
+        private final long amount;
+        private final Function<UUID, Currency> currencies;
+
+        Reserve(UUID accountId, UUID counterparty, long amount, Function<UUID, Currency> currencies) {
+            this.accountId = accountId;
+            this.counterparty = counterparty;
+            this.amount = amount;
+            this.currencies = currencies;
+        }
+
+        @Override
+        void execute(EngineShard shard) {
+            EngineAccount account = shard.account(accountId);
+            if (counterparty != null) {
+                Currency targetCurrency = currencies.apply(counterparty);
+                if (targetCurrency == null) {
+                    throw new AccountNotFoundException(counterparty);
+                }
+                if (account.currency() != targetCurrency) {
+                    throw new CurrencyMismatchException();
+                }
+            }
+            if (account.available() < amount) {
+                throw new InsufficientFundsException();
+            }
+            account.hold(amount);
+            result.complete(account.available());
+        }
+    }
+
+    static final class Release extends Command {
+
+        private final UUID accountId;
+        private final long amount;
+
+        Release(UUID accountId, long amount) {
+            this.accountId = accountId;
+            this.amount = amount;
+        }
+
+        @Override
+        void execute(EngineShard shard) {
+            EngineAccount account = shard.account(accountId);
+            account.release(amount);
+            result.complete(account.available());
+        }
+    }
+
+    /**
+     * Settles a reserved debit of the source and, once the debit is durable, credits the target on its
+     * own shard. The result completes with the new source balance after the credit has been applied.
+     */
+    static final class Transfer extends Command {
+
+        private final UUID transferId;
+        private final UUID from;
+        private final UUID to;
+        private final long amount;
+
+        Transfer(UUID transferId, UUID from, UUID to, long amount) {
+            this.transferId = transferId;
+            this.from = from;
+            this.to = to;
+            this.amount = amount;
+        }
+
+        @Override
+        void execute(EngineShard shard) {
+            EngineAccount source = shard.account(from);
+            source.settle(amount);
+            shard.dirty.add(from);
+            shard.record(JournalRecord.Type.TRANSFER, transferId, from, to, amount);
+
+            long sourceBalance = source.balance();
+            shard.afterSync.add(() -> {
+                Credit credit = new Credit(to, amount);
+                credit.result.whenComplete((ignored, ex) -> {
+                    if (ex != null) {
+                        result.completeExceptionally(ex);
+                    } else {
+                        result.complete(sourceBalance);
+                    }
+                });
+                shard.router.apply(to).enqueue(credit);
+            });
+        }
+    }
+
+    /**
+     * Applies the credit half of a transfer already journaled by the source shard.
+     */
+    static final class Credit extends Command {
+
+        private final UUID accountId;
+        private final long amount;
+
+        Credit(UUID accountId, long amount) {
+            this.accountId = accountId;
+            this.amount = amount;
+        }
+
+        @Override
+        void execute(EngineShard shard) {
+            EngineAccount account = shard.account(accountId);
+            account.add(amount);
+            shard.dirty.add(accountId);
+            result.complete(account.balance());
+        }
+    }
+
+    static final class TopUp extends Command {
+
+        private final UUID operationId;
+        private final UUID accountId;
+        private final long amount;
+
+        TopUp(UUID operationId, UUID accountId, long amount) {
+            this.operationId = operationId;
+            this.accountId = accountId;
+            this.amount = amount;
+        }
+
+        @Override
+        void execute(EngineShard shard) {
+            EngineAccount account = shard.account(accountId);
+            account.add(amount);
+            shard.dirty.add(accountId);
+            shard.record(JournalRecord.Type.TOP_UP, operationId, null, accountId, amount);
+            long balance = account.balance();
+            shard.afterSync.add(() -> result.complete(balance));
+        }
+    }
+
+    /**
+     * Settles a reserved debit.
+     */
+    static final class Withdraw extends Command {
+
+        private final UUID operationId;
+        private final UUID accountId;
+        private final long amount;
+
+        Withdraw(UUID operationId, UUID accountId, long amount) {
+            this.operationId = operationId;
+            this.accountId = accountId;
+            this.amount = amount;
+        }
+
+        @Override
+        void execute(EngineShard shard) {
+            EngineAccount account = shard.account(accountId);
+            account.settle(amount);
+            shard.dirty.add(accountId);
+            shard.record(JournalRecord.Type.WITHDRAW, operationId, accountId, null, amount);
+            long balance = account.balance();
+            shard.afterSync.add(() -> result.complete(balance));
+        }
+    }
+
+    static final class Balance extends Command {
+
+        private final UUID accountId;
+
+        Balance(UUID accountId) {
+            this.accountId = accountId;
+        }
+
+        @Override
+        void execute(EngineShard shard) {
+            result.complete(shard.account(accountId).balance());
+        }
+    }
+
+    /**
+     * Snapshot state of one shard: dirty balances, the last journaled sequence they include and the
+     * operations settled since the previous capture.
+     */
+    record Checkpoint(int shard, long sequence, Map<UUID, Long> balances, List<UUID> operations) {
+    }
+
+    /**
+     * Captures dirty balances and rotates the journal so every closed segment is covered by the checkpoint.
+     */
+    static final class Capture extends Command {
+
+        final CompletableFuture<Checkpoint> checkpoint = new CompletableFuture<>();
+
+        @Override
+        void execute(EngineShard shard) {
+            Map<UUID, Long> balances = new HashMap<>();
+            for (UUID accountId : shard.dirty) {
+                balances.put(accountId, shard.accounts.get(accountId).balance());
+            }
+            try {
+                shard.journal.rotate(shard.sequence + 1);
+            } catch (Exception ex) {
+                throw new IllegalStateException("Journal rotation failed", ex);
+            }
+            List<UUID> operations = List.copyOf(shard.settledOperations);
+            shard.dirty.clear();
+            shard.settledOperations.clear();
+            checkpoint.complete(new Checkpoint(shard.index, shard.sequence, balances, operations));
+        }
+
+        @Override
+        void fail(Throwable cause) {
+            checkpoint.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * Puts accounts back into the dirty set, and operations back into the settled list, after a
+     * checkpoint could not be written to the database.
+     */
+    static final class MarkDirty extends Command {
+
+        private final Set<UUID> accountIds;
+        private final List<UUID> operations;
+
+        MarkDirty(Set<UUID> accountIds, List<UUID> operations) {
+            this.accountIds = accountIds;
+            this.operations = operations;
+        }
+
+        @Override
+        void execute(EngineShard shard) {
+            shard.dirty.addAll(accountIds);
+            shard.settledOperations.addAll(operations);
+            result.complete(0L);
+        }
+    }
+
+    static final class DeleteCoveredSegments extends Command {
+
+        @Override
+        void execute(EngineShard shard) {
+            shard.journal.deleteOlderSegments();
+            result.complete(0L);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.mike.transfer.engine;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of one shard, split into segments named after their first sequence.
+ * Records are fixed size and carry a CRC so a torn tail write is detected and ignored on replay.
+ */
+final class Journal implements Closeable {
+
+    static final int RECORD_SIZE = 8 + 1 + 16 + 16 + 16 + 8 + 4;
+
+    private static final Pattern SEGMENT = Pattern.compile("shard-(\\d+)-(\\d+)\\.journal");
+    private static final UUID NONE = new UUID(0, 0);
+
+    private final Path dir;
+    private final int shard;
+    private final ByteBuffer buffer;
+    private FileChannel channel;
+    private volatile Path currentSegment;
+
+    Journal(Path dir, int shard, int maxBatch) {
+        this.dir = dir;
+        this.shard = shard;
+        this.buffer = ByteBuffer.allocateDirect(RECORD_SIZE * maxBatch);
+    }
+
+    void open(long firstSequence) {
+        try {
+            Files.createDirectories(dir);
+            currentSegment = dir.resolve(String.format("shard-%03d-%019d.journal", shard, firstSequence));
+            channel = FileChannel.open(currentSegment,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    void append(List<JournalRecord> records) throws IOException {
+        buffer.clear();
+        for (JournalRecord record : records) {
+            if (buffer.remaining() < RECORD_SIZE) {
+                flushBuffer();
+            }
+            encode(record, buffer);
+        }
+        flushBuffer();
+    }
+
+    void sync() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Closes the current segment and starts a new one, so every older segment is covered by a checkpoint
+     * once the snapshot taken at {@code nextSequence - 1} is committed.
+     */
+    void rotate(long nextSequence) throws IOException {
+        sync();
+        channel.close();
+        open(nextSequence);
+    }
+
+    void deleteOlderSegments() {
+        Path current = currentSegment;
+        for (Path segment : segments(dir, shard)) {
+            if (!segment.equals(current)) {
+                try {
+                    Files.deleteIfExists(segment);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            channel.force(false);
+            channel.close();
+        }
+    }
+
+    static List<Integer> shardsWithSegments(Path dir) {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(path -> SEGMENT.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .map(matcher -> Integer.parseInt(matcher.group(1)))
+                    .distinct()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static List<JournalRecord> read(Path dir, int shard, long afterSequence) {
+        List<JournalRecord> records = new ArrayList<>();
+        ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+        for (Path segment : segments(dir, shard)) {
+            try (FileChannel in = FileChannel.open(segment, StandardOpenOption.READ)) {
+                while (true) {
+                    record.clear();
+                    while (record.hasRemaining() && in.read(record) > 0) {
+                        // keep reading until the record is complete or the file ends
+                    }
+                    if (record.hasRemaining()) {
+                        break;
+                    }
+                    record.flip();
+                    JournalRecord decoded = decode(record);
+                    if (decoded == null) {
+                        break;
+                    }
+                    if (decoded.sequence() > afterSequence) {
+                        records.add(decoded);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return records;
+    }
+
+    static void deleteAll(Path dir) {
+        for (int shard : shardsWithSegments(dir)) {
+            for (Path segment : segments(dir, shard)) {
+                try {
+                    Files.deleteIfExists(segment);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    private static List<Path> segments(Path dir, int shard) {
+        if (!Files.isDirectory(dir)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(path -> {
+                        Matcher matcher = SEGMENT.matcher(path.getFileName().toString());
+                        return matcher.matches() && Integer.parseInt(matcher.group(1)) == shard;
+                    })
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void encode(JournalRecord record, ByteBuffer out) {
+        int start = out.position();
+        out.putLong(record.sequence());
+        out.put((byte) record.type().ordinal());
+        putUuid(out, record.operationId());
+        putUuid(out, record.from());
+        putUuid(out, record.to());
+        out.putLong(record.amountMinor());
+
+        CRC32 crc = new CRC32();
+        ByteBuffer body = out.duplicate();
+        body.position(start).limit(out.position());
+        crc.update(body);
+        out.putInt((int) crc.getValue());
+    }
+
+    private static JournalRecord decode(ByteBuffer in) {
+        CRC32 crc = new CRC32();
+        ByteBuffer body = in.duplicate();
+        body.limit(RECORD_SIZE - 4);
+        crc.update(body);
+        if (in.getInt(RECORD_SIZE - 4) != (int) crc.getValue()) {
+            return null;
+        }
+
+        long sequence = in.getLong();
+        JournalRecord.Type type = JournalRecord.Type.values()[in.get()];
+        UUID operationId = getUuid(in);
+        UUID from = getUuid(in);
+        UUID to = getUuid(in);
+        long amount = in.getLong();
+        return new JournalRecord(sequence, type, operationId, from, to, amount);
+    }
+
+    private static void putUuid(ByteBuffer out, UUID value) {
+        UUID uuid = value != null ? value : NONE;
+        out.putLong(uuid.getMostSignificantBits());
+        out.putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer in) {
+        UUID uuid = new UUID(in.getLong(), in.getLong());
+        return NONE.equals(uuid) ? null : uuid;
+    }
+}
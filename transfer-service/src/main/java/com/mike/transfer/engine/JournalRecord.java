@@ -0,0 +1,14 @@
+package com.mike.transfer.engine;
+
+import java.util.UUID;
+
+/**
+ * One durable balance change. Amounts are stored in minor units of the account currency.
+ * A TRANSFER record is written only by the source shard and also implies the credit of {@code to}.
+ */
+record JournalRecord(long sequence, Type type, UUID operationId, UUID from, UUID to, long amountMinor) {
+
+    enum Type {
+        TRANSFER, TOP_UP, WITHDRAW
+    }
+}
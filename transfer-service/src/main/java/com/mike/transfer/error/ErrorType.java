@@ -12,9 +12,13 @@ public enum ErrorType {
     CURRENCY_MISMATCH(HttpStatus.BAD_REQUEST, "Currency Mismatch"),
     SAME_ACCOUNT_TRANSFER(HttpStatus.BAD_REQUEST, "Same Account Transfer"),
     INVALID_AMOUNT(HttpStatus.BAD_REQUEST, "Invalid Amount"),
+    INVALID_LIMIT(HttpStatus.BAD_REQUEST, "Invalid Limit"),
     IDEMPOTENCY_CONFLICT(HttpStatus.CONFLICT, "Idempotency Conflict"),
+    CONCURRENT_MODIFICATION(HttpStatus.CONFLICT, "Concurrent Modification"),
     CARD_NOT_FOUND(HttpStatus.NOT_FOUND, "Card Not Found"),
     CARD_BLOCKED(HttpStatus.FORBIDDEN, "Card Blocked"),
+    CARD_SERVICE_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "Card Service Unavailable"),
+    ANALYTICS_UNAVAILABLE(HttpStatus.SERVICE_UNAVAILABLE, "Analytics Unavailable"),
     VALIDATION_ERROR(HttpStatus.BAD_REQUEST, "Validation Failed"),
     INTERNAL_ERROR(HttpStatus.INTERNAL_SERVER_ERROR, "Internal Server Error");
 
@@ -7,6 +7,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -51,6 +52,16 @@ public class GlobalExceptionHandler {
         return buildResponse(errorType, detail, request);
     }
 
+    @ExceptionHandler(ConcurrencyFailureException.class)
+    public ResponseEntity<ApiError> handleConcurrencyFailure(
+            ConcurrencyFailureException ex,
+            HttpServletRequest request
+    ) {
+        String detail = "Account was modified concurrently, retry the request";
+        logError(ErrorType.CONCURRENT_MODIFICATION, detail, request, ex);
+        return buildResponse(ErrorType.CONCURRENT_MODIFICATION, detail, request);
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleUnexpected(
             Exception ex,
@@ -0,0 +1,16 @@
+package com.mike.transfer.exception;
+
+import com.mike.transfer.common.ApiException;
+import com.mike.transfer.error.ErrorType;
+import org.springframework.http.HttpStatus;
+
+public class AnalyticsUnavailableException extends ApiException {
+
+    public AnalyticsUnavailableException(String message) {
+        super(
+                ErrorType.ANALYTICS_UNAVAILABLE.name(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                message
+        );
+    }
+}
@@ -0,0 +1,16 @@
+package com.mike.transfer.exception;
+
+import com.mike.transfer.common.ApiException;
+import com.mike.transfer.error.ErrorType;
+import org.springframework.http.HttpStatus;
+
+public class CardServiceUnavailableException extends ApiException {
+
+    public CardServiceUnavailableException(String message) {
+        super(
+                ErrorType.CARD_SERVICE_UNAVAILABLE.name(),
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                message
+        );
+    }
+}
@@ -1,6 +1,7 @@
 package com.mike.transfer.exception;
 
 import com.mike.transfer.common.ApiException;
+import com.mike.transfer.domain.Money;
 import com.mike.transfer.error.ErrorType;
 import org.springframework.http.HttpStatus;
 
@@ -10,7 +11,8 @@ public class InvalidAmountException extends ApiException {
         super(
                 ErrorType.INVALID_AMOUNT.name(),
                 HttpStatus.BAD_REQUEST.value(),
-                "Amount must be positive"
+                "Amount must be positive, with at most " + Money.MAX_INTEGER_DIGITS
+                        + " integer digits and " + Money.SCALE + " decimals"
         );
     }
 }
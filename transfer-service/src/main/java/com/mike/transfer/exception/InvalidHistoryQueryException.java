@@ -0,0 +1,16 @@
+package com.mike.transfer.exception;
+
+import com.mike.transfer.common.ApiException;
+import com.mike.transfer.error.ErrorType;
+import org.springframework.http.HttpStatus;
+
+public class InvalidHistoryQueryException extends ApiException {
+
+    public InvalidHistoryQueryException(String detail) {
+        super(
+                ErrorType.VALIDATION_ERROR.name(),
+                HttpStatus.BAD_REQUEST.value(),
+                detail
+        );
+    }
+}
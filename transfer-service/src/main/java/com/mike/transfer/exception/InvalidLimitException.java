@@ -0,0 +1,16 @@
+package com.mike.transfer.exception;
+
+import com.mike.transfer.common.ApiException;
+import com.mike.transfer.error.ErrorType;
+import org.springframework.http.HttpStatus;
+
+public class InvalidLimitException extends ApiException {
+
+    public InvalidLimitException(int max) {
+        super(
+                ErrorType.INVALID_LIMIT.name(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Limit must be between 1 and " + max
+        );
+    }
+}
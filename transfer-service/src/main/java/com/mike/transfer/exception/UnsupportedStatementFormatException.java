@@ -0,0 +1,16 @@
+package com.mike.transfer.exception;
+
+import com.mike.transfer.common.ApiException;
+import com.mike.transfer.error.ErrorType;
+import org.springframework.http.HttpStatus;
+
+public class UnsupportedStatementFormatException extends ApiException {
+
+    public UnsupportedStatementFormatException(String format) {
+        super(
+                ErrorType.VALIDATION_ERROR.name(),
+                HttpStatus.BAD_REQUEST.value(),
+                "Unsupported statement format: " + format + " (expected csv or ndjson)"
+        );
+    }
+}
@@ -0,0 +1,60 @@
+package com.mike.transfer.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.transfer.dto.CardUpdatedEvent;
+import com.mike.transfer.service.CardResolverService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+
+/**
+ * Evicts card lookups cached by this node. Uses a per-instance consumer group so
+ * every node sees every card event, not only the partitions assigned to it.
+ */
+@Component
+@RequiredArgsConstructor
+public class CardCacheInvalidationConsumer {
+
+    private static final Logger log = LoggerFactory.getLogger(CardCacheInvalidationConsumer.class);
+
+    private final CardResolverService cardResolverService;
+    private final ObjectMapper objectMapper;
+
+    @KafkaListener(
+            topics = CardEventTypes.TOPIC,
+            groupId = "${spring.application.name}-card-cache-${random.uuid}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void listen(@Payload String message) throws JsonProcessingException {
+
+        if (message == null || message.isBlank()) {
+            return;
+        }
+
+        JsonNode root = objectMapper.readTree(message);
+
+        JsonNode typeNode = root.get("type");
+        JsonNode payloadNode = root.get("payload");
+
+        if (typeNode == null || payloadNode == null || !CardEventTypes.CARD_UPDATE_TYPES.contains(typeNode.asText())) {
+            return;
+        }
+
+        CardUpdatedEvent event = objectMapper.treeToValue(payloadNode, CardUpdatedEvent.class);
+
+        if (event.cardId() == null) {
+            log.warn("{} without cardId", typeNode.asText());
+            return;
+        }
+
+        cardResolverService.evictCard(UUID.fromString(event.cardId()));
+        log.info("Card cache invalidated | type={} | cardId={}", typeNode.asText(), event.cardId());
+    }
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mike.transfer.dto.CardCreatedEvent;
+import com.mike.transfer.dto.CardUpdatedEvent;
+import com.mike.transfer.service.CardProjectionService;
 import com.mike.transfer.service.TransferService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -23,9 +25,10 @@ public class CardCreatedConsumer {
     private static final Logger log = LoggerFactory.getLogger(CardCreatedConsumer.class);
 
     private final TransferService transferService;
+    private final CardProjectionService cardProjectionService;
     private final ObjectMapper objectMapper;
 
-    @KafkaListener(topics = "card-events", groupId = "${spring.kafka.consumer.group-id}")
+    @KafkaListener(topics = CardEventTypes.TOPIC, groupId = "${spring.kafka.consumer.group-id}")
     public void listen(
             @Payload String message,
             @Header(name = "X-Request-Id", required = false) String requestId
@@ -47,25 +50,37 @@ public class CardCreatedConsumer {
                 return;
             }
 
-            if (!"CARD_CREATED".equals(root.get("type").asText())) {
-                log.debug("Kafka event ignored | type={}", root.get("type").asText());
-                return;
-            }
-
-            CardCreatedEvent event =
-                    objectMapper.treeToValue(root.get("payload"), CardCreatedEvent.class);
+            String type = typeNode.asText();
 
             if (requestId == null) {
                 requestId = "kafka-" + UUID.randomUUID();
             }
             MDC.put("requestId", requestId);
 
+            if (CardEventTypes.CARD_UPDATE_TYPES.contains(type)) {
+                CardUpdatedEvent event = objectMapper.treeToValue(payloadNode, CardUpdatedEvent.class);
+                cardProjectionService.fromUpdated(event).ifPresentOrElse(
+                        cardProjectionService::apply,
+                        () -> log.warn("{} without card snapshot", type)
+                );
+                return;
+            }
+
+            if (!CardEventTypes.CARD_CREATED.equals(type)) {
+                log.debug("Kafka event ignored | type={}", type);
+                return;
+            }
+
+            CardCreatedEvent event =
+                    objectMapper.treeToValue(root.get("payload"), CardCreatedEvent.class);
+
             if (event.userId() == null) {
                 log.warn("CARD_CREATED without userId");
                 return;
             }
 
             log.info("CARD_CREATED event received | userId={}", event.userId());
+            cardProjectionService.fromCreated(event).ifPresent(cardProjectionService::apply);
             transferService.createDefaultAccounts(UUID.fromString(event.userId()));
             log.info("CARD_CREATED event processed | userId={}", event.userId());
 
@@ -0,0 +1,18 @@
+package com.mike.transfer.kafka;
+
+import java.util.Set;
+
+public final class CardEventTypes {
+
+    public static final String TOPIC = "card-events";
+
+    public static final String CARD_CREATED = "CARD_CREATED";
+    public static final String CARD_BLOCKED = "CARD_BLOCKED";
+    public static final String CARD_CLOSED = "CARD_CLOSED";
+    public static final String CARD_ACCOUNT_LINKED = "CARD_ACCOUNT_LINKED";
+
+    public static final Set<String> CARD_UPDATE_TYPES = Set.of(CARD_BLOCKED, CARD_CLOSED, CARD_ACCOUNT_LINKED);
+
+    private CardEventTypes() {
+    }
+}
@@ -0,0 +1,123 @@
+package com.mike.transfer.kafka;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.transfer.config.CardProjectionProperties;
+import com.mike.transfer.domain.CardProjection;
+import com.mike.transfer.service.CardProjectionService;
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Rebuilds card_projection by reading card-events from the beginning with a throwaway
+ * consumer. Only the newest snapshot per card is kept and written in JDBC batches,
+ * so replaying the topic costs one upsert per card rather than one per event.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "transfer.card-projection.bootstrap", name = "enabled", havingValue = "true")
+public class CardProjectionBootstrap implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CardProjectionBootstrap.class);
+
+    private final ConsumerFactory<String, String> consumerFactory;
+    private final CardProjectionService cardProjectionService;
+    private final CardProjectionProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        int batchSize = properties.getBootstrap().getBatchSize();
+
+        Properties overrides = new Properties();
+        overrides.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        overrides.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, String.valueOf(batchSize));
+        overrides.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, String.valueOf(1024 * 1024));
+
+        long started = System.nanoTime();
+        long events = 0;
+        long applied = 0;
+
+        try (Consumer<String, String> consumer = consumerFactory.createConsumer(
+                "transfer-service-projection-bootstrap-" + UUID.randomUUID(), null, null, overrides)) {
+
+            List<TopicPartition> partitions = consumer.partitionsFor(CardEventTypes.TOPIC).stream()
+                    .map(info -> new TopicPartition(info.topic(), info.partition()))
+                    .toList();
+            consumer.assign(partitions);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+
+            Map<UUID, CardProjection> latest = new HashMap<>();
+
+            while (!caughtUp(consumer, endOffsets)) {
+                for (ConsumerRecord<String, String> record : consumer.poll(Duration.ofMillis(500))) {
+                    events++;
+                    parse(record).ifPresent(projection -> latest.merge(
+                            projection.getCardId(),
+                            projection,
+                            (current, candidate) -> candidate.isNewerThan(current) ? candidate : current
+                    ));
+                }
+
+                if (latest.size() >= batchSize) {
+                    cardProjectionService.applyAll(latest.values());
+                    applied += latest.size();
+                    latest.clear();
+                }
+            }
+
+            cardProjectionService.applyAll(latest.values());
+            applied += latest.size();
+        }
+
+        log.info(
+                "Card projection bootstrap completed | events={} | snapshots={} | tookMs={}",
+                events, applied, Duration.ofNanos(System.nanoTime() - started).toMillis()
+        );
+    }
+
+    private boolean caughtUp(Consumer<String, String> consumer, Map<TopicPartition, Long> endOffsets) {
+        return endOffsets.entrySet().stream()
+                .allMatch(entry -> consumer.position(entry.getKey()) >= entry.getValue());
+    }
+
+    private Optional<CardProjection> parse(ConsumerRecord<String, String> record) {
+        if (record.value() == null || record.value().isBlank()) {
+            return Optional.empty();
+        }
+        try {
+            JsonNode root = objectMapper.readTree(record.value());
+            JsonNode typeNode = root.get("type");
+            JsonNode payloadNode = root.get("payload");
+            if (typeNode == null || payloadNode == null) {
+                return Optional.empty();
+            }
+            return cardProjectionService.fromEvent(typeNode.asText(), payloadNode);
+        } catch (Exception e) {
+            log.warn(
+                    "Card projection bootstrap skipped record | partition={} | offset={}",
+                    record.partition(), record.offset(), e
+            );
+            return Optional.empty();
+        }
+    }
+}
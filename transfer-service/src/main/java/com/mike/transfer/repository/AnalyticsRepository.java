@@ -13,39 +13,122 @@ import java.util.UUID;
 
 public interface AnalyticsRepository extends JpaRepository<Transfer, UUID> {
 
-    @Query(value = """
+    String TURNOVER_SQL = """
+        WITH bounds AS (
             SELECT
-                a.id AS accountId,
-                a.currency AS currency,
-                COUNT(t.id) AS operationsCount,
-                COALESCE(SUM(t.amount), 0) AS turnover
-            FROM accounts a
-            LEFT JOIN transfers t ON t.from_account = a.id
+                CASE WHEN CAST(d.from_day AS timestamp) >= :from THEN d.from_day ELSE d.from_day + 1 END AS first_day,
+                CASE WHEN CAST(d.to_day AS timestamp) <= :to THEN d.to_day ELSE d.to_day - 1 END AS end_day
+            FROM (
+                SELECT
+                    CAST(CAST(CAST(:from AS timestamptz) AS timestamp) AS date) AS from_day,
+                    CAST(CAST(CAST(:to AS timestamptz) AS timestamp) AS date) AS to_day
+            ) d
+        ),
+        edges AS (
+            SELECT
+                b.first_day,
+                b.end_day,
+                CASE WHEN b.first_day < b.end_day
+                    THEN CAST(b.first_day AS timestamp) ELSE CAST('infinity' AS timestamp) END AS head_end,
+                CASE WHEN b.first_day < b.end_day
+                    THEN CAST(b.end_day AS timestamp) ELSE CAST('infinity' AS timestamp) END AS tail_start
+            FROM bounds b
+        ),
+        parts AS (
+            SELECT r.operations_count AS operations_count, r.turnover AS amount
+            FROM edges e
+            JOIN daily_account_turnover r ON r.account_id = :accountId
+                AND r.day >= e.first_day
+                AND r.day < e.end_day
+            UNION ALL
+            SELECT 1, t.amount
+            FROM edges e
+            JOIN transfers t ON t.from_account = :accountId
+                AND t.transaction_at BETWEEN :from AND :to
+                AND t.transaction_at < e.head_end
+            UNION ALL
+            SELECT 1, t.amount
+            FROM edges e
+            JOIN transfers t ON t.from_account = :accountId
                 AND t.transaction_at BETWEEN :from AND :to
-            WHERE a.id = :accountId
-            GROUP BY a.id, a.currency
-            """,
-            nativeQuery = true)
+                AND t.transaction_at >= e.tail_start
+        )
+        SELECT
+            a.id AS accountId,
+            a.currency AS currency,
+            CAST(COALESCE(SUM(p.operations_count), 0) AS bigint) AS operationsCount,
+            COALESCE(SUM(p.amount), 0) AS turnover
+        FROM accounts a
+        LEFT JOIN parts p ON TRUE
+        WHERE a.id = :accountId
+        GROUP BY a.id, a.currency
+        """;
+
+    String TOP_TRANSFERS_SQL = """
+        WITH bounds AS (
+            SELECT
+                m.head_month,
+                CASE WHEN m.head_month >= :from
+                    THEN m.head_month ELSE m.head_month + interval '1 month' END AS first_full
+            FROM (
+                SELECT date_trunc('month', CAST(CAST(:from AS timestamptz) AS timestamp)) AS head_month
+            ) m
+        ),
+        head_kept AS (
+            SELECT r.transfer_id AS id, r.account_id AS from_account, r.to_account, r.amount, r.transaction_at
+            FROM bounds b
+            JOIN monthly_top_transfers r ON r.account_id = :accountId
+                AND r.month = CAST(b.head_month AS date)
+                AND r.transaction_at >= :from
+                AND r.transaction_at < b.first_full
+        ),
+        candidates AS (
+            SELECT h.id, h.from_account, h.to_account, h.amount, h.transaction_at
+            FROM head_kept h
+            WHERE (SELECT COUNT(*) FROM head_kept) >= :limit
+            UNION ALL
+            SELECT t.id, t.from_account, t.to_account, t.amount, t.transaction_at
+            FROM bounds b
+            JOIN transfers t ON t.from_account = :accountId
+                AND t.transaction_at >= :from
+                AND t.transaction_at < b.first_full
+            WHERE (SELECT COUNT(*) FROM head_kept) < :limit
+            UNION ALL
+            SELECT r.transfer_id, r.account_id, r.to_account, r.amount, r.transaction_at
+            FROM bounds b
+            JOIN monthly_top_transfers r ON r.account_id = :accountId
+                AND r.month >= CAST(b.first_full AS date)
+        )
+        SELECT
+            c.id AS id,
+            c.from_account AS fromAccount,
+            c.to_account AS toAccount,
+            c.amount AS amount,
+            c.transaction_at AS transactionAt
+        FROM candidates c
+        ORDER BY c.amount DESC
+        LIMIT :limit
+        """;
+
+    /**
+     * Same result as summing {@code transfers} over {@code [from, to]}, but days that lie entirely
+     * inside the range are read from {@code daily_account_turnover}; raw rows are only scanned for
+     * the partial days at either edge, or for the whole range when it covers no full day.
+     */
+    @Query(value = TURNOVER_SQL, nativeQuery = true)
     AccountTurnover turnover(
             @Param("accountId") UUID accountId,
             @Param("from") Instant from,
             @Param("to") Instant to
     );
 
-    @Query(value = """
-            SELECT
-                t.id AS id,
-                t.from_account AS fromAccount,
-                t.to_account AS toAccount,
-                t.amount AS amount,
-                t.transaction_at AS transactionAt
-            FROM transfers t
-            WHERE t.from_account = :accountId
-              AND t.transaction_at >= :from
-            ORDER BY t.amount DESC
-            LIMIT :limit
-            """,
-            nativeQuery = true)
+    /**
+     * Largest outgoing transfers since {@code from}, merged from the per-month lists in
+     * {@code monthly_top_transfers}. Only the month containing {@code from} may need raw rows, and
+     * only when its list holds fewer than {@code limit} transfers at or after {@code from}. Exact
+     * for any {@code limit} up to the list depth.
+     */
+    @Query(value = TOP_TRANSFERS_SQL, nativeQuery = true)
     List<TransferDto> topTransfers(
             @Param("accountId") UUID accountId,
             @Param("from") Instant from,
@@ -0,0 +1,9 @@
+package com.mike.transfer.repository;
+
+import com.mike.transfer.domain.CardProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface CardProjectionRepository extends JpaRepository<CardProjection, UUID> {
+}
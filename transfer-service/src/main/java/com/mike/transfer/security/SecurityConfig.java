@@ -50,6 +50,8 @@ public class SecurityConfig {
                                 "/swagger-ui/**",
                                 "/v3/api-docs/**"
                         ).permitAll()
+                        .requestMatchers("/actuator/**").hasAuthority(SecurityRoles.ADMIN)
+                        .requestMatchers("/analytics/turnover/batch", "/analytics/admin/**").hasAuthority(SecurityRoles.ADMIN)
                         .requestMatchers("/analytics/**", "/transfers/**").hasAnyAuthority(SecurityRoles.USER, SecurityRoles.ADMIN)
                         .anyRequest().denyAll()
                 )
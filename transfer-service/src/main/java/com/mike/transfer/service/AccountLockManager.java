@@ -0,0 +1,109 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.config.AccountLockingProperties;
+import com.mike.transfer.domain.Account;
+import com.mike.transfer.exception.AccountNotFoundException;
+import com.mike.transfer.repository.AccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Loads accounts for a money movement according to {@code transfer.locking.mode}.
+ * OPTIMISTIC relies on the {@code @Version} check at flush, PESSIMISTIC takes row locks
+ * up front, ordered by account id so two transfers between the same pair cannot deadlock.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountLockManager {
+
+    private static final String OTHER_ACCOUNT = "other";
+
+    private final AccountRepository accountRepository;
+    private final AccountLockingProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public Account lock(UUID accountId) {
+        long started = System.nanoTime();
+        try {
+            Account account = (isPessimistic()
+                    ? accountRepository.findByIdForUpdate(accountId)
+                    : accountRepository.findById(accountId))
+                    .orElseThrow(() -> new AccountNotFoundException(accountId));
+            recordAcquired(started, accountId);
+            return account;
+        } catch (PessimisticLockingFailureException ex) {
+            recordConflict(accountId);
+            throw ex;
+        }
+    }
+
+    public Map<UUID, Account> lock(UUID first, UUID second) {
+        long started = System.nanoTime();
+        List<UUID> ids = List.of(first, second);
+        try {
+            List<Account> accounts = isPessimistic()
+                    ? accountRepository.findAllByIdForUpdate(ids)
+                    : accountRepository.findAllById(ids);
+            recordAcquired(started, first);
+            recordAcquired(started, second);
+            return accounts.stream().collect(Collectors.toMap(Account::getId, Function.identity()));
+        } catch (PessimisticLockingFailureException ex) {
+            recordConflict(first);
+            recordConflict(second);
+            throw ex;
+        }
+    }
+
+    /**
+     * Flushes pending account updates so an optimistic version conflict surfaces here,
+     * where it can be attributed to the accounts involved, rather than at commit.
+     */
+    public void flush(UUID... accountIds) {
+        try {
+            accountRepository.flush();
+        } catch (OptimisticLockingFailureException ex) {
+            for (UUID accountId : accountIds) {
+                recordConflict(accountId);
+            }
+            throw ex;
+        }
+    }
+
+    private boolean isPessimistic() {
+        return properties.getMode() == AccountLockingProperties.Mode.PESSIMISTIC;
+    }
+
+    private void recordAcquired(long startedNanos, UUID accountId) {
+        Timer.builder("transfer.account.lock.wait")
+                .description("Time spent loading (and in pessimistic mode locking) accounts")
+                .tag("mode", properties.getMode().name())
+                .tag("account", accountTag(accountId))
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void recordConflict(UUID accountId) {
+        Counter.builder("transfer.account.lock.conflicts")
+                .description("Optimistic version conflicts or pessimistic lock failures")
+                .tag("mode", properties.getMode().name())
+                .tag("account", accountTag(accountId))
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private String accountTag(UUID accountId) {
+        return properties.getTrackedAccounts().contains(accountId) ? accountId.toString() : OTHER_ACCOUNT;
+    }
+}
@@ -0,0 +1,96 @@
+package com.mike.transfer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mike.transfer.config.AnalyticsCacheProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * Analytics results keyed by account, query and parameters. Every transfer bumps the source
+ * account's row in {@code account_analytics_versions} (by trigger, in the transfer's transaction),
+ * and results for open ranges are keyed by the version read before the query runs, so a result
+ * is never served once a later transfer has committed; superseded entries simply age out.
+ * Results for closed ranges cannot change and are keyed without a version.
+ */
+@Component
+public class AnalyticsResultCache {
+
+    private static final String VERSION_SQL = """
+            SELECT COALESCE((SELECT version FROM account_analytics_versions WHERE account_id = ?), 0)
+            """;
+
+    private static final long CLOSED = -1;
+
+    // rough retained sizes, only used to bound the cache by memory
+    private static final int ENTRY_BYTES = 256;
+    private static final int ROW_BYTES = 160;
+
+    private record Key(UUID accountId, String query, List<Object> params, long version) {
+    }
+
+    private final boolean enabled;
+    private final AnalyticsCacheProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<Key, Object> cache;
+
+    public AnalyticsResultCache(AnalyticsCacheProperties properties,
+                                JdbcTemplate jdbcTemplate,
+                                MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxBytes())
+                .weigher((Key key, Object value) ->
+                        ENTRY_BYTES + (value instanceof List<?> rows ? rows.size() * ROW_BYTES : ROW_BYTES))
+                .expireAfterAccess(properties.getExpireAfterAccess())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "analytics-cache");
+        Gauge.builder("transfer.analytics.cache.estimated.bytes", cache,
+                        c -> c.policy().eviction().map(e -> e.weightedSize().orElse(0)).orElse(0L))
+                .description("Estimated heap used by cached analytics results")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached result or runs {@code loader}. {@code rangeEnd} is the end of the queried
+     * period, or null when the period is open-ended. Must run in the same transaction as the loader
+     * so that the version is read no later than the data.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(UUID accountId, String query, List<Object> params, Instant rangeEnd, Supplier<T> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        boolean closed = rangeEnd != null && rangeEnd.isBefore(Instant.now().minus(properties.getClosedPeriodLag()));
+        long version = closed ? CLOSED : jdbcTemplate.queryForObject(VERSION_SQL, Long.class, accountId);
+        Key key = new Key(accountId, query, params, version);
+
+        Object cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+
+        T result = loader.get();
+        if (result != null) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
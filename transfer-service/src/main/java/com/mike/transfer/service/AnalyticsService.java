@@ -1,26 +1,139 @@
 package com.mike.transfer.service;
 
+import com.mike.transfer.config.AnalyticsProperties;
 import com.mike.transfer.dto.AccountTurnover;
+import com.mike.transfer.dto.AccountTurnoverRow;
 import com.mike.transfer.dto.TransferDto;
+import com.mike.transfer.dto.TransferSummary;
+import com.mike.transfer.exception.InvalidLimitException;
 import com.mike.transfer.repository.AnalyticsRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.PreparedStatement;
 import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
 public class AnalyticsService {
 
+    /**
+     * Set-based form of {@link AnalyticsRepository#TURNOVER_SQL} for many accounts: the same
+     * rollup plus edge-day split, with every account matched through {@code ANY(ids)} and results
+     * returned in request order.
+     */
+    private static final String BATCH_TURNOVER_SQL = """
+            WITH params AS (
+                SELECT CAST(? AS uuid[]) AS ids, CAST(? AS timestamptz) AS from_at, CAST(? AS timestamptz) AS to_at
+            ),
+            bounds AS (
+                SELECT
+                    p.ids,
+                    p.from_at,
+                    p.to_at,
+                    CASE WHEN CAST(d.from_day AS timestamp) >= p.from_at THEN d.from_day ELSE d.from_day + 1 END AS first_day,
+                    CASE WHEN CAST(d.to_day AS timestamp) <= p.to_at THEN d.to_day ELSE d.to_day - 1 END AS end_day
+                FROM params p
+                CROSS JOIN LATERAL (
+                    SELECT
+                        CAST(CAST(p.from_at AS timestamp) AS date) AS from_day,
+                        CAST(CAST(p.to_at AS timestamp) AS date) AS to_day
+                ) d
+            ),
+            edges AS (
+                SELECT
+                    b.*,
+                    CASE WHEN b.first_day < b.end_day
+                        THEN CAST(b.first_day AS timestamp) ELSE CAST('infinity' AS timestamp) END AS head_end,
+                    CASE WHEN b.first_day < b.end_day
+                        THEN CAST(b.end_day AS timestamp) ELSE CAST('infinity' AS timestamp) END AS tail_start
+                FROM bounds b
+            ),
+            parts AS (
+                SELECT r.account_id, r.operations_count, r.turnover AS amount
+                FROM edges e
+                JOIN daily_account_turnover r ON r.account_id = ANY(e.ids)
+                    AND r.day >= e.first_day
+                    AND r.day < e.end_day
+                UNION ALL
+                SELECT t.from_account, 1, t.amount
+                FROM edges e
+                JOIN transfers t ON t.from_account = ANY(e.ids)
+                    AND t.transaction_at BETWEEN e.from_at AND e.to_at
+                    AND t.transaction_at < e.head_end
+                UNION ALL
+                SELECT t.from_account, 1, t.amount
+                FROM edges e
+                JOIN transfers t ON t.from_account = ANY(e.ids)
+                    AND t.transaction_at BETWEEN e.from_at AND e.to_at
+                    AND t.transaction_at >= e.tail_start
+            )
+            SELECT
+                a.id AS account_id,
+                a.currency,
+                CAST(COALESCE(SUM(p.operations_count), 0) AS bigint) AS operations_count,
+                COALESCE(SUM(p.amount), 0) AS turnover
+            FROM params
+            CROSS JOIN LATERAL unnest(params.ids) WITH ORDINALITY AS i(id, ord)
+            JOIN accounts a ON a.id = i.id
+            LEFT JOIN parts p ON p.account_id = a.id
+            GROUP BY a.id, a.currency, i.ord
+            ORDER BY i.ord
+            """;
+
     private final AnalyticsRepository analyticsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final AnalyticsResultCache resultCache;
+    private final AnalyticsProperties properties;
 
+    @Transactional(readOnly = true)
     public AccountTurnover getAccountTurnover(UUID accountId, Instant from, Instant to) {
-        return analyticsRepository.turnover(accountId, from, to);
+        return resultCache.get(accountId, "turnover", List.of(from, to), to, () -> {
+            AccountTurnover turnover = analyticsRepository.turnover(accountId, from, to);
+            return turnover != null ? AccountTurnoverRow.of(turnover) : null;
+        });
+    }
+
+    /**
+     * Turnovers of many accounts in one query, handed to {@code action} row by row as they are read.
+     * Unknown accounts are skipped, as the single-account endpoint returns nothing for them.
+     */
+    @Transactional(readOnly = true)
+    public void forEachAccountTurnover(Collection<UUID> accountIds, Instant from, Instant to,
+                                       Consumer<AccountTurnoverRow> action) {
+        Object[] ids = new LinkedHashSet<>(accountIds).toArray();
+        jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(BATCH_TURNOVER_SQL);
+            ps.setArray(1, con.createArrayOf("uuid", ids));
+            ps.setObject(2, from.atOffset(ZoneOffset.UTC));
+            ps.setObject(3, to.atOffset(ZoneOffset.UTC));
+            return ps;
+        }, rs -> {
+            action.accept(new AccountTurnoverRow(
+                    rs.getObject("account_id", UUID.class),
+                    rs.getString("currency"),
+                    rs.getLong("operations_count"),
+                    rs.getBigDecimal("turnover")
+            ));
+        });
     }
 
+    @Transactional(readOnly = true)
     public List<TransferDto> getTopTransfers(UUID accountId, Instant from, int limit) {
-        return analyticsRepository.topTransfers(accountId, from, limit);
+        if (limit < 1 || limit > properties.getTopTransfersCap()) {
+            throw new InvalidLimitException(properties.getTopTransfersCap());
+        }
+        return resultCache.get(accountId, "topTransfers", List.of(from, limit), null, () ->
+                analyticsRepository.topTransfers(accountId, from, limit).stream()
+                        .<TransferDto>map(TransferSummary::of)
+                        .toList());
     }
 }
@@ -0,0 +1,131 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.config.BalanceSlotProperties;
+import com.mike.transfer.domain.Account;
+import com.mike.transfer.domain.Money;
+import com.mike.transfer.exception.CurrencyMismatchException;
+import com.mike.transfer.exception.InvalidAmountException;
+import com.mike.transfer.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sub-balance slots for high fan-in accounts. Credits to a slotted account are added to one
+ * of N {@code account_balance_slots} rows instead of the account row, so concurrent credits
+ * do not serialize on the account version. Debits still go through the account row and fold
+ * the slots into it only when the main balance alone is insufficient.
+ */
+@Service
+@RequiredArgsConstructor
+public class BalanceSlotService {
+
+    private static final Logger log = LoggerFactory.getLogger(BalanceSlotService.class);
+
+    private static final String CREDIT_SQL = """
+            INSERT INTO account_balance_slots (account_id, slot, balance)
+            VALUES (?, ?, ?)
+            ON CONFLICT (account_id, slot)
+            DO UPDATE SET balance = account_balance_slots.balance + EXCLUDED.balance
+            """;
+
+    private static final String PENDING_SQL = """
+            SELECT COALESCE(SUM(balance), 0) FROM account_balance_slots WHERE account_id = ?
+            """;
+
+    private static final String DRAIN_SQL = """
+            WITH drained AS (
+                DELETE FROM account_balance_slots WHERE account_id = ? RETURNING balance
+            )
+            SELECT COALESCE(SUM(balance), 0) FROM drained
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountRepository accountRepository;
+    private final BalanceSlotProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    private final AtomicInteger roundRobin = new AtomicInteger();
+
+    public boolean isSlotted(UUID accountId) {
+        return properties.getAccounts().contains(accountId);
+    }
+
+    /**
+     * Credits the account, through a slot if the account is slotted. {@code operationId}
+     * picks the slot in HASH mode.
+     */
+    public void credit(Account account, Money amount, UUID operationId) {
+        if (!isSlotted(account.getId())) {
+            account.credit(amount);
+            return;
+        }
+        if (amount == null || amount.signum() <= 0) {
+            throw new InvalidAmountException();
+        }
+        if (amount.currency() != account.getCurrency()) {
+            throw new CurrencyMismatchException();
+        }
+        jdbcTemplate.update(CREDIT_SQL, account.getId(), pickSlot(operationId), amount.minor());
+    }
+
+    /**
+     * Debits the account row, folding its slots in first when the row alone cannot cover the amount.
+     * The caller must hold the account (optimistically or with a row lock).
+     */
+    public void debit(Account account, Money amount) {
+        if (isSlotted(account.getId())
+                && amount != null
+                && account.getBalance().isLessThan(amount)) {
+            fold(account);
+        }
+        account.debit(amount);
+    }
+
+    public Money balanceOf(Account account) {
+        if (!isSlotted(account.getId())) {
+            return account.getBalance();
+        }
+        return account.getBalance().plus(Money.ofMinor(pending(account.getId()), account.getCurrency()));
+    }
+
+    @Scheduled(fixedDelayString = "${transfer.balance-slots.compaction-interval:PT30S}")
+    public void compact() {
+        for (UUID accountId : properties.getAccounts()) {
+            try {
+                transactionTemplate.executeWithoutResult(status ->
+                        accountRepository.findByIdForUpdate(accountId).ifPresent(this::fold));
+            } catch (Exception e) {
+                log.warn("Balance slot compaction failed | accountId={}", accountId, e);
+            }
+        }
+    }
+
+    private long pending(UUID accountId) {
+        Long pending = jdbcTemplate.queryForObject(PENDING_SQL, Long.class, accountId);
+        return pending != null ? pending : 0;
+    }
+
+    private void fold(Account account) {
+        Long drained = jdbcTemplate.queryForObject(DRAIN_SQL, Long.class, account.getId());
+        if (drained != null && drained > 0) {
+            account.credit(Money.ofMinor(drained, account.getCurrency()));
+            log.debug("Balance slots folded | accountId={} | amount={}", account.getId(), drained);
+        }
+    }
+
+    private int pickSlot(UUID operationId) {
+        int slots = Math.max(1, properties.getSlotCount());
+        if (properties.getStrategy() == BalanceSlotProperties.Strategy.ROUND_ROBIN || operationId == null) {
+            return Math.floorMod(roundRobin.getAndIncrement(), slots);
+        }
+        return Math.floorMod(operationId.hashCode(), slots);
+    }
+}
@@ -0,0 +1,304 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.columnar.ColumnarTransferStore;
+import com.mike.transfer.common.ApiException;
+import com.mike.transfer.domain.Account;
+import com.mike.transfer.domain.IdempotentRequest;
+import com.mike.transfer.domain.Money;
+import com.mike.transfer.domain.Transfer;
+import com.mike.transfer.dto.BatchTransferItem;
+import com.mike.transfer.dto.BatchTransferResult;
+import com.mike.transfer.engine.AccountEngine;
+import com.mike.transfer.error.ErrorType;
+import com.mike.transfer.exception.*;
+import com.mike.transfer.repository.AccountRepository;
+import com.mike.transfer.repository.IdempotentRepository;
+import com.mike.transfer.repository.TransferRepository;
+import com.mike.transfer.security.SecurityRoles;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Executes many transfers in one transaction. Idempotency keys are locked first, then accounts
+ * are fetched and locked with a single ordered {@code SELECT ... FOR UPDATE}; business failures
+ * are reported per item and never roll back the rest of the batch. With the account engine enabled
+ * the items are reserved before the transaction, no rows are locked, and the engine applies them
+ * after it committed.
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchTransferService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchTransferService.class);
+
+    private static final String OPERATION_TYPE = "TRANSFER";
+
+    private record ResolvedItem(int index, BatchTransferItem item, UUID from, UUID to, String hash) {
+    }
+
+    private final AccountRepository accountRepository;
+    private final TransferRepository transferRepository;
+    private final IdempotentRepository idempotentRepository;
+    private final CardResolverService cardResolverService;
+    private final BalanceSlotService balanceSlotService;
+    private final ObjectProvider<AccountEngine> accountEngine;
+    private final ObjectProvider<ColumnarTransferStore> columnarTransferStore;
+    private final LedgerService ledgerService;
+    private final IdempotencyKeyCache idempotencyKeyCache;
+    private final IdempotencyStore idempotencyStore;
+    private final TransferService transferService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Retryable(
+            retryFor = DataIntegrityViolationException.class,
+            maxAttempts = 2,
+            backoff = @Backoff(delay = 50)
+    )
+    public List<BatchTransferResult> transfer(List<BatchTransferItem> items, Authentication authentication) {
+        boolean admin = transferService.hasAuthority(authentication, SecurityRoles.ADMIN);
+        UUID currentUserId = admin ? null : transferService.currentUserId(authentication);
+
+        BatchTransferResult[] results = new BatchTransferResult[items.size()];
+        Map<String, UUID> cardAccounts = new HashMap<>();
+        List<ResolvedItem> resolved = new ArrayList<>(items.size());
+
+        for (int i = 0; i < items.size(); i++) {
+            BatchTransferItem item = items.get(i);
+            try {
+                UUID from = resolveCard(cardAccounts, item.fromCardId());
+                UUID to = resolveCard(cardAccounts, item.toCardId());
+                String hash = item.idempotencyKey() != null
+                        ? transferService.computeHash(item.toTransferRequest(), OPERATION_TYPE)
+                        : null;
+                resolved.add(new ResolvedItem(i, item, from, to, hash));
+            } catch (ApiException ex) {
+                results[i] = failed(i, item, ex);
+            } catch (IllegalArgumentException ex) {
+                results[i] = BatchTransferResult.failed(
+                        i, item.idempotencyKey(), ErrorType.VALIDATION_ERROR.name(), "Invalid card id");
+            }
+        }
+
+        AccountEngine engine = accountEngine.getIfAvailable();
+        Map<Integer, AccountEngine.Reservation> reservations = engine != null
+                ? reserve(engine, resolved, results, admin, currentUserId)
+                : Map.of();
+        try {
+            return transactionTemplate.execute(status ->
+                    execute(items.size(), resolved, results, reservations, admin, currentUserId));
+        } finally {
+            reservations.values().forEach(AccountEngine.Reservation::close);
+        }
+    }
+
+    private List<BatchTransferResult> execute(int size, List<ResolvedItem> resolved, BatchTransferResult[] results,
+                                              Map<Integer, AccountEngine.Reservation> reservations,
+                                              boolean admin, UUID currentUserId) {
+        Set<String> keys = resolved.stream()
+                .map(r -> r.item().idempotencyKey())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        // keys before rows, the order single requests lock in; contended keys may have just been stored
+        idempotencyStore.lockAll(keys).forEach(idempotencyKeyCache::markConflict);
+        Map<String, IdempotencyKeyCache.StoredKey> existingKeys =
+                idempotencyKeyCache.findAll(keys, idempotentRepository::findAllById);
+
+        Set<UUID> accountIds = new HashSet<>();
+        for (ResolvedItem r : resolved) {
+            accountIds.add(r.from());
+            accountIds.add(r.to());
+        }
+        // the engine holds the funds itself, so its items take no row locks
+        AccountEngine engine = accountEngine.getIfAvailable();
+        List<Account> found = engine != null
+                ? accountRepository.findAllById(accountIds)
+                : accountRepository.findAllByIdForUpdate(accountIds);
+        Map<UUID, Account> accounts = found.stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+        Map<UUID, BigDecimal> ledgerBalances = ledgerService.isBalanceSource()
+                ? ledgerService.balancesOf(accounts.keySet())
+                : null;
+
+        List<Transfer> transfers = new ArrayList<>();
+        Map<String, IdempotencyKeyCache.StoredKey> newKeys = new HashMap<>();
+        List<IdempotentRequest> newRequests = new ArrayList<>();
+        List<AccountEngine.Reservation> settled = new ArrayList<>();
+
+        for (ResolvedItem r : resolved) {
+            if (results[r.index()] != null) {
+                // failed while being reserved
+                continue;
+            }
+            String key = r.item().idempotencyKey();
+
+            IdempotencyKeyCache.StoredKey previous = key != null
+                    ? existingKeys.getOrDefault(key, newKeys.get(key))
+                    : null;
+            if (previous != null) {
+                results[r.index()] = transferService.hashMatches(
+                        previous.requestHash(), r.hash(), r.item().toTransferRequest(), OPERATION_TYPE)
+                        ? BatchTransferResult.replayed(r.index(), key, previous.entityId())
+                        : failed(r.index(), r.item(), new IdempotencyConflictException());
+                continue;
+            }
+
+            try {
+                Account source = accounts.get(r.from());
+                Account target = accounts.get(r.to());
+                assertCanUse(source, r.from(), admin, currentUserId);
+                UUID transferId = apply(source, target, r, ledgerBalances, reservations.get(r.index()), settled);
+
+                transfers.add(new Transfer(transferId, r.from(), r.to(), r.item().amount()));
+                if (key != null) {
+                    newKeys.put(key, new IdempotencyKeyCache.StoredKey(r.hash(), transferId));
+                    newRequests.add(new IdempotentRequest(key, transferId, r.hash()));
+                }
+                results[r.index()] = BatchTransferResult.completed(r.index(), key, transferId);
+            } catch (ApiException ex) {
+                results[r.index()] = failed(r.index(), r.item(), ex);
+            }
+        }
+
+        if (engine != null) {
+            engine.settleAfterCommit(settled);
+        }
+        transferRepository.saveAll(transfers);
+        columnarTransferStore.ifAvailable(store -> store.appendOnCommit(transfers));
+        ledgerService.recordAll(transfers.stream()
+                .map(t -> new LedgerService.Movement(t.getId(), OPERATION_TYPE, t.getFromAccount(), t.getToAccount(), t.getAmount()))
+                .toList());
+        Set<String> alreadyStored = idempotencyStore.insert(newRequests);
+        if (!alreadyStored.isEmpty()) {
+            alreadyStored.forEach(idempotencyKeyCache::markConflict);
+            throw new DuplicateKeyException("Idempotency keys already stored: " + alreadyStored);
+        }
+        idempotencyKeyCache.registerNew(newRequests);
+
+        log.info(
+                "Batch transfer completed | items={} | completed={} | accounts={}",
+                size, transfers.size(), accounts.size()
+        );
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Checks access and holds the funds of every item that is not a replay, so the engine is never
+     * waited on inside the transaction. Items failing here are reported and skipped by the transaction.
+     */
+    private Map<Integer, AccountEngine.Reservation> reserve(AccountEngine engine, List<ResolvedItem> resolved,
+                                                            BatchTransferResult[] results,
+                                                            boolean admin, UUID currentUserId) {
+        Map<String, IdempotencyKeyCache.StoredKey> existingKeys = idempotencyKeyCache.findAllStored(
+                resolved.stream()
+                        .map(r -> r.item().idempotencyKey())
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()),
+                idempotentRepository::findAllById
+        );
+        Map<UUID, Account> sources = accountRepository.findAllById(
+                        resolved.stream().map(ResolvedItem::from).collect(Collectors.toSet())).stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+
+        Map<Integer, AccountEngine.Reservation> reservations = new HashMap<>();
+        Set<String> reservedKeys = new HashSet<>();
+        try {
+            for (ResolvedItem r : resolved) {
+                String key = r.item().idempotencyKey();
+                if (key != null && (existingKeys.containsKey(key) || reservedKeys.contains(key))) {
+                    // replayed by the transaction
+                    continue;
+                }
+                try {
+                    assertCanUse(sources.get(r.from()), r.from(), admin, currentUserId);
+                    reservations.put(r.index(),
+                            engine.reserveTransfer(UUID.randomUUID(), r.from(), r.to(), r.item().amount()));
+                    if (key != null) {
+                        reservedKeys.add(key);
+                    }
+                } catch (ApiException ex) {
+                    results[r.index()] = failed(r.index(), r.item(), ex);
+                }
+            }
+        } catch (RuntimeException ex) {
+            reservations.values().forEach(AccountEngine.Reservation::close);
+            throw ex;
+        }
+        return reservations;
+    }
+
+    private UUID resolveCard(Map<String, UUID> cardAccounts, String cardId) {
+        UUID accountId = cardAccounts.get(cardId);
+        if (accountId == null) {
+            accountId = cardResolverService.getAccountId(UUID.fromString(cardId));
+            cardAccounts.put(cardId, accountId);
+        }
+        return accountId;
+    }
+
+    private void assertCanUse(Account source, UUID sourceId, boolean admin, UUID currentUserId) {
+        if (source == null) {
+            throw new AccountNotFoundException(sourceId);
+        }
+        if (!admin && !source.getUserId().equals(currentUserId)) {
+            throw new TransferAccessDeniedException();
+        }
+    }
+
+    private UUID apply(Account source, Account target, ResolvedItem r, Map<UUID, BigDecimal> ledgerBalances,
+                       AccountEngine.Reservation reservation, List<AccountEngine.Reservation> settled) {
+        if (r.from().equals(r.to())) {
+            throw new SameAccountTransferException();
+        }
+        if (target == null) {
+            throw new AccountNotFoundException(r.to());
+        }
+        if (!source.getCurrency().equals(target.getCurrency())) {
+            throw new CurrencyMismatchException();
+        }
+
+        if (accountEngine.getIfAvailable() != null) {
+            if (reservation == null) {
+                // the stored key seen before the transaction expired in between, so nothing was reserved
+                throw new ConcurrencyFailureException("Transfer was not reserved in the account engine");
+            }
+            settled.add(reservation);
+            return reservation.operationId();
+        }
+
+        UUID transferId = UUID.randomUUID();
+        if (ledgerBalances != null) {
+            BigDecimal amount = Money.normalize(r.item().amount());
+            BigDecimal available = ledgerBalances.getOrDefault(r.from(), BigDecimal.ZERO);
+            if (available.compareTo(amount) < 0) {
+                throw new InsufficientFundsException();
+            }
+            ledgerBalances.put(r.from(), available.subtract(amount));
+            ledgerBalances.merge(r.to(), amount, BigDecimal::add);
+        } else {
+            Money amount = Money.of(r.item().amount(), source.getCurrency());
+            balanceSlotService.debit(source, amount);
+            balanceSlotService.credit(target, amount, transferId);
+        }
+        return transferId;
+    }
+
+    private BatchTransferResult failed(int index, BatchTransferItem item, ApiException ex) {
+        return BatchTransferResult.failed(index, item.idempotencyKey(), ex.getType(), ex.getMessage());
+    }
+}
@@ -0,0 +1,65 @@
+package com.mike.transfer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mike.transfer.config.CardCacheProperties;
+import com.mike.transfer.dto.CardDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Bounded, TTL-capped cache of card lookups from card-service.
+ * Entries are evicted on card lifecycle events, TTL only caps staleness if an event is lost.
+ */
+@Component
+public class CardCache {
+
+    private final boolean enabled;
+    private final Cache<UUID, CardDto> cache;
+
+    public CardCache(CardCacheProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "card-cache");
+    }
+
+    public CardDto get(UUID cardId, Function<UUID, CardDto> loader) {
+        if (!enabled) {
+            return loader.apply(cardId);
+        }
+
+        CardDto cached = cache.getIfPresent(cardId);
+        if (cached != null) {
+            return cached;
+        }
+
+        CardDto card = loader.apply(cardId);
+        if (card != null && card.accountId() != null) {
+            cache.put(cardId, card);
+        }
+        return card;
+    }
+
+    /**
+     * The cached card, or null if it has to be loaded.
+     */
+    public CardDto getIfPresent(UUID cardId) {
+        return enabled ? cache.getIfPresent(cardId) : null;
+    }
+
+    public void evict(UUID cardId) {
+        cache.invalidate(cardId);
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+}
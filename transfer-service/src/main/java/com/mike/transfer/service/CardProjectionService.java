@@ -0,0 +1,108 @@
+package com.mike.transfer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.transfer.domain.CardProjection;
+import com.mike.transfer.dto.CardCreatedEvent;
+import com.mike.transfer.dto.CardUpdatedEvent;
+import com.mike.transfer.kafka.CardEventTypes;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class CardProjectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(CardProjectionService.class);
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO card_projection (card_id, user_id, account_id, status, version, updated_at)
+            VALUES (?, ?, ?, ?, ?, ?)
+            ON CONFLICT (card_id) DO UPDATE SET
+                user_id = EXCLUDED.user_id,
+                account_id = EXCLUDED.account_id,
+                status = EXCLUDED.status,
+                version = EXCLUDED.version,
+                updated_at = EXCLUDED.updated_at
+            WHERE card_projection.version < EXCLUDED.version
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public void apply(CardProjection projection) {
+        int updated = jdbcTemplate.update(UPSERT_SQL, ps -> bind(ps, projection));
+        log.debug(
+                "Card projection {} | cardId={} | version={} | status={}",
+                updated > 0 ? "applied" : "skipped (stale)",
+                projection.getCardId(), projection.getVersion(), projection.getStatus()
+        );
+    }
+
+    @Transactional
+    public void applyAll(Collection<CardProjection> projections) {
+        if (projections.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(UPSERT_SQL, projections, projections.size(), this::bind);
+    }
+
+    public Optional<CardProjection> fromEvent(String type, JsonNode payload) throws JsonProcessingException {
+        if (CardEventTypes.CARD_CREATED.equals(type)) {
+            return fromCreated(objectMapper.treeToValue(payload, CardCreatedEvent.class));
+        }
+        if (CardEventTypes.CARD_UPDATE_TYPES.contains(type)) {
+            return fromUpdated(objectMapper.treeToValue(payload, CardUpdatedEvent.class));
+        }
+        return Optional.empty();
+    }
+
+    public Optional<CardProjection> fromCreated(CardCreatedEvent event) {
+        // events published before card-service started sending card snapshots carry only userId
+        if (event.cardId() == null || event.userId() == null || event.version() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new CardProjection(
+                UUID.fromString(event.cardId()),
+                UUID.fromString(event.userId()),
+                null,
+                event.status() != null ? event.status() : "ACTIVE",
+                event.version()
+        ));
+    }
+
+    public Optional<CardProjection> fromUpdated(CardUpdatedEvent event) {
+        if (event.cardId() == null || event.userId() == null || event.status() == null || event.version() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new CardProjection(
+                UUID.fromString(event.cardId()),
+                UUID.fromString(event.userId()),
+                event.accountId() != null ? UUID.fromString(event.accountId()) : null,
+                event.status(),
+                event.version()
+        ));
+    }
+
+    private void bind(PreparedStatement ps, CardProjection projection) throws SQLException {
+        ps.setObject(1, projection.getCardId());
+        ps.setObject(2, projection.getUserId());
+        ps.setObject(3, projection.getAccountId());
+        ps.setString(4, projection.getStatus());
+        ps.setLong(5, projection.getVersion());
+        ps.setTimestamp(6, Timestamp.from(projection.getUpdatedAt()));
+    }
+}
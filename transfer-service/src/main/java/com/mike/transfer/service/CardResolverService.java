@@ -1,21 +1,44 @@
 package com.mike.transfer.service;
 
 import com.mike.transfer.client.CardClient;
+import com.mike.transfer.config.CardProjectionProperties;
+import com.mike.transfer.config.CardResolutionProperties;
 import com.mike.transfer.domain.Account;
+import com.mike.transfer.domain.CardProjection;
 import com.mike.transfer.dto.CardDto;
 import com.mike.transfer.dto.LinkAccountRequest;
 import com.mike.transfer.exception.CardBlockedException;
 import com.mike.transfer.exception.CardNotFoundException;
+import com.mike.transfer.exception.CardServiceUnavailableException;
 import com.mike.transfer.repository.AccountRepository;
+import com.mike.transfer.repository.CardProjectionRepository;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.retry.annotation.Backoff;
 import org.springframework.retry.annotation.Retryable;
+import org.springframework.security.concurrent.DelegatingSecurityContextCallable;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -25,10 +48,82 @@ public class CardResolverService {
 
     private final AccountRepository accountRepository;
     private final CardClient cardClient;
+    private final CardCache cardCache;
+    private final CardProjectionRepository cardProjectionRepository;
+    private final CardProjectionProperties cardProjectionProperties;
+    private final CardResolutionProperties cardResolutionProperties;
+
+    private final ExecutorService lookupExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("card-lookup-", 0).factory());
+
+    public record AccountPair(UUID from, UUID to) {
+    }
+
+    private record Lookup(UUID cardId, CardDto card) {
+    }
 
     public UUID getAccountId(UUID cardId) {
-        CardDto card = cardClient.getCard(cardId);
+        UUID projected = projectedAccountId(cardId);
+        if (projected != null) {
+            return projected;
+        }
+        return accountIdOf(cardId, cardCache.get(cardId, cardClient::getCard));
+    }
+
+    /**
+     * Resolves the accounts of both cards of a transfer. Projection and cache hits are answered on
+     * the calling thread; the remaining card-service lookups run concurrently, with the caller's
+     * security context and request id, under one {@code transfer.card-resolution.timeout} deadline.
+     * The first failed lookup or the deadline cancels the ones still running.
+     */
+    public AccountPair getAccountIds(UUID fromCardId, UUID toCardId) {
+        UUID from = projectedAccountId(fromCardId);
+        UUID to = projectedAccountId(toCardId);
+
+        Set<UUID> unresolved = new LinkedHashSet<>();
+        if (from == null) unresolved.add(fromCardId);
+        if (to == null) unresolved.add(toCardId);
+
+        Map<UUID, CardDto> cards = new HashMap<>();
+        Set<UUID> remote = new LinkedHashSet<>();
+        for (UUID cardId : unresolved) {
+            CardDto cached = cardCache.getIfPresent(cardId);
+            if (cached != null) {
+                cards.put(cardId, cached);
+            } else {
+                remote.add(cardId);
+            }
+        }
+        cards.putAll(fetchConcurrently(remote));
+
+        return new AccountPair(
+                from != null ? from : accountIdOf(fromCardId, cards.get(fromCardId)),
+                to != null ? to : accountIdOf(toCardId, cards.get(toCardId))
+        );
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lookupExecutor.shutdownNow();
+    }
+
+    /**
+     * The account of an active projected card, null if the card has to be looked up in card-service.
+     */
+    private UUID projectedAccountId(UUID cardId) {
+        if (cardProjectionProperties.isEnabled()) {
+            CardProjection projection = cardProjectionRepository.findById(cardId).orElse(null);
+            if (projection != null && projection.getAccountId() != null) {
+                if (!projection.isActive())
+                    throw new CardBlockedException(cardId);
+
+                return projection.getAccountId();
+            }
+        }
+        return null;
+    }
 
+    private UUID accountIdOf(UUID cardId, CardDto card) {
         if (card == null)
             throw new CardNotFoundException(cardId.toString());
 
@@ -38,6 +133,72 @@ public class CardResolverService {
         return card.accountId();
     }
 
+    private Map<UUID, CardDto> fetchConcurrently(Set<UUID> cardIds) {
+        if (cardIds.isEmpty()) {
+            return Map.of();
+        }
+        long timeoutNanos = cardResolutionProperties.getTimeout().toNanos();
+        long deadline = System.nanoTime() + timeoutNanos;
+
+        CompletionService<Lookup> completion = new ExecutorCompletionService<>(lookupExecutor);
+        List<Future<Lookup>> pending = new ArrayList<>(cardIds.size());
+        Map<UUID, CardDto> cards = new HashMap<>();
+        try {
+            for (UUID cardId : cardIds) {
+                pending.add(completion.submit(withCallerContext(
+                        () -> new Lookup(cardId, cardCache.get(cardId, cardClient::getCard)))));
+            }
+            for (int i = 0; i < pending.size(); i++) {
+                Future<Lookup> done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    log.warn("Card lookups timed out | cards={} | timeoutMs={}", cardIds, timeoutNanos / 1_000_000);
+                    throw new CardServiceUnavailableException("Card lookup did not complete in time");
+                }
+                Lookup lookup = done.get();
+                cards.put(lookup.cardId(), lookup.card());
+            }
+            return cards;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException("Card lookup failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CardServiceUnavailableException("Card lookup interrupted");
+        } finally {
+            // interrupts lookups still running; no-op for the completed ones
+            pending.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Runs the task with the caller's security context (the Feign interceptor authorizes card-service
+     * calls for it) and MDC, which carries the X-Request-Id the tracing interceptor forwards.
+     */
+    private static <T> Callable<T> withCallerContext(Callable<T> task) {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        Callable<T> withMdc = () -> {
+            if (mdc != null) {
+                MDC.setContextMap(mdc);
+            }
+            try {
+                return task.call();
+            } finally {
+                MDC.clear();
+            }
+        };
+        return new DelegatingSecurityContextCallable<>(withMdc, SecurityContextHolder.getContext());
+    }
+
+    public void evictCard(UUID cardId) {
+        cardCache.evict(cardId);
+        log.debug("Card evicted from cache | cardId={}", cardId);
+    }
+
     @Retryable(
             value = Exception.class,
             maxAttempts = 5,
@@ -0,0 +1,283 @@
+package com.mike.transfer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mike.transfer.config.IdempotencyCacheProperties;
+import com.mike.transfer.domain.IdempotentRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Recently used idempotency keys and a Bloom filter over every stored key. A key the filter has
+ * never seen is new, so its lookup is skipped; {@link IdempotencyStore#insert} still decides when
+ * another node stored the same key first (see {@link #markConflict(String)}).
+ *
+ * <p>Other nodes store keys too, so the filter is synced with the store every
+ * {@code bloom-sync-interval} and its negatives are only trusted while the last sync is recent. It is
+ * rebuilt from the store every {@code bloom-rebuild-interval}, which drops expired keys and keeps the
+ * false positive rate near its target. A key stored elsewhere since the last sync can still be missed:
+ * callers that cannot undo what they do for a new key use {@link #findStored}.
+ */
+@Component
+public class IdempotencyKeyCache {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeyCache.class);
+
+    private static final String ALL_KEYS_SQL = "SELECT key FROM idempotent_requests";
+
+    private static final String RECENT_KEYS_SQL = """
+            SELECT key FROM idempotent_requests
+            WHERE created_at >= LOCALTIMESTAMP - make_interval(secs => ?)
+            """;
+
+    public record StoredKey(String requestHash, UUID entityId) {
+
+        static StoredKey of(IdempotentRequest request) {
+            return new StoredKey(request.getRequestHash(), request.getEntityId());
+        }
+    }
+
+    private final boolean enabled;
+    private final IdempotencyCacheProperties properties;
+    private final Cache<String, StoredKey> cache;
+    private final Counter skippedLookups;
+    private final DataSource dataSource;
+    private final TransactionTemplate transactionTemplate;
+
+    private volatile KeyBloomFilter bloomFilter;
+    private volatile KeyBloomFilter rebuilding;
+    private volatile boolean bloomReady;
+    private volatile long syncedAtNanos;
+
+    public IdempotencyKeyCache(IdempotencyCacheProperties properties,
+                               MeterRegistry meterRegistry,
+                               DataSource dataSource,
+                               TransactionTemplate transactionTemplate) {
+        this.enabled = properties.isEnabled();
+        this.properties = properties;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaxSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        this.bloomFilter = newFilter();
+        this.skippedLookups = Counter.builder("transfer.idempotency.lookups.skipped")
+                .description("Idempotency key lookups skipped because the Bloom filter has never seen the key")
+                .register(meterRegistry);
+        this.dataSource = dataSource;
+        this.transactionTemplate = transactionTemplate;
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "idempotency-cache");
+    }
+
+    /**
+     * Loads every stored key into the Bloom filter. Until this finishes the filter answers
+     * "maybe" for every key, so lookups behave exactly as without the cache.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        rebuild();
+    }
+
+    /**
+     * Loads every stored key into a new filter and swaps it in. Keys recorded meanwhile go into both.
+     */
+    @Scheduled(initialDelayString = "${transfer.idempotency-cache.bloom-rebuild-interval:PT24H}",
+            fixedDelayString = "${transfer.idempotency-cache.bloom-rebuild-interval:PT24H}")
+    public synchronized void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        KeyBloomFilter filter = newFilter();
+        rebuilding = filter;
+        long startedAt = System.nanoTime();
+        JdbcTemplate streaming = new JdbcTemplate(dataSource);
+        streaming.setFetchSize(10_000);
+        long[] loaded = {0};
+        try {
+            transactionTemplate.executeWithoutResult(status ->
+                    streaming.query(ALL_KEYS_SQL, rs -> {
+                        filter.put(rs.getString(1));
+                        loaded[0]++;
+                    }));
+            bloomFilter = filter;
+        } finally {
+            rebuilding = null;
+        }
+        // the full load saw every key committed before it started
+        syncedAtNanos = startedAt;
+        bloomReady = true;
+        log.info("Idempotency key filter loaded | keys={}", loaded[0]);
+    }
+
+    /**
+     * Adds keys stored since the previous sync, by any node. The window reaches back
+     * {@code bloom-sync-overlap} further, so keys of transactions that started before the previous
+     * sync but committed after it are not missed.
+     */
+    @Scheduled(fixedDelayString = "${transfer.idempotency-cache.bloom-sync-interval:PT1S}")
+    public synchronized void sync() {
+        if (!enabled || !bloomReady) {
+            return;
+        }
+        long startedAt = System.nanoTime();
+        double windowSeconds = (startedAt - syncedAtNanos + properties.getBloomSyncOverlap().toNanos()) / 1e9;
+        try {
+            KeyBloomFilter filter = bloomFilter;
+            new JdbcTemplate(dataSource).query(RECENT_KEYS_SQL, rs -> {
+                filter.put(rs.getString(1));
+            }, windowSeconds);
+            syncedAtNanos = startedAt;
+        } catch (Exception e) {
+            log.warn("Idempotency key filter sync failed, lookups are not skipped until it succeeds | error={}",
+                    e.getMessage());
+        }
+    }
+
+    public Optional<StoredKey> find(String key, Function<String, Optional<IdempotentRequest>> loader) {
+        return find(key, loader, true);
+    }
+
+    /**
+     * Like {@link #find} but never skips the lookup, for callers that act on a new key in a way a later
+     * conflict on {@link IdempotencyStore#insert} cannot undo.
+     */
+    public Optional<StoredKey> findStored(String key, Function<String, Optional<IdempotentRequest>> loader) {
+        return find(key, loader, false);
+    }
+
+    private Optional<StoredKey> find(String key, Function<String, Optional<IdempotentRequest>> loader,
+                                     boolean useFilter) {
+        if (!enabled) {
+            return loader.apply(key).map(StoredKey::of);
+        }
+
+        StoredKey cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        if (useFilter && filterTrusted() && !bloomFilter.mightContain(key)) {
+            skippedLookups.increment();
+            return Optional.empty();
+        }
+
+        Optional<StoredKey> stored = loader.apply(key).map(StoredKey::of);
+        stored.ifPresent(value -> cache.put(key, value));
+        return stored;
+    }
+
+    public Map<String, StoredKey> findAll(Set<String> keys,
+                                          Function<Set<String>, List<IdempotentRequest>> loader) {
+        return findAll(keys, loader, true);
+    }
+
+    /**
+     * Like {@link #findAll} but never skips the lookup, see {@link #findStored}.
+     */
+    public Map<String, StoredKey> findAllStored(Set<String> keys,
+                                                Function<Set<String>, List<IdempotentRequest>> loader) {
+        return findAll(keys, loader, false);
+    }
+
+    private Map<String, StoredKey> findAll(Set<String> keys, Function<Set<String>, List<IdempotentRequest>> loader,
+                                           boolean useFilter) {
+        boolean filtered = enabled && useFilter && filterTrusted();
+        Map<String, StoredKey> found = new HashMap<>();
+        Set<String> toLoad = new HashSet<>();
+        for (String key : keys) {
+            StoredKey cached = enabled ? cache.getIfPresent(key) : null;
+            if (cached != null) {
+                found.put(key, cached);
+            } else if (!filtered || bloomFilter.mightContain(key)) {
+                toLoad.add(key);
+            } else {
+                skippedLookups.increment();
+            }
+        }
+        if (!toLoad.isEmpty()) {
+            for (IdempotentRequest request : loader.apply(toLoad)) {
+                StoredKey stored = StoredKey.of(request);
+                found.put(request.getKey(), stored);
+                if (enabled) {
+                    cache.put(request.getKey(), stored);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Records a key stored by the current transaction. The filter is updated right away (a false
+     * positive only costs a lookup), the cache only after commit so a rolled back result is never replayed.
+     */
+    public void registerNew(Collection<IdempotentRequest> requests) {
+        if (!enabled || requests.isEmpty()) {
+            return;
+        }
+        requests.forEach(request -> put(request.getKey()));
+        Runnable cacheAll = () -> requests.forEach(request -> cache.put(request.getKey(), StoredKey.of(request)));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cacheAll.run();
+                }
+            });
+        } else {
+            cacheAll.run();
+        }
+    }
+
+    /**
+     * Called when a key may be stored although the filter has not seen it: storing it found it
+     * already there, or a duplicate held it on another node. The next lookup must hit the store.
+     */
+    public void markConflict(String key) {
+        put(key);
+    }
+
+    /**
+     * Drops cached results. The filter keeps its bits: stale positives only cost a lookup.
+     */
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    private void put(String key) {
+        bloomFilter.put(key);
+        KeyBloomFilter next = rebuilding;
+        if (next != null) {
+            next.put(key);
+        }
+    }
+
+    private boolean filterTrusted() {
+        long maxAge = properties.getBloomSyncInterval().multipliedBy(3).toNanos();
+        return bloomReady && System.nanoTime() - syncedAtNanos <= maxAge;
+    }
+
+    private KeyBloomFilter newFilter() {
+        return new KeyBloomFilter(properties.getBloomExpectedKeys(), properties.getBloomFalsePositiveRate());
+    }
+}
@@ -0,0 +1,69 @@
+package com.mike.transfer.service;
+
+import com.mike.idempotency.PartitionedIdempotencyStore;
+import com.mike.transfer.config.IdempotencyCoalescingProperties;
+import com.mike.transfer.config.IdempotencyStoreProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Transfer-service's partitioned {@code idempotent_requests} store, configured under
+ * {@code transfer.idempotency-store} and reporting {@code transfer.idempotency.store.*} gauges.
+ * Adds the per-key advisory locks that coalesce duplicate requests across nodes.
+ */
+@Component
+public class IdempotencyStore extends PartitionedIdempotencyStore {
+
+    private static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(hashtextextended(?, 0))";
+
+    private static final String LOCK_SQL = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(hashtextextended(?, 0))) l";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyCoalescingProperties coalescingProperties;
+
+    public IdempotencyStore(JdbcTemplate jdbcTemplate,
+                            IdempotencyStoreProperties properties,
+                            IdempotencyCoalescingProperties coalescingProperties,
+                            MeterRegistry meterRegistry) {
+        super(jdbcTemplate, properties, "transfer", meterRegistry);
+        this.jdbcTemplate = jdbcTemplate;
+        this.coalescingProperties = coalescingProperties;
+    }
+
+    /**
+     * Takes the key's advisory lock for the rest of the transaction, the same lock
+     * {@code insert_idempotency_keys} takes, so a duplicate on another node waits until the first
+     * request commits or rolls back. Returns true if the lock was contended, in which case the key
+     * has probably just been stored and must be looked up.
+     */
+    public boolean lock(String key) {
+        if (!coalescingProperties.isCrossNodeLock()) {
+            return false;
+        }
+        if (Boolean.TRUE.equals(jdbcTemplate.queryForObject(TRY_LOCK_SQL, Boolean.class, key))) {
+            return false;
+        }
+        jdbcTemplate.queryForObject(LOCK_SQL, Integer.class, key);
+        return true;
+    }
+
+    /**
+     * {@link #lock(String)} for several keys, taken in sorted order like {@link #insert}. Callers lock
+     * their keys before any account row, as single requests do, so a batch and a request sharing a key
+     * cannot wait on each other's locks. Returns the contended keys.
+     */
+    public Set<String> lockAll(Collection<String> keys) {
+        Set<String> contended = new LinkedHashSet<>();
+        keys.stream()
+                .distinct()
+                .sorted()
+                .filter(this::lock)
+                .forEach(contended::add);
+        return contended;
+    }
+}
@@ -0,0 +1,82 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.config.IdempotencyCoalescingProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * In-process single-flight registry for idempotent operations. While a request with a given
+ * Idempotency-Key runs, duplicates with the same fingerprint wait for it and share its result.
+ * Duplicates with a different fingerprint, or whose leader failed, run themselves once the leader
+ * is done, so conflicts and retries are still decided by the idempotency store.
+ */
+@Component
+public class InFlightRequests {
+
+    private record Flight(Object fingerprint, CompletableFuture<Object> result) {
+    }
+
+    private final IdempotencyCoalescingProperties properties;
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public InFlightRequests(IdempotencyCoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.coalesced = Counter.builder("transfer.idempotency.coalesced")
+                .description("Duplicate requests answered with the result of an in-flight request")
+                .register(meterRegistry);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String key, Object fingerprint, Supplier<T> action) {
+        if (key == null || !properties.isEnabled()) {
+            return action.get();
+        }
+
+        while (true) {
+            Flight own = new Flight(fingerprint, new CompletableFuture<>());
+            Flight leader = flights.putIfAbsent(key, own);
+            if (leader == null) {
+                return lead(key, own, action);
+            }
+
+            try {
+                Object result = leader.result().get(properties.getWaitTimeout().toMillis(), TimeUnit.MILLISECONDS);
+                if (Objects.equals(leader.fingerprint(), fingerprint)) {
+                    coalesced.increment();
+                    return (T) result;
+                }
+                return action.get();
+            } catch (ExecutionException ex) {
+                // the leader failed and stored nothing, so this request gets its own attempt
+            } catch (TimeoutException ex) {
+                return action.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    private <T> T lead(String key, Flight flight, Supplier<T> action) {
+        try {
+            T result = action.get();
+            flight.result().complete(result);
+            return result;
+        } catch (RuntimeException | Error ex) {
+            flight.result().completeExceptionally(ex);
+            throw ex;
+        } finally {
+            flights.remove(key, flight);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.config.LedgerProperties;
+import com.mike.transfer.domain.Money;
+import com.mike.transfer.exception.InsufficientFundsException;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Double-entry ledger. Every money movement writes one debit row (negative amount) and one credit
+ * row (positive amount) to {@code ledger_entries}; top-ups and withdrawals use
+ * {@link #EXTERNAL_ACCOUNT} as the counterparty. The transfer path only inserts, but the table is not
+ * append-only: a scheduled job rolls entries into {@code ledger_checkpoints} and updates each of them
+ * once to mark it checkpointed, which leaves one dead tuple per entry for vacuum. A balance is the
+ * checkpoint plus the entries not yet rolled into it.
+ */
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerService.class);
+
+    /**
+     * Contra account for money entering or leaving the platform.
+     */
+    public static final UUID EXTERNAL_ACCOUNT = new UUID(0, 0);
+
+    public record Movement(UUID operationId, String operationType, UUID debitAccount, UUID creditAccount,
+                           BigDecimal amount) {
+    }
+
+    private static final String INSERT_SQL = """
+            INSERT INTO ledger_entries (operation_id, operation_type, account_id, amount)
+            VALUES (?, ?, ?, ?)
+            """;
+
+    private static final String BALANCE_SQL = """
+            SELECT COALESCE((SELECT balance FROM ledger_checkpoints WHERE account_id = :id), 0)
+                 + COALESCE((SELECT SUM(e.amount) FROM ledger_entries e
+                             WHERE e.account_id = :id AND NOT e.checkpointed), 0)
+            """;
+
+    private static final String BALANCES_SQL = """
+            SELECT a.id,
+                   COALESCE(c.balance, 0)
+                 + COALESCE((SELECT SUM(e.amount) FROM ledger_entries e
+                             WHERE e.account_id = a.id AND NOT e.checkpointed), 0) AS balance
+            FROM accounts a
+            LEFT JOIN ledger_checkpoints c ON c.account_id = a.id
+            WHERE a.id IN (:ids)
+            """;
+
+    /**
+     * Marks the entries it rolls up in the same statement, so an entry is either in the checkpoint or
+     * still counted on its own. Entries of transactions that commit after the statement started are not
+     * visible to it and are left for the next run, whatever their id.
+     */
+    private static final String CHECKPOINT_SQL = """
+            WITH rolled AS (
+                UPDATE ledger_entries
+                SET checkpointed = true
+                WHERE NOT checkpointed
+                  AND created_at < now() - make_interval(secs => ?)
+                RETURNING account_id, amount
+            )
+            INSERT INTO ledger_checkpoints (account_id, balance, updated_at)
+            SELECT account_id, SUM(amount), now()
+            FROM rolled
+            GROUP BY account_id
+            ON CONFLICT (account_id) DO UPDATE
+            SET balance = ledger_checkpoints.balance + EXCLUDED.balance,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    private static final String CHECKPOINT_LOCK_SQL = "SELECT pg_try_advisory_xact_lock(?)";
+
+    private static final long CHECKPOINT_LOCK_KEY = 0x4c45444745524350L;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final LedgerProperties properties;
+    private final TransactionTemplate transactionTemplate;
+
+    public boolean isBalanceSource() {
+        return properties.getBalanceSource() == LedgerProperties.BalanceSource.LEDGER;
+    }
+
+    public void record(UUID operationId, String operationType, UUID debitAccount, UUID creditAccount,
+                       BigDecimal amount) {
+        recordAll(List.of(new Movement(operationId, operationType, debitAccount, creditAccount, amount)));
+    }
+
+    public void recordAll(List<Movement> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        List<Object[]> rows = new ArrayList<>(movements.size() * 2);
+        for (Movement movement : movements) {
+            BigDecimal amount = Money.normalize(movement.amount());
+            rows.add(new Object[]{movement.operationId(), movement.operationType(), movement.debitAccount(), amount.negate()});
+            rows.add(new Object[]{movement.operationId(), movement.operationType(), movement.creditAccount(), amount});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    public BigDecimal balanceOf(UUID accountId) {
+        BigDecimal balance = namedParameterJdbcTemplate.queryForObject(
+                BALANCE_SQL, new MapSqlParameterSource("id", accountId), BigDecimal.class);
+        return Money.normalize(balance != null ? balance : BigDecimal.ZERO);
+    }
+
+    public Map<UUID, BigDecimal> balancesOf(Collection<UUID> accountIds) {
+        Map<UUID, BigDecimal> balances = new HashMap<>();
+        if (accountIds.isEmpty()) {
+            return balances;
+        }
+        namedParameterJdbcTemplate.query(BALANCES_SQL, new MapSqlParameterSource("ids", accountIds), rs -> {
+            balances.put(rs.getObject("id", UUID.class), Money.normalize(rs.getBigDecimal("balance")));
+        });
+        return balances;
+    }
+
+    /**
+     * Fails unless the ledger balance covers {@code amount}. The caller must hold the account row lock,
+     * otherwise two debits can both pass the check.
+     */
+    public void assertCovers(UUID accountId, BigDecimal amount) {
+        if (balanceOf(accountId).compareTo(Money.normalize(amount)) < 0) {
+            throw new InsufficientFundsException();
+        }
+    }
+
+    /**
+     * Rolls committed entries into the checkpoints. Guarded by an advisory lock so that two nodes do not
+     * mark the same entries concurrently.
+     */
+    @Scheduled(fixedDelayString = "${transfer.ledger.checkpoint-interval:PT5M}")
+    public void checkpoint() {
+        double lagSeconds = properties.getCheckpointLag().toMillis() / 1000.0;
+        Integer accounts = transactionTemplate.execute(status -> {
+            Boolean locked = jdbcTemplate.queryForObject(CHECKPOINT_LOCK_SQL, Boolean.class, CHECKPOINT_LOCK_KEY);
+            return Boolean.TRUE.equals(locked) ? jdbcTemplate.update(CHECKPOINT_SQL, lagSeconds) : null;
+        });
+        if (accounts != null) {
+            log.debug("Ledger checkpoint written | accounts={}", accounts);
+        }
+    }
+}
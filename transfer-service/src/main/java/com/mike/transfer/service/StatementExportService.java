@@ -0,0 +1,161 @@
+package com.mike.transfer.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.transfer.config.StatementProperties;
+import com.mike.transfer.dto.StatementFormat;
+import com.mike.transfer.exception.InvalidHistoryQueryException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * Streams an account statement from a server-side cursor straight into the response. The cursor
+ * only exists inside a transaction, so each export runs in its own read-only one; rows are written
+ * as they arrive and never collected.
+ */
+@Service
+public class StatementExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementExportService.class);
+
+    private static final String STATEMENT_SQL = """
+            SELECT s.id, s.direction, s.counterparty, s.amount, s.transaction_at
+            FROM (
+                SELECT t.id, 'DEBIT' AS direction, t.to_account AS counterparty, t.amount, t.transaction_at
+                FROM transfers t
+                WHERE t.from_account = ? AND t.transaction_at BETWEEN ? AND ?
+                UNION ALL
+                SELECT t.id, 'CREDIT', t.from_account, t.amount, t.transaction_at
+                FROM transfers t
+                WHERE t.to_account = ? AND t.transaction_at BETWEEN ? AND ?
+            ) s
+            ORDER BY s.transaction_at, s.id
+            """;
+
+    private static final String CSV_HEADER = "id,direction,counterparty_account,amount,transaction_at\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    public StatementExportService(DataSource dataSource,
+                                  PlatformTransactionManager transactionManager,
+                                  ObjectMapper objectMapper,
+                                  StatementProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(properties.getFetchSize());
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Checked before the response starts streaming, so a bad period is still answered with a 400.
+     */
+    public void validatePeriod(Instant from, Instant to) {
+        if (from.isAfter(to)) {
+            throw new InvalidHistoryQueryException("from must not be after to");
+        }
+    }
+
+    public void export(UUID accountId, Instant from, Instant to, StatementFormat format, OutputStream out) {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        Object[] args = {
+                accountId, from.atOffset(ZoneOffset.UTC), to.atOffset(ZoneOffset.UTC),
+                accountId, from.atOffset(ZoneOffset.UTC), to.atOffset(ZoneOffset.UTC)
+        };
+
+        long[] rows = {0};
+        try {
+            RowWriter rowWriter = format == StatementFormat.CSV ? csv(writer) : ndjson(writer);
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(STATEMENT_SQL, rs -> {
+                try {
+                    rowWriter.write(rs);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            }, args));
+            rowWriter.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        log.info("Statement exported | accountId={} | format={} | rows={}", accountId, format, rows[0]);
+    }
+
+    private RowWriter csv(Writer writer) throws IOException {
+        writer.write(CSV_HEADER);
+        return new RowWriter() {
+            @Override
+            public void write(ResultSet rs) throws SQLException, IOException {
+                writer.write(rs.getString("id"));
+                writer.write(',');
+                writer.write(rs.getString("direction"));
+                writer.write(',');
+                writer.write(rs.getString("counterparty"));
+                writer.write(',');
+                writer.write(rs.getBigDecimal("amount").toPlainString());
+                writer.write(',');
+                writer.write(transactionAt(rs).toString());
+                writer.write('\n');
+            }
+
+            @Override
+            public void flush() throws IOException {
+                writer.flush();
+            }
+        };
+    }
+
+    private RowWriter ndjson(Writer writer) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer);
+        generator.setRootValueSeparator(null);
+        return new RowWriter() {
+            @Override
+            public void write(ResultSet rs) throws SQLException, IOException {
+                generator.writeStartObject();
+                generator.writeStringField("id", rs.getString("id"));
+                generator.writeStringField("direction", rs.getString("direction"));
+                generator.writeStringField("counterpartyAccount", rs.getString("counterparty"));
+                generator.writeNumberField("amount", rs.getBigDecimal("amount"));
+                generator.writeStringField("transactionAt", transactionAt(rs).toString());
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            }
+
+            @Override
+            public void flush() throws IOException {
+                generator.flush();
+            }
+        };
+    }
+
+    private static Instant transactionAt(ResultSet rs) throws SQLException {
+        return rs.getTimestamp("transaction_at").toInstant();
+    }
+
+    private interface RowWriter {
+        void write(ResultSet rs) throws SQLException, IOException;
+
+        void flush() throws IOException;
+    }
+}
@@ -0,0 +1,141 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.config.TransferHistoryProperties;
+import com.mike.transfer.dto.TransferDirection;
+import com.mike.transfer.dto.TransferHistoryItem;
+import com.mike.transfer.dto.TransferHistoryPage;
+import com.mike.transfer.exception.InvalidHistoryQueryException;
+import com.mike.transfer.exception.InvalidLimitException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Keyset pagination over an account's transfers, newest first. A page is an index range scan on
+ * {@code (from_account | to_account, transaction_at, id)} that starts right after the cursor row,
+ * so every page costs the same however deep it is. The cursor carries the raw
+ * {@code transaction_at} of the last row to avoid any time zone round trip.
+ */
+@Service
+@RequiredArgsConstructor
+public class TransferHistoryService {
+
+    private static final String OUT_SIDE = """
+            SELECT t.id, 'OUT' AS direction, t.to_account AS counterparty, t.amount, t.transaction_at
+            FROM transfers t
+            WHERE t.from_account = :accountId
+            """;
+
+    private static final String IN_SIDE = """
+            SELECT t.id, 'IN' AS direction, t.from_account AS counterparty, t.amount, t.transaction_at
+            FROM transfers t
+            WHERE t.to_account = :accountId
+            """;
+
+    private static final String ORDER = " ORDER BY transaction_at DESC, id DESC LIMIT :fetch";
+
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+    private final TransferHistoryProperties properties;
+
+    @Transactional(readOnly = true)
+    public TransferHistoryPage history(UUID accountId,
+                                       TransferDirection direction,
+                                       BigDecimal minAmount,
+                                       BigDecimal maxAmount,
+                                       Integer size,
+                                       String cursor) {
+        int pageSize = size != null ? size : properties.getDefaultPageSize();
+        if (pageSize < 1 || pageSize > properties.getMaxPageSize()) {
+            throw new InvalidLimitException(properties.getMaxPageSize());
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new InvalidHistoryQueryException("minAmount must not exceed maxAmount");
+        }
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("accountId", accountId)
+                .addValue("fetch", pageSize + 1);
+
+        StringBuilder filters = new StringBuilder();
+        if (cursor != null) {
+            Cursor after = Cursor.decode(cursor);
+            filters.append(" AND (t.transaction_at, t.id) < (:cursorAt, :cursorId)");
+            params.addValue("cursorAt", after.transactionAt()).addValue("cursorId", after.id());
+        }
+        if (minAmount != null) {
+            filters.append(" AND t.amount >= :minAmount");
+            params.addValue("minAmount", minAmount);
+        }
+        if (maxAmount != null) {
+            filters.append(" AND t.amount <= :maxAmount");
+            params.addValue("maxAmount", maxAmount);
+        }
+
+        String sql = switch (direction) {
+            case OUT -> OUT_SIDE + filters + ORDER;
+            case IN -> IN_SIDE + filters + ORDER;
+            case BOTH -> "SELECT * FROM ((" + OUT_SIDE + filters + ORDER + ") UNION ALL ("
+                    + IN_SIDE + filters + ORDER + ")) s" + ORDER;
+        };
+
+        List<Row> rows = namedParameterJdbcTemplate.query(sql, params, (rs, i) -> Row.from(rs));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<Row> page = hasMore ? rows.subList(0, pageSize) : rows;
+        List<TransferHistoryItem> items = new ArrayList<>(page.size());
+        for (Row row : page) {
+            items.add(row.item());
+        }
+        String nextCursor = hasMore ? page.get(page.size() - 1).cursor().encode() : null;
+        return new TransferHistoryPage(items, nextCursor);
+    }
+
+    private record Row(TransferHistoryItem item, Cursor cursor) {
+
+        static Row from(ResultSet rs) throws SQLException {
+            UUID id = rs.getObject("id", UUID.class);
+            LocalDateTime transactionAt = rs.getObject("transaction_at", LocalDateTime.class);
+            TransferHistoryItem item = new TransferHistoryItem(
+                    id,
+                    TransferDirection.valueOf(rs.getString("direction")),
+                    rs.getObject("counterparty", UUID.class),
+                    rs.getBigDecimal("amount"),
+                    rs.getTimestamp("transaction_at").toInstant()
+            );
+            return new Row(item, new Cursor(transactionAt, id));
+        }
+    }
+
+    private record Cursor(LocalDateTime transactionAt, UUID id) {
+
+        String encode() {
+            String raw = transactionAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String cursor) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(
+                        LocalDateTime.parse(raw.substring(0, separator)),
+                        UUID.fromString(raw.substring(separator + 1))
+                );
+            } catch (RuntimeException e) {
+                throw new InvalidHistoryQueryException("Malformed cursor");
+            }
+        }
+    }
+}
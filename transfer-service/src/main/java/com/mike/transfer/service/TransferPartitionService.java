@@ -0,0 +1,117 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.config.TransferPartitionProperties;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * {@code transfers} is range-partitioned by month on {@code transaction_at}, so the analytics
+ * queries only touch the months in their range. Partitions are created ahead of time; months past
+ * {@code transfer.partitions.archive-after-months} are detached into the archive schema so the
+ * hot months stay small. The turnover and top transfer rollups keep covering archived months.
+ */
+@Component
+@RequiredArgsConstructor
+public class TransferPartitionService {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferPartitionService.class);
+
+    private static final String TABLE = "transfers";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private static final String PARTITIONS_SQL = """
+            SELECT c.relname
+            FROM pg_inherits i
+            JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'transfers'::regclass
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferPartitionProperties properties;
+
+    /**
+     * Creates partitions for the coming months and archives the ones past the configured age.
+     */
+    @Scheduled(fixedDelayString = "${transfer.partitions.maintenance-interval:PT1H}")
+    public void maintain() {
+        LocalDate today = jdbcTemplate.queryForObject("SELECT current_date", LocalDate.class);
+        YearMonth current = YearMonth.from(today);
+
+        createPartitions(current, current.plusMonths(properties.getMonthsAhead()));
+
+        if (properties.getArchiveAfterMonths() <= 0) {
+            return;
+        }
+        YearMonth oldestKept = current.minusMonths(properties.getArchiveAfterMonths());
+        for (String partition : jdbcTemplate.queryForList(PARTITIONS_SQL, String.class)) {
+            YearMonth month = partitionMonth(partition);
+            if (month != null && month.isBefore(oldestKept)) {
+                try {
+                    archive(month);
+                } catch (Exception e) {
+                    log.warn("Transfer partition archive failed | partition={}", partition, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates any missing partitions for the months {@code from} through {@code to}, e.g. before
+     * loading historical transfers.
+     */
+    public void createPartitions(YearMonth from, YearMonth to) {
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            createPartition(month);
+        }
+    }
+
+    /**
+     * Detaches the month's partition from {@code transfers} and moves it to the archive schema,
+     * where it stays queryable as {@code <schema>.transfers_yyyyMM}.
+     */
+    public void archive(YearMonth month) {
+        String name = partitionName(month);
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute(String.format("ALTER TABLE %s DETACH PARTITION %s", TABLE, name));
+            jdbcTemplate.execute(String.format("ALTER TABLE %s SET SCHEMA %s", name, properties.getArchiveSchema()));
+        });
+        log.info("Transfer partition archived | partition={} | schema={}", name, properties.getArchiveSchema());
+    }
+
+    private void createPartition(YearMonth month) {
+        String name = partitionName(month);
+        try {
+            jdbcTemplate.execute(String.format(
+                    "CREATE TABLE IF NOT EXISTS %s PARTITION OF %s FOR VALUES FROM ('%s') TO ('%s')",
+                    name, TABLE, month.atDay(1), month.plusMonths(1).atDay(1)));
+        } catch (Exception e) {
+            log.warn("Transfer partition creation failed | partition={}", name, e);
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return TABLE + "_" + PARTITION_SUFFIX.format(month);
+    }
+
+    private static YearMonth partitionMonth(String partition) {
+        String prefix = TABLE + "_";
+        if (!partition.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(prefix.length()), PARTITION_SUFFIX);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
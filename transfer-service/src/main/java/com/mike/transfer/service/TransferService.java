@@ -3,11 +3,15 @@ package com.mike.transfer.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.idempotency.RequestFingerprint;
+import com.mike.transfer.columnar.ColumnarTransferStore;
 import com.mike.transfer.domain.Account;
 import com.mike.transfer.domain.Currency;
 import com.mike.transfer.domain.IdempotentRequest;
+import com.mike.transfer.domain.Money;
 import com.mike.transfer.domain.Transfer;
 import com.mike.transfer.dto.TransferRequest;
+import com.mike.transfer.engine.AccountEngine;
 import com.mike.transfer.exception.*;
 import com.mike.transfer.repository.AccountRepository;
 import com.mike.transfer.repository.IdempotentRepository;
@@ -17,17 +21,23 @@ import lombok.RequiredArgsConstructor;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.ConcurrencyFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.function.Function;
-import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -45,7 +55,15 @@ public class TransferService {
     private final TransferRepository transferRepository;
     private final IdempotentRepository idempotentRepository;
     private final CardResolverService cardResolverService;
+    private final AccountLockManager accountLockManager;
+    private final BalanceSlotService balanceSlotService;
+    private final ObjectProvider<AccountEngine> accountEngine;
+    private final ObjectProvider<ColumnarTransferStore> columnarTransferStore;
+    private final LedgerService ledgerService;
+    private final IdempotencyKeyCache idempotencyKeyCache;
+    private final IdempotencyStore idempotencyStore;
     private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
 
     @Transactional
     public void createDefaultAccounts(UUID userId) {
@@ -73,7 +91,16 @@ public class TransferService {
         }
     }
 
-    @Transactional
+    /**
+     * Runs in its own transaction: with the account engine enabled the change is reserved before the
+     * transaction and applied by the engine only after it committed, so a rollback never leaves a
+     * change in the engine and the engine is never waited on while the transaction holds its locks.
+     */
+    @Retryable(
+            retryFor = DataIntegrityViolationException.class,
+            maxAttempts = 2,
+            backoff = @Backoff(delay = 50)
+    )
     public UUID transfer(TransferRequest request, String idempotencyKey) {
 
         log.info(
@@ -81,43 +108,49 @@ public class TransferService {
                 request.fromCardId(), request.toCardId(), request.amount()
         );
 
-        UUID fromAccountId = cardResolverService.getAccountId(UUID.fromString(request.fromCardId()));
-        UUID toAccountId = cardResolverService.getAccountId(UUID.fromString(request.toCardId()));
-
-        return handleIdempotency(
-                idempotencyKey,
-                request,
-                "TRANSFER",
-                () -> executeTransfer(fromAccountId, toAccountId, request, idempotencyKey),
-                transferId -> transferId
+        CardResolverService.AccountPair accounts = cardResolverService.getAccountIds(
+                UUID.fromString(request.fromCardId()),
+                UUID.fromString(request.toCardId())
         );
+        UUID fromAccountId = accounts.from();
+        UUID toAccountId = accounts.to();
+        UUID transferId = UUID.randomUUID();
+
+        try (AccountEngine.Reservation reservation = reserve(idempotencyKey,
+                engine -> engine.reserveTransfer(transferId, fromAccountId, toAccountId, request.amount()))) {
+            return transactionTemplate.execute(status -> handleIdempotency(
+                    idempotencyKey,
+                    request,
+                    "TRANSFER",
+                    hash -> executeTransfer(transferId, fromAccountId, toAccountId, request, idempotencyKey, hash,
+                            reservation),
+                    storedTransferId -> storedTransferId
+            ));
+        }
     }
 
-    private UUID executeTransfer(UUID from, UUID to, TransferRequest request, String idempotencyKey) {
+    private UUID executeTransfer(UUID transferId, UUID from, UUID to, TransferRequest request, String idempotencyKey,
+                                 String hash, AccountEngine.Reservation reservation) {
         validateAmount(request.amount());
 
         if (from.equals(to)) {
             throw new SameAccountTransferException();
         }
 
-        Account source = accountRepository.findById(from)
-                .orElseThrow(() -> new AccountNotFoundException(from));
-        Account target = accountRepository.findById(to)
-                .orElseThrow(() -> new AccountNotFoundException(to));
-
-        if (!source.getCurrency().equals(target.getCurrency())) {
-            throw new CurrencyMismatchException();
+        if (accountEngine.getIfAvailable() != null) {
+            settleAfterCommit(reservation);
+        } else if (ledgerService.isBalanceSource()) {
+            checkLedgerTransfer(from, to, request.amount());
+        } else {
+            moveFunds(transferId, from, to, request.amount());
         }
+        ledgerService.record(transferId, "TRANSFER", from, to, request.amount());
 
-        source.debit(request.amount());
-        target.credit(request.amount());
-
-        UUID transferId = UUID.randomUUID();
-        transferRepository.save(new Transfer(transferId, from, to, request.amount()));
+        Transfer transfer = transferRepository.save(new Transfer(transferId, from, to, request.amount()));
+        columnarTransferStore.ifAvailable(store -> store.appendOnCommit(List.of(transfer)));
 
         if (idempotencyKey != null) {
-            String hash = computeHash(request, "TRANSFER");
-            idempotentRepository.save(new IdempotentRequest(idempotencyKey, transferId, hash));
+            storeIdempotencyKey(idempotencyKey, transferId, hash);
         }
 
         log.info(
@@ -128,62 +161,196 @@ public class TransferService {
         return transferId;
     }
 
-    @Transactional
+    private void moveFunds(UUID transferId, UUID from, UUID to, BigDecimal amount) {
+        Account source;
+        Account target;
+        if (balanceSlotService.isSlotted(to)) {
+            // credits to a slotted account never touch its row, so only the source has to be held
+            source = accountLockManager.lock(from);
+            target = accountRepository.findById(to)
+                    .orElseThrow(() -> new AccountNotFoundException(to));
+        } else {
+            Map<UUID, Account> accounts = accountLockManager.lock(from, to);
+            source = accounts.get(from);
+            target = accounts.get(to);
+        }
+        if (source == null) {
+            throw new AccountNotFoundException(from);
+        }
+        if (target == null) {
+            throw new AccountNotFoundException(to);
+        }
+
+        if (!source.getCurrency().equals(target.getCurrency())) {
+            throw new CurrencyMismatchException();
+        }
+
+        Money money = Money.of(amount, source.getCurrency());
+        balanceSlotService.debit(source, money);
+        balanceSlotService.credit(target, money, transferId);
+        accountLockManager.flush(from, to);
+    }
+
+    /**
+     * Ledger-sourced transfers never update account rows: the source row is locked only to serialize
+     * debits of the same account, the credit is just the ledger insert.
+     */
+    private void checkLedgerTransfer(UUID from, UUID to, BigDecimal amount) {
+        Account source = accountRepository.findByIdForUpdate(from)
+                .orElseThrow(() -> new AccountNotFoundException(from));
+        Account target = accountRepository.findById(to)
+                .orElseThrow(() -> new AccountNotFoundException(to));
+        if (!source.getCurrency().equals(target.getCurrency())) {
+            throw new CurrencyMismatchException();
+        }
+        ledgerService.assertCovers(from, amount);
+    }
+
+    @Retryable(
+            retryFor = DataIntegrityViolationException.class,
+            maxAttempts = 2,
+            backoff = @Backoff(delay = 50)
+    )
     public BigDecimal topUp(UUID accountId, BigDecimal amount, String idempotencyKey) {
         validateAmount(amount);
         var request = new TopUpRequest(accountId, amount);
-
-        return handleIdempotency(
-                idempotencyKey,
-                request,
-                "TOP_UP",
-                () -> executeTopUp(accountId, amount, idempotencyKey, request),
-                this::readBalanceByAccountId
-        );
+        UUID operationId = UUID.randomUUID();
+
+        try (AccountEngine.Reservation reservation = reserve(idempotencyKey,
+                engine -> engine.reserveTopUp(operationId, accountId, amount))) {
+            BigDecimal balance = transactionTemplate.execute(status -> handleIdempotency(
+                    idempotencyKey,
+                    request,
+                    "TOP_UP",
+                    hash -> executeTopUp(operationId, accountId, amount, idempotencyKey, hash, reservation),
+                    this::readBalanceInTransaction
+            ));
+            return balance != null ? balance : settledBalance(reservation, accountId);
+        }
     }
 
-    private BigDecimal executeTopUp(UUID accountId, BigDecimal amount, String idempotencyKey, TopUpRequest request) {
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException(accountId));
-
-        account.credit(amount);
+    private BigDecimal executeTopUp(UUID operationId, UUID accountId, BigDecimal amount, String idempotencyKey,
+                                    String hash, AccountEngine.Reservation reservation) {
+        BigDecimal balance;
+        if (accountEngine.getIfAvailable() != null) {
+            settleAfterCommit(reservation);
+            ledgerService.record(operationId, "TOP_UP", LedgerService.EXTERNAL_ACCOUNT, accountId, amount);
+            balance = null;
+        } else if (ledgerService.isBalanceSource()) {
+            if (!accountRepository.existsById(accountId)) {
+                throw new AccountNotFoundException(accountId);
+            }
+            ledgerService.record(operationId, "TOP_UP", LedgerService.EXTERNAL_ACCOUNT, accountId, amount);
+            balance = ledgerService.balanceOf(accountId);
+        } else {
+            Account account = balanceSlotService.isSlotted(accountId)
+                    ? accountRepository.findById(accountId).orElseThrow(() -> new AccountNotFoundException(accountId))
+                    : accountLockManager.lock(accountId);
+
+            balanceSlotService.credit(account, Money.of(amount, account.getCurrency()), operationId);
+            accountLockManager.flush(accountId);
+            ledgerService.record(operationId, "TOP_UP", LedgerService.EXTERNAL_ACCOUNT, accountId, amount);
+            balance = balanceSlotService.balanceOf(account).toBigDecimal();
+        }
 
         if (idempotencyKey != null) {
-            String hash = computeHash(request, "TOP_UP");
-            idempotentRepository.save(new IdempotentRequest(idempotencyKey, accountId, hash));
+            storeIdempotencyKey(idempotencyKey, accountId, hash);
         }
 
         log.info("TopUp completed | accountId={} | amount={}", accountId, amount);
-        return account.getBalance();
+        return balance;
     }
 
-    @Transactional
+    @Retryable(
+            retryFor = DataIntegrityViolationException.class,
+            maxAttempts = 2,
+            backoff = @Backoff(delay = 50)
+    )
     public BigDecimal withdraw(UUID accountId, BigDecimal amount, String idempotencyKey) {
         validateAmount(amount);
         var request = new WithdrawRequest(accountId, amount);
-
-        return handleIdempotency(
-                idempotencyKey,
-                request,
-                "WITHDRAW",
-                () -> executeWithdraw(accountId, amount, idempotencyKey, request),
-                this::readBalanceByAccountId
-        );
+        UUID operationId = UUID.randomUUID();
+
+        try (AccountEngine.Reservation reservation = reserve(idempotencyKey,
+                engine -> engine.reserveWithdraw(operationId, accountId, amount))) {
+            BigDecimal balance = transactionTemplate.execute(status -> handleIdempotency(
+                    idempotencyKey,
+                    request,
+                    "WITHDRAW",
+                    hash -> executeWithdraw(operationId, accountId, amount, idempotencyKey, hash, reservation),
+                    this::readBalanceInTransaction
+            ));
+            return balance != null ? balance : settledBalance(reservation, accountId);
+        }
     }
 
-    private BigDecimal executeWithdraw(UUID accountId, BigDecimal amount, String idempotencyKey, WithdrawRequest request) {
-        Account account = accountRepository.findById(accountId)
-                .orElseThrow(() -> new AccountNotFoundException(accountId));
-
-        account.debit(amount);
+    private BigDecimal executeWithdraw(UUID operationId, UUID accountId, BigDecimal amount, String idempotencyKey,
+                                       String hash, AccountEngine.Reservation reservation) {
+        BigDecimal balance;
+        if (accountEngine.getIfAvailable() != null) {
+            settleAfterCommit(reservation);
+            ledgerService.record(operationId, "WITHDRAW", accountId, LedgerService.EXTERNAL_ACCOUNT, amount);
+            balance = null;
+        } else if (ledgerService.isBalanceSource()) {
+            accountRepository.findByIdForUpdate(accountId)
+                    .orElseThrow(() -> new AccountNotFoundException(accountId));
+            ledgerService.assertCovers(accountId, amount);
+            ledgerService.record(operationId, "WITHDRAW", accountId, LedgerService.EXTERNAL_ACCOUNT, amount);
+            balance = ledgerService.balanceOf(accountId);
+        } else {
+            Account account = accountLockManager.lock(accountId);
+
+            balanceSlotService.debit(account, Money.of(amount, account.getCurrency()));
+            accountLockManager.flush(accountId);
+            ledgerService.record(operationId, "WITHDRAW", accountId, LedgerService.EXTERNAL_ACCOUNT, amount);
+            balance = balanceSlotService.balanceOf(account).toBigDecimal();
+        }
 
         if (idempotencyKey != null) {
-            String hash = computeHash(request, "WITHDRAW");
-            idempotentRepository.save(new IdempotentRequest(idempotencyKey, accountId, hash));
+            storeIdempotencyKey(idempotencyKey, accountId, hash);
         }
 
         log.info("Withdraw completed | accountId={} | amount={}", accountId, amount);
-        return account.getBalance();
+        return balance;
+    }
+
+    /**
+     * Reserves the change in the account engine, if it is enabled, unless the key already stored a
+     * result that the transaction will replay: a replay must neither hold funds nor fail on them.
+     */
+    private AccountEngine.Reservation reserve(String idempotencyKey,
+                                              Function<AccountEngine, AccountEngine.Reservation> reservation) {
+        AccountEngine engine = accountEngine.getIfAvailable();
+        if (engine == null) {
+            return null;
+        }
+        if (idempotencyKey != null
+                && idempotencyKeyCache.findStored(idempotencyKey, idempotentRepository::findById).isPresent()) {
+            return null;
+        }
+        return reservation.apply(engine);
+    }
+
+    private void settleAfterCommit(AccountEngine.Reservation reservation) {
+        if (reservation == null) {
+            // the stored key seen before the transaction expired in between, so nothing was reserved
+            throw new ConcurrencyFailureException("Operation was not reserved in the account engine");
+        }
+        reservation.settleAfterCommit();
+    }
+
+    /**
+     * Engine balances are read after the transaction, the other sources within it.
+     */
+    private BigDecimal readBalanceInTransaction(UUID accountId) {
+        return accountEngine.getIfAvailable() != null ? null : readBalanceByAccountId(accountId);
+    }
+
+    private BigDecimal settledBalance(AccountEngine.Reservation reservation, UUID accountId) {
+        if (reservation != null && reservation.isSettled()) {
+            return reservation.balance();
+        }
+        return readBalanceByAccountId(accountId);
     }
 
     @Transactional(readOnly = true)
@@ -191,8 +358,20 @@ public class TransferService {
         return readBalanceByAccountId(accountId);
     }
 
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(Account account) {
+        AccountEngine engine = accountEngine.getIfAvailable();
+        if (engine != null) {
+            return engine.balance(account.getId());
+        }
+        if (ledgerService.isBalanceSource()) {
+            return ledgerService.balanceOf(account.getId());
+        }
+        return balanceSlotService.balanceOf(account).toBigDecimal();
+    }
+
     private void validateAmount(BigDecimal amount) {
-        if (amount == null || amount.signum() <= 0) {
+        if (!Money.isValidAmount(amount)) {
             throw new InvalidAmountException();
         }
     }
@@ -243,27 +422,74 @@ public class TransferService {
         }
     }
 
+    /**
+     * Replays the stored result of {@code key}, or runs {@code action} with the request fingerprint
+     * the key has to be stored with ({@code null} without a key).
+     */
     private <T> T handleIdempotency(String key, Object request, String operationType,
-                                    Supplier<T> action, Function<UUID, T> resultMapper) {
+                                    Function<String, T> action, Function<UUID, T> resultMapper) {
         if (key == null) {
-            return action.get();
+            return action.apply(null);
         }
 
         String currentHash = computeHash(request, operationType);
-        var existing = idempotentRepository.findById(key);
+        if (idempotencyStore.lock(key)) {
+            // a duplicate just held the key on another node, so the filter must not skip the lookup
+            idempotencyKeyCache.markConflict(key);
+        }
+        var existing = idempotencyKeyCache.find(key, idempotentRepository::findById);
 
         if (existing.isPresent()) {
-            IdempotentRequest ir = existing.get();
-            if (!currentHash.equals(ir.getRequestHash())) {
+            IdempotencyKeyCache.StoredKey stored = existing.get();
+            if (!hashMatches(stored.requestHash(), currentHash, request, operationType)) {
                 throw new IdempotencyConflictException();
             }
-            return resultMapper.apply(ir.getEntityId());
+            return resultMapper.apply(stored.entityId());
+        }
+
+        return action.apply(currentHash);
+    }
+
+    /**
+     * Stores the key right away, so a key another request stored first surfaces here as a
+     * {@link DuplicateKeyException}; the operation is then rolled back and retried, and the retry
+     * replays the stored result.
+     */
+    private void storeIdempotencyKey(String key, UUID entityId, String hash) {
+        IdempotentRequest request = new IdempotentRequest(key, entityId, hash);
+        if (!idempotencyStore.insert(List.of(request)).isEmpty()) {
+            idempotencyKeyCache.markConflict(key);
+            throw new DuplicateKeyException("Idempotency key already stored: " + key);
+        }
+        idempotencyKeyCache.registerNew(List.of(request));
+    }
+
+    String computeHash(Object request, String operationType) {
+        RequestFingerprint fingerprint = RequestFingerprint.of(operationType);
+        if (request instanceof TransferRequest transfer) {
+            fingerprint.add(transfer.fromCardId()).add(transfer.toCardId()).add(transfer.amount());
+        } else if (request instanceof TopUpRequest topUp) {
+            fingerprint.add(topUp.accountId()).add(topUp.amount());
+        } else if (request instanceof WithdrawRequest withdraw) {
+            fingerprint.add(withdraw.accountId()).add(withdraw.amount());
+        } else {
+            throw new IdempotencyHashException();
         }
+        return fingerprint.finish();
+    }
 
-        return action.get();
+    /**
+     * Compares a stored hash with the current request. Keys stored before the "v2" fingerprint
+     * carry the legacy JSON hash, which is only computed for them.
+     */
+    boolean hashMatches(String storedHash, String currentHash, Object request, String operationType) {
+        if (RequestFingerprint.isCurrentFormat(storedHash)) {
+            return storedHash.equals(currentHash);
+        }
+        return storedHash.equals(legacyHash(request, operationType));
     }
 
-    private String computeHash(Object request, String operationType) {
+    private String legacyHash(Object request, String operationType) {
         try {
             Map<String, Object> map = objectMapper.convertValue(request, new TypeReference<>() {
             });
@@ -275,7 +501,7 @@ public class TransferService {
         }
     }
 
-    private boolean hasAuthority(Authentication authentication, String authority) {
+    boolean hasAuthority(Authentication authentication, String authority) {
         if (authentication == null || authentication.getAuthorities() == null) {
             return false;
         }
@@ -284,7 +510,7 @@ public class TransferService {
                 .anyMatch(authority::equals);
     }
 
-    private UUID currentUserId(Authentication authentication) {
+    UUID currentUserId(Authentication authentication) {
         if (!hasAuthority(authentication, SecurityRoles.USER)) {
             throw new TransferAccessDeniedException();
         }
@@ -296,8 +522,18 @@ public class TransferService {
     }
 
     private BigDecimal readBalanceByAccountId(UUID accountId) {
+        AccountEngine engine = accountEngine.getIfAvailable();
+        if (engine != null) {
+            return engine.balance(accountId);
+        }
+        if (ledgerService.isBalanceSource()) {
+            if (!accountRepository.existsById(accountId)) {
+                throw new AccountNotFoundException(accountId);
+            }
+            return ledgerService.balanceOf(accountId);
+        }
         return accountRepository.findById(accountId)
-                .map(Account::getBalance)
+                .map(account -> balanceSlotService.balanceOf(account).toBigDecimal())
                 .orElseThrow(() -> new AccountNotFoundException(accountId));
     }
 }
@@ -0,0 +1,109 @@
+package com.mike.transfer.columnar;
+
+import com.mike.transfer.domain.Currency;
+import com.mike.transfer.dto.AmountHistogramBucket;
+import com.mike.transfer.dto.SystemTurnover;
+import com.mike.transfer.dto.TransferSummary;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TransferColumnsTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final UUID usdA = UUID.randomUUID();
+    private final UUID usdB = UUID.randomUUID();
+    private final UUID eurA = UUID.randomUUID();
+    private final UUID eurB = UUID.randomUUID();
+
+    @Test
+    void turnover_sumsPerCurrencyInsideRangeAcrossChunks() {
+        TransferColumns columns = new TransferColumns();
+        List<TransferColumns.Row> rows = new ArrayList<>();
+        // more than two chunks, one minute apart
+        int count = TransferColumns.CHUNK_SIZE * 2 + 10;
+        for (int i = 0; i < count; i++) {
+            rows.add(row(usdA, usdB, Currency.USD, 100, i));
+        }
+        rows.add(row(usdB, usdA, Currency.USD, 5_000, 5));
+        rows.add(row(eurA, eurB, Currency.EUR, 250, 5));
+        columns.append(rows);
+
+        List<SystemTurnover> turnover = columns.turnover(START, START.plusSeconds(60 * 9));
+
+        assertThat(columns.rows()).isEqualTo(count + 2);
+        assertThat(turnover).containsExactly(
+                new SystemTurnover("USD", 11, 2, new BigDecimal("60.00")),
+                new SystemTurnover("EUR", 1, 1, new BigDecimal("2.50"))
+        );
+    }
+
+    @Test
+    void topTransfers_returnsLargestFirstWithinRange() {
+        TransferColumns columns = new TransferColumns();
+        List<TransferColumns.Row> rows = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            rows.add(row(usdA, usdB, Currency.USD, 1_000 + i, 0));
+        }
+        rows.add(row(usdA, usdB, Currency.USD, 1_000_000, 60));
+        rows.add(row(eurA, eurB, Currency.EUR, 500_000, 0));
+        columns.append(rows);
+
+        List<TransferSummary> top = columns.topTransfers(START, START.plusSeconds(60 * 30), Currency.USD, 3);
+
+        assertThat(top).extracting(TransferSummary::amount).containsExactly(
+                new BigDecimal("19.99"), new BigDecimal("19.98"), new BigDecimal("19.97"));
+        assertThat(top.get(0).fromAccount()).isEqualTo(usdA);
+        assertThat(top.get(0).toAccount()).isEqualTo(usdB);
+        assertThat(top.get(0).transactionAt()).isEqualTo(START);
+        assertThat(columns.topTransfers(START, START, null, 1))
+                .extracting(TransferSummary::fromAccount).containsExactly(eurA);
+    }
+
+    @Test
+    void amountHistogram_bucketsByDecadeForOneCurrency() {
+        TransferColumns columns = new TransferColumns();
+        columns.append(List.of(
+                row(usdA, usdB, Currency.USD, 50, 0),
+                row(usdA, usdB, Currency.USD, 99, 0),
+                row(usdA, usdB, Currency.USD, 12_345, 0),
+                row(eurA, eurB, Currency.EUR, 1, 0)
+        ));
+
+        List<AmountHistogramBucket> buckets = columns.amountHistogram(START, START, Currency.USD);
+
+        assertThat(buckets).containsExactly(
+                new AmountHistogramBucket(new BigDecimal("0.10"), new BigDecimal("1.00"), 2, new BigDecimal("1.49")),
+                new AmountHistogramBucket(new BigDecimal("1.00"), new BigDecimal("10.00"), 0, new BigDecimal("0.00")),
+                new AmountHistogramBucket(new BigDecimal("10.00"), new BigDecimal("100.00"), 0, new BigDecimal("0.00")),
+                new AmountHistogramBucket(new BigDecimal("100.00"), new BigDecimal("1000.00"), 1, new BigDecimal("123.45"))
+        );
+        assertThat(TransferColumns.decade(Long.MAX_VALUE)).isEqualTo(18);
+    }
+
+    @Test
+    void view_isNotAffectedByLaterAppends() {
+        TransferColumns columns = new TransferColumns();
+        columns.append(List.of(row(usdA, usdB, Currency.USD, 100, 0)));
+        TransferColumns.View before = columns.view();
+
+        columns.append(List.of(row(eurA, eurB, Currency.EUR, 100, 0)));
+
+        assertThat(before.rows()).isEqualTo(1);
+        assertThat(before.accountCount()).isEqualTo(2);
+        assertThat(columns.currencyOf(eurA)).isEqualTo(Currency.EUR);
+        assertThat(columns.currencyOf(UUID.randomUUID())).isNull();
+    }
+
+    private static TransferColumns.Row row(UUID from, UUID to, Currency currency, long amountMinor, int minute) {
+        return new TransferColumns.Row(
+                UUID.randomUUID(), from, to, currency, amountMinor, START.plusSeconds(60L * minute).toEpochMilli());
+    }
+}
@@ -0,0 +1,35 @@
+package com.mike.transfer.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AnalyticsPropertiesTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withUserConfiguration(PropertiesConfig.class);
+
+    @Test
+    void topTransfersCap_acceptsTheMonthlyListDepth() {
+        contextRunner
+                .withPropertyValues("transfer.analytics.top-transfers-cap=100")
+                .run(context -> assertThat(context.getBean(AnalyticsProperties.class).getTopTransfersCap())
+                        .isEqualTo(AnalyticsProperties.MONTHLY_TOP_TRANSFERS_DEPTH));
+    }
+
+    @Test
+    void topTransfersCap_beyondTheMonthlyListDepth_failsStartup() {
+        contextRunner
+                .withPropertyValues("transfer.analytics.top-transfers-cap=200")
+                .run(context -> assertThat(context).hasFailed()
+                        .getFailure().hasStackTraceContaining("topTransfersCap"));
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @EnableConfigurationProperties(AnalyticsProperties.class)
+    static class PropertiesConfig {
+    }
+}
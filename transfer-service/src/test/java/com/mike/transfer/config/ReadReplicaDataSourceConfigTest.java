@@ -0,0 +1,44 @@
+package com.mike.transfer.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ReadReplicaDataSourceConfigTest {
+
+    private final ReadReplicaProperties replica = new ReadReplicaProperties();
+    private final AnalyticsCacheProperties cache = new AnalyticsCacheProperties();
+
+    @Test
+    void closedPeriodLag_longerThanReplicaStaleness_isAccepted() {
+        replica.setMaxLag(Duration.ofSeconds(5));
+        replica.setLagCheckInterval(Duration.ofSeconds(2));
+        cache.setClosedPeriodLag(Duration.ofSeconds(8));
+
+        assertThatCode(() -> ReadReplicaDataSourceConfig.assertClosedPeriodsOutlastLag(replica, cache))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void closedPeriodLag_withinReplicaStaleness_failsStartup() {
+        replica.setMaxLag(Duration.ofSeconds(50));
+        replica.setLagCheckInterval(Duration.ofSeconds(10));
+        cache.setClosedPeriodLag(Duration.ofMinutes(1));
+
+        assertThatThrownBy(() -> ReadReplicaDataSourceConfig.assertClosedPeriodsOutlastLag(replica, cache))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("closed-period-lag");
+    }
+
+    @Test
+    void closedPeriodLag_isNotCheckedWhileTheCacheIsDisabled() {
+        replica.setMaxLag(Duration.ofMinutes(5));
+        cache.setEnabled(false);
+
+        assertThatCode(() -> ReadReplicaDataSourceConfig.assertClosedPeriodsOutlastLag(replica, cache))
+                .doesNotThrowAnyException();
+    }
+}
@@ -0,0 +1,98 @@
+package com.mike.transfer.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.transfer.config.StatementProperties;
+import com.mike.transfer.dto.StatementFormat;
+import com.mike.transfer.error.ErrorType;
+import com.mike.transfer.error.GlobalExceptionHandler;
+import com.mike.transfer.service.AnalyticsService;
+import com.mike.transfer.service.StatementExportService;
+import com.mike.transfer.service.TransferService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsControllerTest {
+
+    private static final UUID ACCOUNT_ID = UUID.randomUUID();
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private StatementExportService statementExportService;
+
+    @Mock
+    private TransferService transferService;
+
+    private final StatementProperties statementProperties = new StatementProperties();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        statementProperties.setTimeout(Duration.ofMinutes(45));
+        AnalyticsController controller = new AnalyticsController(
+                analyticsService, statementExportService, statementProperties, transferService, new ObjectMapper());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        doCallRealMethod().when(statementExportService).validatePeriod(any(), any());
+    }
+
+    @Test
+    void statement_streamsWithItsOwnAsyncTimeout() throws Exception {
+        // given
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(4).write("id\n".getBytes(StandardCharsets.UTF_8));
+            return null;
+        }).when(statementExportService).export(eq(ACCOUNT_ID), any(), any(), eq(StatementFormat.CSV), any());
+
+        // when
+        MvcResult started = mockMvc.perform(get("/analytics/accounts/{id}/statement", ACCOUNT_ID)
+                        .param("from", "2026-01-01T00:00:00Z")
+                        .param("to", "2026-06-01T00:00:00Z"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // then
+        assertThat(started.getRequest().getAsyncContext().getTimeout())
+                .isEqualTo(Duration.ofMinutes(45).toMillis());
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition",
+                        "attachment; filename=\"statement-" + ACCOUNT_ID + ".csv\""))
+                .andExpect(content().string("id\n"));
+    }
+
+    @Test
+    void statement_withFromAfterTo_isRejectedBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/analytics/accounts/{id}/statement", ACCOUNT_ID)
+                        .param("from", "2026-06-01T00:00:00Z")
+                        .param("to", "2026-01-01T00:00:00Z"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type").value(ErrorType.VALIDATION_ERROR.name()));
+
+        verify(statementExportService, never()).export(any(), any(), any(), any(), any());
+        verifyNoInteractions(transferService);
+    }
+}
@@ -0,0 +1,127 @@
+package com.mike.transfer.datasource;
+
+import com.mike.transfer.config.ReadReplicaProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Testcontainers
+class ReplicaRoutingDataSourceTest {
+
+    @Container
+    static PostgreSQLContainer<?> primary = new PostgreSQLContainer<>("postgres:15").withDatabaseName("primary");
+
+    @Container
+    static PostgreSQLContainer<?> replica = new PostgreSQLContainer<>("postgres:15").withDatabaseName("replica");
+
+    private ReplicaLagMonitor lagMonitor;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        ReadReplicaProperties properties = new ReadReplicaProperties();
+        properties.setMaxLag(Duration.ofSeconds(5));
+
+        DataSource primaryDataSource = dataSource(primary);
+        lagMonitor = new ReplicaLagMonitor(primaryDataSource, dataSource(replica), properties, new SimpleMeterRegistry());
+        ReplicaRoutingDataSource routing =
+                new ReplicaRoutingDataSource(primaryDataSource, dataSource(replica), lagMonitor);
+        routing.afterPropertiesSet();
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyTransaction_goesToReplicaOnceItIsCheckedAndCurrent() {
+        assertThat(readOnly.<String>execute(status -> database())).isEqualTo("primary");
+
+        lagMonitor.check();
+
+        assertThat(lagMonitor.isUsable()).isTrue();
+        assertThat(readOnly.<String>execute(status -> database())).isEqualTo("replica");
+        assertThat(readWrite.<String>execute(status -> database())).isEqualTo("primary");
+        assertThat(database()).isEqualTo("primary");
+    }
+
+    @Test
+    void readOwnWrites_keepsReadOnlyTransactionOnPrimary() {
+        lagMonitor.check();
+
+        String database = ReadFreshness.readOwnWrites(() -> readOnly.execute(status -> database()));
+
+        assertThat(database).isEqualTo("primary");
+        assertThat(ReadFreshness.requiresPrimary()).isFalse();
+    }
+
+    @Test
+    void laggingReplica_fallsBackToPrimaryUntilItCatchesUp() {
+        lagMonitor.update(30);
+
+        assertThat(readOnly.<String>execute(status -> database())).isEqualTo("primary");
+
+        lagMonitor.update(1);
+
+        assertThat(readOnly.<String>execute(status -> database())).isEqualTo("replica");
+    }
+
+    @Test
+    void stoppedWalReceiver_keepsReadsOnPrimaryEvenWhenEverythingReceivedWasReplayed() {
+        lagMonitor.update(0);
+        ReplicaLagMonitor.ReplicaStatus disconnected = new ReplicaLagMonitor.ReplicaStatus(true, "0/3000060", false);
+
+        lagMonitor.update(lagMonitor.lag(disconnected, ReplicaLagMonitor.parseLsn("0/3000060"), 0));
+
+        assertThat(lagMonitor.isUsable()).isFalse();
+        assertThat(readOnly.<String>execute(status -> database())).isEqualTo("primary");
+    }
+
+    @Test
+    void streamingReplica_isAsStaleAsTheNewestPrimarySampleItReplayed() {
+        long second = 1_000_000_000L;
+        ReplicaLagMonitor.ReplicaStatus stuck = new ReplicaLagMonitor.ReplicaStatus(true, "0/2000000", true);
+
+        assertThat(lagMonitor.lag(stuck, ReplicaLagMonitor.parseLsn("0/2000000"), 0)).isZero();
+        assertThat(lagMonitor.lag(stuck, ReplicaLagMonitor.parseLsn("0/2000100"), 2 * second)).isEqualTo(2.0);
+        assertThat(lagMonitor.lag(stuck, ReplicaLagMonitor.parseLsn("0/2000200"), 9 * second)).isEqualTo(9.0);
+        // the sample it replayed is no longer kept, so it is at least twice the maximum lag behind
+        assertThat(lagMonitor.lag(stuck, ReplicaLagMonitor.parseLsn("0/2000300"), 11 * second)).isInfinite();
+
+        ReplicaLagMonitor.ReplicaStatus replaying = new ReplicaLagMonitor.ReplicaStatus(true, "0/2000300", true);
+        // replayed the previous sample, not the one just taken
+        assertThat(lagMonitor.lag(replaying, ReplicaLagMonitor.parseLsn("0/2000400"), 12 * second)).isEqualTo(1.0);
+    }
+
+    @Test
+    void parseLsn_ordersPositionsAcrossSegments() {
+        assertThat(ReplicaLagMonitor.parseLsn("1/0")).isGreaterThan(ReplicaLagMonitor.parseLsn("0/FFFFFFFF"));
+        assertThat(ReplicaLagMonitor.parseLsn("16/B374D848")).isEqualTo(0x16B374D848L);
+    }
+
+    private String database() {
+        return jdbcTemplate.queryForObject("SELECT current_database()", String.class);
+    }
+
+    private static DataSource dataSource(PostgreSQLContainer<?> container) {
+        return new DriverManagerDataSource(container.getJdbcUrl(), container.getUsername(), container.getPassword());
+    }
+}
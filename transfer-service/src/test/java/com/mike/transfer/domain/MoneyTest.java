@@ -0,0 +1,67 @@
+package com.mike.transfer.domain;
+
+import com.mike.transfer.exception.CurrencyMismatchException;
+import com.mike.transfer.exception.InsufficientFundsException;
+import com.mike.transfer.exception.InvalidAmountException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyTest {
+
+    @Test
+    void of_roundsToCurrencyScaleAndConvertsBack() {
+        Money money = Money.of(new BigDecimal("10.005"), Currency.USD);
+
+        assertThat(money.minor()).isEqualTo(1000);
+        assertThat(money.toBigDecimal()).isEqualTo(new BigDecimal("10.00"));
+        assertThat(Money.of(new BigDecimal("7"), Currency.EUR).minor()).isEqualTo(700);
+    }
+
+    @Test
+    void arithmetic_failsOnOverflowAndCurrencyMismatch() {
+        Money max = Money.ofMinor(Long.MAX_VALUE, Currency.USD);
+
+        assertThatThrownBy(() -> max.plus(Money.ofMinor(1, Currency.USD)))
+                .isInstanceOf(ArithmeticException.class);
+        assertThatThrownBy(() -> max.minus(Money.ofMinor(1, Currency.EUR)))
+                .isInstanceOf(CurrencyMismatchException.class);
+        assertThat(Money.ofMinor(5, Currency.USD).plus(Money.ofMinor(7, Currency.USD)))
+                .isEqualTo(Money.ofMinor(12, Currency.USD));
+    }
+
+    @Test
+    void of_failsWithInvalidAmountWhenMinorUnitsDoNotFitALong() {
+        assertThatThrownBy(() -> Money.of(new BigDecimal("1e30"), Currency.USD))
+                .isInstanceOf(InvalidAmountException.class);
+        assertThat(Money.of(new BigDecimal("92233720368547758.07"), Currency.USD).minor()).isEqualTo(Long.MAX_VALUE);
+    }
+
+    @Test
+    void isValidAmount_boundsIntegerDigitsAndDecimals() {
+        assertThat(Money.isValidAmount(new BigDecimal("999999999999999.99"))).isTrue();
+        assertThat(Money.isValidAmount(new BigDecimal("10.500"))).isTrue();
+        assertThat(Money.isValidAmount(new BigDecimal("1000000000000000"))).isFalse();
+        assertThat(Money.isValidAmount(new BigDecimal("10.005"))).isFalse();
+        assertThat(Money.isValidAmount(BigDecimal.ZERO)).isFalse();
+        assertThat(Money.isValidAmount(null)).isFalse();
+    }
+
+    @Test
+    void account_debitAndCreditInMinorUnits() {
+        Account account = new Account(UUID.randomUUID(), UUID.randomUUID(), Currency.USD);
+
+        account.credit(Money.of(new BigDecimal("100.10"), Currency.USD));
+        account.debit(Money.ofMinor(10, Currency.USD));
+
+        assertThat(account.getBalance()).isEqualTo(Money.ofMinor(10_000, Currency.USD));
+        assertThatThrownBy(() -> account.debit(Money.ofMinor(10_001, Currency.USD)))
+                .isInstanceOf(InsufficientFundsException.class);
+        assertThatThrownBy(() -> account.credit(Money.ofMinor(1, Currency.EUR)))
+                .isInstanceOf(CurrencyMismatchException.class);
+    }
+}
@@ -0,0 +1,224 @@
+package com.mike.transfer.engine;
+
+import com.mike.transfer.config.AccountEngineProperties;
+import com.mike.transfer.exception.InsufficientFundsException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Testcontainers
+class AccountEngineTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    private static final String SCHEMA_SQL = """
+            CREATE TABLE IF NOT EXISTS accounts (
+                id uuid PRIMARY KEY,
+                currency varchar(3) NOT NULL,
+                balance bigint NOT NULL,
+                version bigint NOT NULL DEFAULT 0
+            );
+            CREATE TABLE IF NOT EXISTS engine_checkpoints (
+                shard int PRIMARY KEY,
+                sequence bigint NOT NULL,
+                updated_at timestamp NOT NULL
+            );
+            CREATE TABLE IF NOT EXISTS engine_operations (
+                operation_id uuid PRIMARY KEY,
+                type varchar(16) NOT NULL,
+                from_account uuid,
+                to_account uuid,
+                amount_minor bigint NOT NULL,
+                created_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP
+            );
+            TRUNCATE accounts, engine_checkpoints, engine_operations;
+            """;
+
+    @TempDir
+    Path journalDir;
+
+    @TempDir
+    Path crashedJournalDir;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private AccountEngine engine;
+    private UUID sourceId;
+    private UUID targetId;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        jdbcTemplate.execute(SCHEMA_SQL);
+
+        sourceId = account(100_00);
+        targetId = account(0);
+        engine = start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        engine.stop();
+    }
+
+    @Test
+    void rollback_releasesHold() {
+        try (AccountEngine.Reservation reservation =
+                     engine.reserveWithdraw(UUID.randomUUID(), sourceId, new BigDecimal("100.00"))) {
+            assertThrows(InsufficientFundsException.class,
+                    () -> engine.reserveWithdraw(UUID.randomUUID(), sourceId, new BigDecimal("0.01")));
+
+            transactionTemplate.executeWithoutResult(status -> {
+                reservation.settleAfterCommit();
+                status.setRollbackOnly();
+            });
+
+            assertThat(reservation.isSettled()).isFalse();
+        }
+
+        try (AccountEngine.Reservation again =
+                     engine.reserveWithdraw(UUID.randomUUID(), sourceId, new BigDecimal("100.00"))) {
+            assertThat(again.isSettled()).isFalse();
+        }
+        assertThat(engine.balance(sourceId)).isEqualByComparingTo("100.00");
+        assertThat(operations()).isZero();
+    }
+
+    @Test
+    void commit_settlesAndKeepsFundsDebited() {
+        try (AccountEngine.Reservation reservation =
+                     engine.reserveTransfer(UUID.randomUUID(), sourceId, targetId, new BigDecimal("30.00"))) {
+            transactionTemplate.executeWithoutResult(status -> reservation.settleAfterCommit());
+
+            assertThat(reservation.isSettled()).isTrue();
+            assertThat(reservation.balance()).isEqualByComparingTo("70.00");
+        }
+
+        assertThat(engine.balance(sourceId)).isEqualByComparingTo("70.00");
+        assertThat(engine.balance(targetId)).isEqualByComparingTo("30.00");
+        assertThrows(InsufficientFundsException.class,
+                () -> engine.reserveWithdraw(UUID.randomUUID(), sourceId, new BigDecimal("70.01")));
+
+        engine.snapshot();
+
+        assertThat(storedBalance(sourceId)).isEqualTo(70_00);
+        assertThat(storedBalance(targetId)).isEqualTo(30_00);
+        assertThat(operations()).isZero();
+    }
+
+    @Test
+    void failedSettle_keepsHoldAndLeavesOperationToRecovery() throws InterruptedException {
+        AccountEngine.Reservation reservation =
+                engine.reserveWithdraw(UUID.randomUUID(), sourceId, new BigDecimal("40.00"));
+        // settlement can no longer reach the shards
+        engine.stop();
+
+        transactionTemplate.executeWithoutResult(status -> reservation.settleAfterCommit());
+
+        assertThat(reservation.isSettled()).isFalse();
+        // a committed operation is never released; a release would fail on the stopped shards
+        assertDoesNotThrow(reservation::close);
+        assertThat(operations()).isOne();
+
+        engine = start();
+
+        assertThat(storedBalance(sourceId)).isEqualTo(60_00);
+        assertThat(engine.balance(sourceId)).isEqualByComparingTo("60.00");
+        assertThat(operations()).isZero();
+    }
+
+    @Test
+    void recovery_settlesCommittedOperationMissingFromJournal() throws InterruptedException {
+        engine.stop();
+        jdbcTemplate.update("""
+                INSERT INTO engine_operations (operation_id, type, from_account, to_account, amount_minor)
+                VALUES (?, 'TRANSFER', ?, ?, 2500)
+                """, UUID.randomUUID(), sourceId, targetId);
+
+        engine = start();
+
+        assertThat(storedBalance(sourceId)).isEqualTo(75_00);
+        assertThat(storedBalance(targetId)).isEqualTo(25_00);
+        assertThat(engine.balance(targetId)).isEqualByComparingTo("25.00");
+        assertThat(operations()).isZero();
+    }
+
+    @Test
+    void recovery_appliesJournaledOperationOnce() throws Exception {
+        UUID transferId = UUID.randomUUID();
+        try (AccountEngine.Reservation reservation =
+                     engine.reserveTransfer(transferId, sourceId, targetId, new BigDecimal("10.00"))) {
+            transactionTemplate.executeWithoutResult(status -> reservation.settleAfterCommit());
+        }
+        try (Stream<Path> segments = Files.list(journalDir)) {
+            for (Path segment : segments.toList()) {
+                Files.copy(segment, crashedJournalDir.resolve(segment.getFileName()));
+            }
+        }
+        engine.stop();
+        // what the database held when the node crashed: the operation row and no snapshot
+        jdbcTemplate.update("UPDATE accounts SET balance = 10000 WHERE id = ?", sourceId);
+        jdbcTemplate.update("UPDATE accounts SET balance = 0 WHERE id = ?", targetId);
+        jdbcTemplate.update("DELETE FROM engine_checkpoints");
+        jdbcTemplate.update("""
+                INSERT INTO engine_operations (operation_id, type, from_account, to_account, amount_minor)
+                VALUES (?, 'TRANSFER', ?, ?, 1000)
+                """, transferId, sourceId, targetId);
+
+        engine = start(crashedJournalDir);
+
+        assertThat(storedBalance(sourceId)).isEqualTo(90_00);
+        assertThat(storedBalance(targetId)).isEqualTo(10_00);
+        assertThat(operations()).isZero();
+    }
+
+    private AccountEngine start() {
+        return start(journalDir);
+    }
+
+    private AccountEngine start(Path dir) {
+        AccountEngineProperties properties = new AccountEngineProperties();
+        properties.setShards(2);
+        properties.setJournalDir(dir.toString());
+        AccountEngine started = new AccountEngine(properties, jdbcTemplate, transactionTemplate);
+        started.start();
+        return started;
+    }
+
+    private UUID account(long balance) {
+        UUID id = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO accounts (id, currency, balance) VALUES (?, 'USD', ?)", id, balance);
+        return id;
+    }
+
+    private long storedBalance(UUID accountId) {
+        return jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", Long.class, accountId);
+    }
+
+    private int operations() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM engine_operations", Integer.class);
+    }
+}
@@ -0,0 +1,80 @@
+package com.mike.transfer.engine;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void read_returnsRecordsAfterCheckpointAcrossSegments() throws Exception {
+        UUID from = UUID.randomUUID();
+        UUID to = UUID.randomUUID();
+
+        Journal journal = new Journal(dir, 0, 2);
+        journal.open(1);
+        journal.append(List.of(
+                new JournalRecord(1, JournalRecord.Type.TRANSFER, UUID.randomUUID(), from, to, 1_000),
+                new JournalRecord(2, JournalRecord.Type.TOP_UP, UUID.randomUUID(), null, to, 250),
+                new JournalRecord(3, JournalRecord.Type.WITHDRAW, UUID.randomUUID(), from, null, 50)
+        ));
+        journal.rotate(4);
+        journal.append(List.of(new JournalRecord(4, JournalRecord.Type.TOP_UP, UUID.randomUUID(), null, from, 10)));
+        journal.close();
+
+        List<JournalRecord> records = Journal.read(dir, 0, 1);
+
+        assertThat(records).extracting(JournalRecord::sequence).containsExactly(2L, 3L, 4L);
+        assertThat(records.get(0).from()).isNull();
+        assertThat(records.get(0).to()).isEqualTo(to);
+        assertThat(records.get(1).amountMinor()).isEqualTo(50);
+        assertThat(Journal.shardsWithSegments(dir)).containsExactly(0);
+    }
+
+    @Test
+    void read_ignoresTornTail() throws Exception {
+        Journal journal = new Journal(dir, 1, 8);
+        journal.open(1);
+        journal.append(List.of(
+                new JournalRecord(1, JournalRecord.Type.TOP_UP, UUID.randomUUID(), null, UUID.randomUUID(), 100),
+                new JournalRecord(2, JournalRecord.Type.TOP_UP, UUID.randomUUID(), null, UUID.randomUUID(), 200)
+        ));
+        journal.close();
+
+        Path segment;
+        try (var files = Files.list(dir)) {
+            segment = files.findFirst().orElseThrow();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(Journal.RECORD_SIZE + Journal.RECORD_SIZE / 2);
+        }
+
+        assertThat(Journal.read(dir, 1, 0)).extracting(JournalRecord::sequence).containsExactly(1L);
+    }
+
+    @Test
+    void deleteOlderSegments_keepsCurrentSegment() throws Exception {
+        Journal journal = new Journal(dir, 0, 8);
+        journal.open(1);
+        journal.append(List.of(new JournalRecord(1, JournalRecord.Type.TOP_UP, UUID.randomUUID(), null, UUID.randomUUID(), 1)));
+        journal.rotate(2);
+        journal.deleteOlderSegments();
+        journal.close();
+
+        try (var files = Files.list(dir)) {
+            assertThat(files.map(path -> path.getFileName().toString()).toList())
+                    .containsExactly("shard-000-0000000000000000002.journal");
+        }
+    }
+}
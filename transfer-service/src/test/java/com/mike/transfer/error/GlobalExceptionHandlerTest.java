@@ -0,0 +1,87 @@
+package com.mike.transfer.error;
+
+import com.mike.transfer.domain.Currency;
+import com.mike.transfer.domain.Money;
+import com.mike.transfer.dto.TransferRequest;
+import jakarta.validation.Valid;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.http.MediaType;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.math.BigDecimal;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class GlobalExceptionHandlerTest {
+
+    private final MockMvc mockMvc = MockMvcBuilders.standaloneSetup(new LockingController(), new AmountController())
+            .setControllerAdvice(new GlobalExceptionHandler())
+            .build();
+
+    @Test
+    void optimisticVersionConflict_mapsToConflict() throws Exception {
+        mockMvc.perform(post("/optimistic"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.type").value(ErrorType.CONCURRENT_MODIFICATION.name()))
+                .andExpect(jsonPath("$.instance").value("/optimistic"));
+    }
+
+    @Test
+    void pessimisticLockFailure_mapsToConflict() throws Exception {
+        mockMvc.perform(post("/pessimistic"))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.type").value(ErrorType.CONCURRENT_MODIFICATION.name()));
+    }
+
+    @Test
+    void amountBeyondSupportedDigits_mapsToBadRequest() throws Exception {
+        mockMvc.perform(post("/transfer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromCardId\":\"a\",\"toCardId\":\"b\",\"amount\":1e20}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type").value(ErrorType.VALIDATION_ERROR.name()));
+    }
+
+    @Test
+    void amountOverflowingMinorUnits_mapsToInvalidAmount() throws Exception {
+        mockMvc.perform(post("/minor").param("amount", "1e30"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.type").value(ErrorType.INVALID_AMOUNT.name()));
+    }
+
+    @RestController
+    static class LockingController {
+
+        @PostMapping("/optimistic")
+        void optimistic() {
+            throw new ObjectOptimisticLockingFailureException("Account", "stale");
+        }
+
+        @PostMapping("/pessimistic")
+        void pessimistic() {
+            throw new CannotAcquireLockException("could not obtain lock on row in relation \"accounts\"");
+        }
+    }
+
+    @RestController
+    static class AmountController {
+
+        @PostMapping("/transfer")
+        void transfer(@Valid @RequestBody TransferRequest request) {
+        }
+
+        @PostMapping("/minor")
+        long minor(@RequestParam BigDecimal amount) {
+            return Money.toMinor(amount, Currency.USD);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.config.AccountLockingProperties;
+import com.mike.transfer.domain.Account;
+import com.mike.transfer.domain.Currency;
+import com.mike.transfer.repository.AccountRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AccountLockManagerTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    private final AccountLockingProperties properties = new AccountLockingProperties();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AccountLockManager accountLockManager;
+
+    @BeforeEach
+    void setUp() {
+        accountLockManager = new AccountLockManager(accountRepository, properties, meterRegistry);
+    }
+
+    @Test
+    void pessimisticMode_locksBothAccountsInOneOrderedQuery() {
+        // given
+        properties.setMode(AccountLockingProperties.Mode.PESSIMISTIC);
+        Account first = new Account(UUID.randomUUID(), UUID.randomUUID(), Currency.USD);
+        Account second = new Account(UUID.randomUUID(), UUID.randomUUID(), Currency.USD);
+        when(accountRepository.findAllByIdForUpdate(List.of(second.getId(), first.getId())))
+                .thenReturn(List.of(first, second));
+
+        // when
+        Map<UUID, Account> locked = accountLockManager.lock(second.getId(), first.getId());
+
+        // then
+        assertThat(locked).containsEntry(first.getId(), first).containsEntry(second.getId(), second);
+        verify(accountRepository, never()).findAllById(any());
+        assertThat(meterRegistry.get("transfer.account.lock.wait").tag("mode", "PESSIMISTIC").timer().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    void pessimisticMode_singleAccountIsLockedForUpdate() {
+        // given
+        properties.setMode(AccountLockingProperties.Mode.PESSIMISTIC);
+        Account account = new Account(UUID.randomUUID(), UUID.randomUUID(), Currency.USD);
+        when(accountRepository.findByIdForUpdate(account.getId())).thenReturn(Optional.of(account));
+
+        // when
+        Account locked = accountLockManager.lock(account.getId());
+
+        // then
+        assertThat(locked).isSameAs(account);
+        verify(accountRepository, never()).findById(any());
+    }
+
+    @Test
+    void optimisticMode_readsWithoutRowLocks() {
+        // given
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(accountRepository.findAllById(List.of(first, second))).thenReturn(List.of());
+
+        // when
+        accountLockManager.lock(first, second);
+
+        // then
+        verify(accountRepository, never()).findAllByIdForUpdate(any());
+    }
+
+    @Test
+    void lockFailure_countsConflictPerTrackedAccount() {
+        // given
+        properties.setMode(AccountLockingProperties.Mode.PESSIMISTIC);
+        UUID tracked = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        properties.getTrackedAccounts().add(tracked);
+        when(accountRepository.findAllByIdForUpdate(any()))
+                .thenThrow(new CannotAcquireLockException("deadlock detected"));
+
+        // when + then
+        assertThrows(CannotAcquireLockException.class, () -> accountLockManager.lock(tracked, other));
+        assertThat(conflicts(tracked.toString())).isEqualTo(1);
+        assertThat(conflicts("other")).isEqualTo(1);
+    }
+
+    @Test
+    void flush_versionConflict_isCountedAndRethrown() {
+        // given
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        doThrow(new OptimisticLockingFailureException("stale version")).when(accountRepository).flush();
+
+        // when + then
+        assertThrows(OptimisticLockingFailureException.class, () -> accountLockManager.flush(first, second));
+        assertThat(meterRegistry.get("transfer.account.lock.conflicts").tag("mode", "OPTIMISTIC").counter().count())
+                .isEqualTo(2);
+    }
+
+    private double conflicts(String account) {
+        return meterRegistry.get("transfer.account.lock.conflicts").tag("account", account).counter().count();
+    }
+}
@@ -0,0 +1,265 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.client.CardClient;
+import com.mike.transfer.config.CardCacheProperties;
+import com.mike.transfer.config.CardProjectionProperties;
+import com.mike.transfer.config.CardResolutionProperties;
+import com.mike.transfer.domain.CardProjection;
+import com.mike.transfer.dto.CardDto;
+import com.mike.transfer.exception.CardBlockedException;
+import com.mike.transfer.exception.CardServiceUnavailableException;
+import com.mike.transfer.repository.AccountRepository;
+import com.mike.transfer.repository.CardProjectionRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.MDC;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardResolverServiceTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private CardClient cardClient;
+
+    @Mock
+    private CardProjectionRepository cardProjectionRepository;
+
+    private final CardResolutionProperties cardResolutionProperties = new CardResolutionProperties();
+
+    private CardResolverService cardResolverService;
+
+    @BeforeEach
+    void setUp() {
+        CardCache cardCache = new CardCache(new CardCacheProperties(), new SimpleMeterRegistry());
+        cardResolverService = new CardResolverService(
+                accountRepository,
+                cardClient,
+                cardCache,
+                cardProjectionRepository,
+                new CardProjectionProperties(),
+                cardResolutionProperties
+        );
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardResolverService.shutdown();
+        SecurityContextHolder.clearContext();
+        MDC.clear();
+    }
+
+    @Test
+    void getAccountId_projectionHit_skipsCardService() {
+        // given
+        UUID cardId = UUID.randomUUID();
+        UUID accountId = UUID.randomUUID();
+        when(cardProjectionRepository.findById(cardId)).thenReturn(Optional.of(
+                new CardProjection(cardId, UUID.randomUUID(), accountId, "ACTIVE", 1)
+        ));
+
+        // when
+        UUID resolved = cardResolverService.getAccountId(cardId);
+
+        // then
+        assertThat(resolved).isEqualTo(accountId);
+        verifyNoInteractions(cardClient);
+    }
+
+    @Test
+    void getAccountId_blockedInProjection_throwsCardBlocked() {
+        // given
+        UUID cardId = UUID.randomUUID();
+        when(cardProjectionRepository.findById(cardId)).thenReturn(Optional.of(
+                new CardProjection(cardId, UUID.randomUUID(), UUID.randomUUID(), "BLOCKED", 2)
+        ));
+
+        // when + then
+        assertThrows(CardBlockedException.class, () -> cardResolverService.getAccountId(cardId));
+        verifyNoInteractions(cardClient);
+    }
+
+    @Test
+    void getAccountId_repeatedLookup_callsCardServiceOnce() {
+        // given
+        UUID cardId = UUID.randomUUID();
+        UUID accountId = UUID.randomUUID();
+        when(cardClient.getCard(cardId)).thenReturn(new CardDto(cardId, accountId, "ACTIVE"));
+
+        // when
+        UUID first = cardResolverService.getAccountId(cardId);
+        UUID second = cardResolverService.getAccountId(cardId);
+
+        // then
+        assertThat(first).isEqualTo(accountId);
+        assertThat(second).isEqualTo(accountId);
+        verify(cardClient, times(1)).getCard(cardId);
+    }
+
+    @Test
+    void getAccountId_afterEviction_seesBlockedCard() {
+        // given
+        UUID cardId = UUID.randomUUID();
+        UUID accountId = UUID.randomUUID();
+        when(cardClient.getCard(cardId))
+                .thenReturn(new CardDto(cardId, accountId, "ACTIVE"))
+                .thenReturn(new CardDto(cardId, accountId, "BLOCKED"));
+        cardResolverService.getAccountId(cardId);
+
+        // when
+        cardResolverService.evictCard(cardId);
+
+        // then
+        assertThrows(CardBlockedException.class, () -> cardResolverService.getAccountId(cardId));
+        verify(cardClient, times(2)).getCard(cardId);
+    }
+
+    @Test
+    void getAccountId_unlinkedCard_isNotCached() {
+        // given
+        UUID cardId = UUID.randomUUID();
+        when(cardClient.getCard(cardId)).thenReturn(new CardDto(cardId, null, "ACTIVE"));
+
+        // when
+        cardResolverService.getAccountId(cardId);
+        cardResolverService.getAccountId(cardId);
+
+        // then
+        verify(cardClient, times(2)).getCard(cardId);
+    }
+
+    @Test
+    void getAccountIds_looksUpBothCardsConcurrently() {
+        // given
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        UUID fromAccountId = UUID.randomUUID();
+        UUID toAccountId = UUID.randomUUID();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(cardClient.getCard(any())).thenAnswer(invocation -> {
+            UUID cardId = invocation.getArgument(0);
+            bothStarted.countDown();
+            // a sequential lookup would never see the second call arrive
+            if (!bothStarted.await(2, TimeUnit.SECONDS))
+                throw new IllegalStateException("lookups did not overlap");
+            return new CardDto(cardId, cardId.equals(fromCardId) ? fromAccountId : toAccountId, "ACTIVE");
+        });
+
+        // when
+        CardResolverService.AccountPair accounts = cardResolverService.getAccountIds(fromCardId, toCardId);
+
+        // then
+        assertThat(accounts.from()).isEqualTo(fromAccountId);
+        assertThat(accounts.to()).isEqualTo(toAccountId);
+    }
+
+    @Test
+    void getAccountIds_propagatesSecurityContextAndRequestId() {
+        // given
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        Authentication caller = new TestingAuthenticationToken("user-1", "token", "ROLE_USER");
+        SecurityContextHolder.getContext().setAuthentication(caller);
+        MDC.put("requestId", "req-42");
+
+        AtomicReference<Authentication> seenAuthentication = new AtomicReference<>();
+        AtomicReference<String> seenRequestId = new AtomicReference<>();
+        when(cardClient.getCard(any())).thenAnswer(invocation -> {
+            seenAuthentication.set(SecurityContextHolder.getContext().getAuthentication());
+            seenRequestId.set(MDC.get("requestId"));
+            return new CardDto(invocation.getArgument(0), UUID.randomUUID(), "ACTIVE");
+        });
+
+        // when
+        cardResolverService.getAccountIds(fromCardId, toCardId);
+
+        // then
+        assertThat(seenAuthentication.get()).isSameAs(caller);
+        assertThat(seenRequestId.get()).isEqualTo("req-42");
+    }
+
+    @Test
+    void getAccountIds_deadlineExceeded_cancelsLookups() throws InterruptedException {
+        // given
+        cardResolutionProperties.setTimeout(Duration.ofMillis(100));
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        when(cardClient.getCard(toCardId)).thenReturn(new CardDto(toCardId, UUID.randomUUID(), "ACTIVE"));
+
+        CountDownLatch interrupted = new CountDownLatch(1);
+        AtomicBoolean finished = new AtomicBoolean();
+        when(cardClient.getCard(fromCardId)).thenAnswer(invocation -> {
+            try {
+                Thread.sleep(10_000);
+                finished.set(true);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return null;
+        });
+
+        // when + then
+        assertThrows(CardServiceUnavailableException.class,
+                () -> cardResolverService.getAccountIds(fromCardId, toCardId));
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(finished).isFalse();
+    }
+
+    @Test
+    void getAccountIds_projectedAndCachedCards_stayOffCardService() {
+        // given
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        UUID fromAccountId = UUID.randomUUID();
+        UUID toAccountId = UUID.randomUUID();
+        when(cardProjectionRepository.findById(fromCardId)).thenReturn(Optional.of(
+                new CardProjection(fromCardId, UUID.randomUUID(), fromAccountId, "ACTIVE", 1)
+        ));
+        when(cardProjectionRepository.findById(toCardId)).thenReturn(Optional.empty());
+        when(cardClient.getCard(toCardId)).thenReturn(new CardDto(toCardId, toAccountId, "ACTIVE"));
+        cardResolverService.getAccountId(toCardId);
+
+        // when
+        CardResolverService.AccountPair accounts = cardResolverService.getAccountIds(fromCardId, toCardId);
+
+        // then
+        assertThat(accounts).isEqualTo(new CardResolverService.AccountPair(fromAccountId, toAccountId));
+        verify(cardClient, never()).getCard(fromCardId);
+        verify(cardClient, times(1)).getCard(toCardId);
+    }
+
+    @Test
+    void getAccountIds_blockedCard_throwsCardBlocked() {
+        // given
+        UUID fromCardId = UUID.randomUUID();
+        UUID toCardId = UUID.randomUUID();
+        when(cardClient.getCard(any())).thenAnswer(invocation -> {
+            UUID cardId = invocation.getArgument(0);
+            return new CardDto(cardId, UUID.randomUUID(), cardId.equals(toCardId) ? "BLOCKED" : "ACTIVE");
+        });
+
+        // when + then
+        assertThrows(CardBlockedException.class, () -> cardResolverService.getAccountIds(fromCardId, toCardId));
+    }
+}
@@ -0,0 +1,75 @@
+package com.mike.transfer.service;
+
+import com.mike.transfer.config.IdempotencyCoalescingProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class InFlightRequestsTest {
+
+    private final InFlightRequests inFlightRequests =
+            new InFlightRequests(new IdempotencyCoalescingProperties(), new SimpleMeterRegistry());
+
+    @Test
+    void execute_duplicateWithSameFingerprint_sharesLeaderResult() throws Exception {
+        CountDownLatch leaderStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() ->
+                inFlightRequests.execute("key-1", "request", () -> {
+                    executions.incrementAndGet();
+                    leaderStarted.countDown();
+                    await(release);
+                    return "result";
+                }));
+        assertThat(leaderStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<String> duplicate = CompletableFuture.supplyAsync(() ->
+                inFlightRequests.execute("key-1", "request", () -> {
+                    executions.incrementAndGet();
+                    return "duplicate";
+                }));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(duplicate.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        assertThat(executions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_afterLeaderFailure_runsAgain() {
+        assertThrows(IllegalStateException.class, () ->
+                inFlightRequests.execute("key-2", "request", () -> {
+                    throw new IllegalStateException("boom");
+                }));
+
+        assertThat(inFlightRequests.execute("key-2", "request", () -> "retried")).isEqualTo("retried");
+    }
+
+    @Test
+    void execute_withoutKey_alwaysRuns() {
+        AtomicInteger executions = new AtomicInteger();
+
+        inFlightRequests.execute(null, "request", executions::incrementAndGet);
+        inFlightRequests.execute(null, "request", executions::incrementAndGet);
+
+        assertThat(executions.get()).isEqualTo(2);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -2,12 +2,28 @@ package com.mike.transfer.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mike.transfer.config.AccountLockingProperties;
+import com.mike.transfer.config.BalanceSlotProperties;
+import com.mike.transfer.config.LedgerProperties;
 import com.mike.transfer.domain.Account;
 import com.mike.transfer.domain.Currency;
 import com.mike.transfer.domain.IdempotentRequest;
+import com.mike.transfer.domain.Money;
+import com.mike.transfer.dto.AccountTurnover;
+import com.mike.transfer.dto.AccountTurnoverRow;
+import com.mike.transfer.dto.BatchTransferItem;
+import com.mike.transfer.dto.BatchTransferResult;
+import com.mike.transfer.dto.StatementFormat;
+import com.mike.transfer.dto.TransferDirection;
+import com.mike.transfer.dto.TransferDto;
+import com.mike.transfer.dto.TransferHistoryItem;
+import com.mike.transfer.dto.TransferHistoryPage;
 import com.mike.transfer.dto.TransferRequest;
 import com.mike.transfer.exception.IdempotencyConflictException;
+import com.mike.transfer.exception.InsufficientFundsException;
+import com.mike.transfer.exception.InvalidLimitException;
 import com.mike.transfer.repository.AccountRepository;
+import com.mike.transfer.repository.AnalyticsRepository;
 import com.mike.transfer.repository.IdempotentRepository;
 import com.mike.transfer.repository.TransferRepository;
 import org.apache.commons.codec.digest.DigestUtils;
@@ -16,19 +32,41 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.security.authentication.TestingAuthenticationToken;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.testcontainers.containers.KafkaContainer;
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.junit.jupiter.Container;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -42,6 +80,9 @@ public class TransferServiceIntegrationTest {
     @Autowired
     private TransferService transferService;
 
+    @Autowired
+    private BatchTransferService batchTransferService;
+
     @Autowired
     private AccountRepository accountRepository;
 
@@ -54,6 +95,45 @@ public class TransferServiceIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AccountLockingProperties accountLockingProperties;
+
+    @Autowired
+    private BalanceSlotProperties balanceSlotProperties;
+
+    @Autowired
+    private BalanceSlotService balanceSlotService;
+
+    @Autowired
+    private LedgerProperties ledgerProperties;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private IdempotencyKeyCache idempotencyKeyCache;
+
+    @Autowired
+    private AnalyticsService analyticsService;
+
+    @Autowired
+    private TransferPartitionService transferPartitionService;
+
+    @Autowired
+    private StatementExportService statementExportService;
+
+    @Autowired
+    private TransferHistoryService transferHistoryService;
+
+    @Autowired
+    private AnalyticsResultCache analyticsResultCache;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @MockBean
     private CardResolverService cardResolverService;
 
@@ -81,16 +161,27 @@ public class TransferServiceIntegrationTest {
 
     @BeforeEach
     void setUp() {
+        accountLockingProperties.setMode(AccountLockingProperties.Mode.OPTIMISTIC);
+        balanceSlotProperties.getAccounts().clear();
+        ledgerProperties.setBalanceSource(LedgerProperties.BalanceSource.ACCOUNT);
+        ledgerProperties.setCheckpointLag(Duration.ofMinutes(1));
+        jdbcTemplate.update("DELETE FROM ledger_entries");
+        jdbcTemplate.update("DELETE FROM ledger_checkpoints");
         transferRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM daily_account_turnover");
+        jdbcTemplate.update("DELETE FROM monthly_top_transfers");
         accountRepository.deleteAll();
         idempotentRepository.deleteAll();
+        idempotencyKeyCache.evictAll();
+        analyticsResultCache.evictAll();
+        transferPartitionService.createPartitions(YearMonth.of(2026, 1), YearMonth.of(2026, 4));
 
         accountFromId = UUID.randomUUID();
         accountToId = UUID.randomUUID();
         Account from = new Account(accountFromId, UUID.randomUUID(), Currency.USD);
-        from.credit(new BigDecimal("1000"));
+        from.credit(Money.of(new BigDecimal("1000"), Currency.USD));
         Account to = new Account(accountToId, UUID.randomUUID(), Currency.USD);
-        to.credit(new BigDecimal("500"));
+        to.credit(Money.of(new BigDecimal("500"), Currency.USD));
         accountRepository.save(from);
         accountRepository.save(to);
 
@@ -101,6 +192,10 @@ public class TransferServiceIntegrationTest {
 
         when(cardResolverService.getAccountId(cardFromUuid)).thenReturn(accountFromId);
         when(cardResolverService.getAccountId(cardToUuid)).thenReturn(accountToId);
+        when(cardResolverService.getAccountIds(cardFromUuid, cardToUuid))
+                .thenReturn(new CardResolverService.AccountPair(accountFromId, accountToId));
+        when(cardResolverService.getAccountIds(cardToUuid, cardFromUuid))
+                .thenReturn(new CardResolverService.AccountPair(accountToId, accountFromId));
     }
 
     @Test
@@ -115,8 +210,8 @@ public class TransferServiceIntegrationTest {
         // then
         Account fromAfterFirst = accountRepository.findById(accountFromId).orElseThrow();
         Account toAfterFirst = accountRepository.findById(accountToId).orElseThrow();
-        assertThat(fromAfterFirst.getBalance()).isEqualByComparingTo("900");
-        assertThat(toAfterFirst.getBalance()).isEqualByComparingTo("600");
+        assertThat(fromAfterFirst.getBalance().toBigDecimal()).isEqualByComparingTo("900");
+        assertThat(toAfterFirst.getBalance().toBigDecimal()).isEqualByComparingTo("600");
 
         Optional<IdempotentRequest> saved = idempotentRepository.findById(idempotencyKey);
         assertThat(saved).isPresent();
@@ -131,8 +226,8 @@ public class TransferServiceIntegrationTest {
 
         Account fromAfterSecond = accountRepository.findById(accountFromId).orElseThrow();
         Account toAfterSecond = accountRepository.findById(accountToId).orElseThrow();
-        assertThat(fromAfterSecond.getBalance()).isEqualByComparingTo("900");
-        assertThat(toAfterSecond.getBalance()).isEqualByComparingTo("600");
+        assertThat(fromAfterSecond.getBalance().toBigDecimal()).isEqualByComparingTo("900");
+        assertThat(toAfterSecond.getBalance().toBigDecimal()).isEqualByComparingTo("600");
     }
 
     @Test
@@ -162,8 +257,8 @@ public class TransferServiceIntegrationTest {
         // then
         Account fromAfterFirst = accountRepository.findById(accountFromId).orElseThrow();
         Account toAfterFirst = accountRepository.findById(accountToId).orElseThrow();
-        assertThat(fromAfterFirst.getBalance()).isEqualByComparingTo("950");
-        assertThat(toAfterFirst.getBalance()).isEqualByComparingTo("550");
+        assertThat(fromAfterFirst.getBalance().toBigDecimal()).isEqualByComparingTo("950");
+        assertThat(toAfterFirst.getBalance().toBigDecimal()).isEqualByComparingTo("550");
 
         // when
         UUID secondId = transferService.transfer(request, null);
@@ -171,8 +266,8 @@ public class TransferServiceIntegrationTest {
         // then
         Account fromAfterSecond = accountRepository.findById(accountFromId).orElseThrow();
         Account toAfterSecond = accountRepository.findById(accountToId).orElseThrow();
-        assertThat(fromAfterSecond.getBalance()).isEqualByComparingTo("900");
-        assertThat(toAfterSecond.getBalance()).isEqualByComparingTo("600");
+        assertThat(fromAfterSecond.getBalance().toBigDecimal()).isEqualByComparingTo("900");
+        assertThat(toAfterSecond.getBalance().toBigDecimal()).isEqualByComparingTo("600");
         assertThat(secondId).isNotEqualTo(firstId);
     }
 
@@ -187,8 +282,290 @@ public class TransferServiceIntegrationTest {
 
         // then
         IdempotentRequest ir = idempotentRepository.findById(key).orElseThrow();
-        String expectedHash = computeHash(request, "TRANSFER");
-        assertThat(ir.getRequestHash()).isEqualTo(expectedHash);
+        String expectedHash = transferService.computeHash(request, "TRANSFER");
+        assertThat(ir.getRequestHash()).isEqualTo(expectedHash).startsWith("v2:");
+    }
+
+    @Test
+    void idempotencyKeyFilter_picksUpKeysStoredOutOfBandOnSync() {
+        // given
+        idempotencyKeyCache.rebuild();
+        String key = "stored-by-another-node";
+        UUID storedTransferId = UUID.randomUUID();
+        List<String> lookups = new ArrayList<>();
+        Function<String, Optional<IdempotentRequest>> loader = k -> {
+            lookups.add(k);
+            return idempotentRepository.findById(k);
+        };
+
+        // when
+        jdbcTemplate.update("INSERT INTO idempotent_requests (key, entity_id, request_hash) VALUES (?, ?, ?)",
+                key, storedTransferId, "hash");
+
+        // then
+        assertThat(idempotencyKeyCache.findStored(key, loader)).map(IdempotencyKeyCache.StoredKey::entityId)
+                .contains(storedTransferId);
+        idempotencyKeyCache.evictAll();
+        idempotencyKeyCache.sync();
+        assertThat(idempotencyKeyCache.find(key, loader)).map(IdempotencyKeyCache.StoredKey::entityId)
+                .contains(storedTransferId);
+        assertThat(lookups).containsExactly(key, key);
+    }
+
+    @Test
+    void idempotencyKeyFilter_rebuildDropsKeysNoLongerStored() {
+        // given
+        String key = "expired-key";
+        TransferRequest request = new TransferRequest(cardFromId, cardToId, new BigDecimal("10"));
+        transferService.transfer(request, key);
+        idempotentRepository.deleteAll();
+        idempotencyKeyCache.evictAll();
+        List<String> lookups = new ArrayList<>();
+
+        // when
+        idempotencyKeyCache.rebuild();
+
+        // then
+        assertThat(idempotencyKeyCache.find(key, k -> {
+            lookups.add(k);
+            return idempotentRepository.findById(k);
+        })).isEmpty();
+        assertThat(lookups).isEmpty();
+    }
+
+    @Test
+    void transfer_withKeyStoredInLegacyHashFormat_shouldReplay() {
+        // given
+        String key = "legacy-key";
+        UUID storedTransferId = UUID.randomUUID();
+        TransferRequest request = new TransferRequest(cardFromId, cardToId, new BigDecimal("100"));
+        idempotentRepository.save(new IdempotentRequest(key, storedTransferId, computeHash(request, "TRANSFER")));
+
+        // when
+        UUID replayed = transferService.transfer(request, key);
+
+        // then
+        assertThat(replayed).isEqualTo(storedTransferId);
+        assertThrows(IdempotencyConflictException.class, () -> transferService.transfer(
+                new TransferRequest(cardFromId, cardToId, new BigDecimal("200")), key));
+    }
+
+    @Test
+    void batchAndSingleTransferSharingAKey_neitherDeadlockNorApplyTwice() throws Exception {
+        // given
+        // both paths hold account row locks, the setup a key-versus-row lock order inversion needs
+        accountLockingProperties.setMode(AccountLockingProperties.Mode.PESSIMISTIC);
+        var admin = new TestingAuthenticationToken("admin", null, "ROLE_ADMIN");
+        int rounds = 20;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UUID>> results = new ArrayList<>();
+        for (int i = 0; i < rounds; i++) {
+            String key = "shared-key-" + i;
+            TransferRequest request = new TransferRequest(cardFromId, cardToId, new BigDecimal("10"));
+            results.add(pool.submit(() -> {
+                start.await();
+                return transferService.transfer(request, key);
+            }));
+            results.add(pool.submit(() -> {
+                start.await();
+                return batchTransferService.transfer(
+                        List.of(new BatchTransferItem(key, cardFromId, cardToId, new BigDecimal("10"))), admin)
+                        .get(0).transferId();
+            }));
+        }
+
+        // when
+        start.countDown();
+        List<UUID> transferIds = new ArrayList<>();
+        try {
+            for (Future<UUID> result : results) {
+                // a lock-order deadlock would surface here as CannotAcquireLockException
+                transferIds.add(result.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // then
+        for (int i = 0; i < rounds; i++) {
+            assertThat(transferIds.get(2 * i)).isNotNull().isEqualTo(transferIds.get(2 * i + 1));
+        }
+        assertThat(accountRepository.findById(accountFromId).orElseThrow().getBalance().toBigDecimal())
+                .isEqualByComparingTo("800");
+    }
+
+    @Test
+    void batchTransfer_reportsPerItemResultsAndKeepsSuccessfulItems() {
+        // given
+        var admin = new TestingAuthenticationToken("admin", null, "ROLE_ADMIN");
+        List<BatchTransferItem> items = List.of(
+                new BatchTransferItem("batch-key-1", cardFromId, cardToId, new BigDecimal("100")),
+                new BatchTransferItem("batch-key-2", cardFromId, cardToId, new BigDecimal("5000")),
+                new BatchTransferItem("batch-key-1", cardFromId, cardToId, new BigDecimal("100")),
+                new BatchTransferItem(null, cardToId, cardFromId, new BigDecimal("50"))
+        );
+
+        // when
+        List<BatchTransferResult> results = batchTransferService.transfer(items, admin);
+
+        // then
+        assertThat(results).extracting(BatchTransferResult::status).containsExactly(
+                BatchTransferResult.Status.COMPLETED,
+                BatchTransferResult.Status.FAILED,
+                BatchTransferResult.Status.REPLAYED,
+                BatchTransferResult.Status.COMPLETED
+        );
+        assertThat(results.get(1).errorType()).isEqualTo("INSUFFICIENT_FUNDS");
+        assertThat(results.get(2).transferId()).isEqualTo(results.get(0).transferId());
+
+        Account from = accountRepository.findById(accountFromId).orElseThrow();
+        Account to = accountRepository.findById(accountToId).orElseThrow();
+        assertThat(from.getBalance().toBigDecimal()).isEqualByComparingTo("950");
+        assertThat(to.getBalance().toBigDecimal()).isEqualByComparingTo("550");
+        assertThat(transferRepository.count()).isEqualTo(2);
+
+        // the batch shares idempotency keys with single transfers
+        UUID replayed = transferService.transfer(items.get(0).toTransferRequest(), "batch-key-1");
+        assertThat(replayed).isEqualTo(results.get(0).transferId());
+    }
+
+    @Test
+    void pessimisticLocking_opposingTransfersNeitherDeadlockNorLoseUpdates() throws Exception {
+        // given
+        accountLockingProperties.setMode(AccountLockingProperties.Mode.PESSIMISTIC);
+        int rounds = 20;
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UUID>> results = new ArrayList<>();
+        for (int i = 0; i < rounds; i++) {
+            TransferRequest outgoing = new TransferRequest(cardFromId, cardToId, new BigDecimal("10"));
+            TransferRequest incoming = new TransferRequest(cardToId, cardFromId, new BigDecimal("5"));
+            results.add(pool.submit(() -> {
+                start.await();
+                return transferService.transfer(outgoing, null);
+            }));
+            results.add(pool.submit(() -> {
+                start.await();
+                return transferService.transfer(incoming, null);
+            }));
+        }
+
+        // when
+        start.countDown();
+        try {
+            for (Future<UUID> result : results) {
+                // a lock-order deadlock would surface here as CannotAcquireLockException
+                assertThat(result.get(30, TimeUnit.SECONDS)).isNotNull();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // then
+        assertThat(accountRepository.findById(accountFromId).orElseThrow().getBalance().toBigDecimal())
+                .isEqualByComparingTo("900");
+        assertThat(accountRepository.findById(accountToId).orElseThrow().getBalance().toBigDecimal())
+                .isEqualByComparingTo("600");
+    }
+
+    @Test
+    void transfer_toSlottedAccount_creditsSlotsAndFoldsOnDebit() {
+        // given
+        balanceSlotProperties.getAccounts().add(accountToId);
+        TransferRequest request = new TransferRequest(cardFromId, cardToId, new BigDecimal("100"));
+
+        // when
+        transferService.transfer(request, null);
+        transferService.transfer(request, null);
+
+        // then
+        Account toRow = accountRepository.findById(accountToId).orElseThrow();
+        assertThat(toRow.getBalance().toBigDecimal()).isEqualByComparingTo("500");
+        assertThat(transferService.getBalance(accountToId)).isEqualByComparingTo("700");
+
+        // when
+        BigDecimal afterWithdraw = transferService.withdraw(accountToId, new BigDecimal("650"), null);
+
+        // then
+        assertThat(afterWithdraw).isEqualByComparingTo("50");
+        assertThat(accountRepository.findById(accountToId).orElseThrow().getBalance().toBigDecimal()).isEqualByComparingTo("50");
+
+        // when
+        transferService.topUp(accountToId, new BigDecimal("25"), null);
+        balanceSlotService.compact();
+
+        // then
+        assertThat(accountRepository.findById(accountToId).orElseThrow().getBalance().toBigDecimal()).isEqualByComparingTo("75");
+    }
+
+    @Test
+    void ledgerBalanceSource_derivesBalancesFromEntriesWithoutTouchingAccountRows() {
+        // given
+        ledgerProperties.setBalanceSource(LedgerProperties.BalanceSource.LEDGER);
+
+        // when
+        BigDecimal afterTopUp = transferService.topUp(accountFromId, new BigDecimal("300"), null);
+        transferService.transfer(new TransferRequest(cardFromId, cardToId, new BigDecimal("120")), null);
+        BigDecimal afterWithdraw = transferService.withdraw(accountToId, new BigDecimal("20"), null);
+
+        // then
+        assertThat(afterTopUp).isEqualByComparingTo("300");
+        assertThat(afterWithdraw).isEqualByComparingTo("100");
+        assertThat(transferService.getBalance(accountFromId)).isEqualByComparingTo("180");
+        assertThat(accountRepository.findById(accountFromId).orElseThrow().getBalance().toBigDecimal()).isEqualByComparingTo("1000");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM ledger_entries", Integer.class)).isEqualTo(6);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(amount) FROM ledger_entries", BigDecimal.class))
+                .isEqualByComparingTo("0");
+        assertThrows(InsufficientFundsException.class,
+                () -> transferService.withdraw(accountToId, new BigDecimal("101"), null));
+
+        // when
+        ledgerProperties.setCheckpointLag(Duration.ZERO);
+        ledgerService.checkpoint();
+
+        // then
+        assertThat(transferService.getBalance(accountToId)).isEqualByComparingTo("100");
+    }
+
+    @Test
+    void ledgerCheckpoint_keepsEntriesCommittedAfterALaterEntry() throws Exception {
+        // given
+        ledgerProperties.setBalanceSource(LedgerProperties.BalanceSource.LEDGER);
+        ledgerProperties.setCheckpointLag(Duration.ZERO);
+        CountDownLatch recorded = new CountDownLatch(1);
+        CountDownLatch checkpointed = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> late = pool.submit(() -> transactionTemplate.executeWithoutResult(status -> {
+            ledgerService.record(UUID.randomUUID(), "TOP_UP", LedgerService.EXTERNAL_ACCOUNT, accountToId,
+                    new BigDecimal("40"));
+            recorded.countDown();
+            try {
+                checkpointed.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        // when
+        try {
+            recorded.await(30, TimeUnit.SECONDS);
+            // gets higher entry ids than the transaction still in flight, but commits first
+            ledgerService.record(UUID.randomUUID(), "TOP_UP", LedgerService.EXTERNAL_ACCOUNT, accountToId,
+                    new BigDecimal("60"));
+            ledgerService.checkpoint();
+            checkpointed.countDown();
+            late.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // then
+        assertThat(transferService.getBalance(accountToId)).isEqualByComparingTo("100");
+        ledgerService.checkpoint();
+        assertThat(transferService.getBalance(accountToId)).isEqualByComparingTo("100");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ledger_entries WHERE NOT checkpointed", Integer.class)).isZero();
     }
 
     private String computeHash(Object request, String operationType) {
@@ -202,4 +579,251 @@ public class TransferServiceIntegrationTest {
             throw new RuntimeException(e);
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void accountTurnover_fromDailyRollups_matchesRawTransferScan() {
+        // given
+        LocalDateTime day = LocalDateTime.of(2026, 3, 10, 0, 0);
+        insertTransfer(day.minusNanos(1000), "1.10");
+        insertTransfer(day, "2.20");
+        insertTransfer(day.plusHours(13), "3.30");
+        insertTransfer(day.plusDays(1).plusMinutes(5), "4.40");
+        insertTransfer(day.plusDays(2), "5.50");
+        insertTransfer(day.plusDays(3).plusHours(23), "6.60");
+        insertTransfer(day.plusDays(5), "7.70");
+
+        List<LocalDateTime[]> ranges = List.of(
+                new LocalDateTime[]{day, day.plusDays(5)},
+                new LocalDateTime[]{day.minusDays(1), day.plusDays(10)},
+                new LocalDateTime[]{day.plusHours(6), day.plusDays(3).plusHours(1)},
+                new LocalDateTime[]{day.plusHours(6), day.plusHours(20)},
+                new LocalDateTime[]{day.minusNanos(1000), day.minusNanos(1000)},
+                new LocalDateTime[]{day.plusDays(4), day.plusDays(4).plusHours(12)},
+                new LocalDateTime[]{day.plusDays(3), day.plusDays(1)}
+        );
+
+        for (LocalDateTime[] range : ranges) {
+            Instant from = range[0].atZone(ZoneId.systemDefault()).toInstant();
+            Instant to = range[1].atZone(ZoneId.systemDefault()).toInstant();
+
+            // when
+            AccountTurnover turnover = analyticsService.getAccountTurnover(accountFromId, from, to);
+
+            // then
+            Map<String, Object> expected = jdbcTemplate.queryForMap("""
+                    SELECT COUNT(t.id) AS operations_count, COALESCE(SUM(t.amount), 0) AS turnover
+                    FROM accounts a
+                    LEFT JOIN transfers t ON t.from_account = a.id
+                        AND t.transaction_at BETWEEN ? AND ?
+                    WHERE a.id = ?
+                    GROUP BY a.id, a.currency
+                    """, Timestamp.from(from), Timestamp.from(to), accountFromId);
+            assertThat(turnover.getAccountId()).isEqualTo(accountFromId);
+            assertThat(turnover.getOperationsCount()).isEqualTo(((Number) expected.get("operations_count")).longValue());
+            assertThat(turnover.getTurnover()).isEqualTo(expected.get("turnover"));
+        }
+    }
+
+    @Test
+    void topTransfers_fromMonthlyLists_matchesRawTransferScan() {
+        // given
+        LocalDateTime month = LocalDateTime.of(2026, 1, 1, 0, 0);
+        for (int i = 0; i < 250; i++) {
+            insertTransfer(month.plusHours(i * 5L), (i * 37 % 1000 + 1) + ".00");
+        }
+        jdbcTemplate.update("DELETE FROM transfers WHERE from_account = ? AND amount = ?",
+                accountFromId, new BigDecimal("999.00"));
+
+        List<LocalDateTime> starts = List.of(
+                month.minusMonths(1),
+                month,
+                month.plusDays(3).plusHours(5),
+                month.plusMonths(1).plusDays(10),
+                month.plusYears(1)
+        );
+
+        for (LocalDateTime start : starts) {
+            for (int limit : List.of(1, 5, 40)) {
+                Instant from = start.atZone(ZoneId.systemDefault()).toInstant();
+
+                // when
+                List<BigDecimal> top = analyticsService.getTopTransfers(accountFromId, from, limit).stream()
+                        .map(TransferDto::getAmount)
+                        .toList();
+
+                // then
+                List<BigDecimal> expected = jdbcTemplate.queryForList("""
+                        SELECT amount FROM transfers
+                        WHERE from_account = ? AND transaction_at >= ?
+                        ORDER BY amount DESC
+                        LIMIT ?
+                        """, BigDecimal.class, accountFromId, Timestamp.from(from), limit);
+                assertThat(top).isEqualTo(expected);
+            }
+        }
+        assertThrows(InvalidLimitException.class,
+                () -> analyticsService.getTopTransfers(accountFromId, Instant.now(), 101));
+    }
+
+    @Test
+    void analyticsQueries_onlyExecuteTransferPartitionsInRange() {
+        // given
+        insertTransfer(LocalDateTime.of(2026, 1, 15, 12, 0), "10.00");
+        insertTransfer(LocalDateTime.of(2026, 2, 15, 12, 0), "20.00");
+        insertTransfer(LocalDateTime.of(2026, 3, 15, 12, 0), "30.00");
+        NamedParameterJdbcTemplate named = new NamedParameterJdbcTemplate(jdbcTemplate);
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("accountId", accountFromId)
+                .addValue("from", LocalDateTime.of(2026, 2, 10, 8, 0).atZone(ZoneId.systemDefault())
+                        .toInstant().atOffset(ZoneOffset.UTC))
+                .addValue("to", LocalDateTime.of(2026, 2, 20, 8, 0).atZone(ZoneId.systemDefault())
+                        .toInstant().atOffset(ZoneOffset.UTC))
+                .addValue("limit", 5);
+
+        for (String sql : List.of(AnalyticsRepository.TURNOVER_SQL, AnalyticsRepository.TOP_TRANSFERS_SQL)) {
+            // when
+            List<String> plan = named.queryForList("EXPLAIN (ANALYZE, COSTS OFF) " + sql, params, String.class);
+
+            // then
+            assertThat(plan).anyMatch(line -> line.contains(" on transfers_202602 "));
+            assertThat(plan)
+                    .filteredOn(line -> line.matches(".* on transfers_2026(01|03|04) .*"))
+                    .allMatch(line -> line.contains("never executed"));
+        }
+    }
+
+    @Test
+    void statementExport_streamsBothDirectionsInTimeOrder() throws Exception {
+        // given
+        UUID outgoing = transferService.transfer(new TransferRequest(cardFromId, cardToId, new BigDecimal("40")), null);
+        UUID incoming = transferService.transfer(new TransferRequest(cardToId, cardFromId, new BigDecimal("15.5")), null);
+        Instant from = Instant.now().minus(Duration.ofHours(1));
+        Instant to = Instant.now().plus(Duration.ofHours(1));
+
+        // when
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        statementExportService.export(accountFromId, from, to, StatementFormat.CSV, csv);
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        statementExportService.export(accountFromId, from, to, StatementFormat.NDJSON, ndjson);
+
+        // then
+        List<String> csvLines = csv.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(csvLines).hasSize(3);
+        assertThat(csvLines.get(0)).isEqualTo("id,direction,counterparty_account,amount,transaction_at");
+        assertThat(csvLines.get(1)).startsWith(outgoing + ",DEBIT," + accountToId + ",40.00,");
+        assertThat(csvLines.get(2)).startsWith(incoming + ",CREDIT," + accountToId + ",15.50,");
+
+        List<String> jsonLines = ndjson.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(jsonLines).hasSize(2);
+        Map<String, Object> second = objectMapper.readValue(jsonLines.get(1), new TypeReference<>() {
+        });
+        assertThat(second.get("id")).isEqualTo(incoming.toString());
+        assertThat(second.get("direction")).isEqualTo("CREDIT");
+        assertThat(second.get("counterpartyAccount")).isEqualTo(accountToId.toString());
+    }
+
+    @Test
+    void history_walksAllPagesNewestFirstWithFilters() {
+        // given
+        LocalDateTime start = LocalDateTime.of(2026, 2, 1, 9, 0);
+        for (int i = 0; i < 7; i++) {
+            insertTransfer(start.plusHours(i), (10 + i) + ".00");
+            jdbcTemplate.update(
+                    "INSERT INTO transfers (id, from_account, to_account, amount, transaction_at) VALUES (?, ?, ?, ?, ?)",
+                    UUID.randomUUID(), accountToId, accountFromId, new BigDecimal(100 + i),
+                    Timestamp.valueOf(start.plusHours(i)));
+        }
+
+        // when
+        List<TransferHistoryItem> all = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            TransferHistoryPage page = transferHistoryService.history(
+                    accountFromId, TransferDirection.BOTH, null, null, 3, cursor);
+            all.addAll(page.items());
+            cursor = page.nextCursor();
+            pages++;
+        } while (cursor != null);
+        TransferHistoryPage outgoingOver12 = transferHistoryService.history(
+                accountFromId, TransferDirection.OUT, new BigDecimal("12.50"), null, 10, null);
+
+        // then
+        assertThat(pages).isEqualTo(5);
+        assertThat(all).hasSize(14);
+        assertThat(all).extracting(TransferHistoryItem::id).doesNotHaveDuplicates();
+        for (int i = 1; i < all.size(); i++) {
+            assertThat(all.get(i).transactionAt()).isBeforeOrEqualTo(all.get(i - 1).transactionAt());
+        }
+        assertThat(outgoingOver12.items()).extracting(TransferHistoryItem::amount)
+                .containsExactly(new BigDecimal("16.00"), new BigDecimal("15.00"),
+                        new BigDecimal("14.00"), new BigDecimal("13.00"));
+        assertThat(outgoingOver12.items()).allMatch(item -> item.direction() == TransferDirection.OUT
+                && item.counterpartyAccount().equals(accountToId));
+        assertThat(outgoingOver12.nextCursor()).isNull();
+    }
+
+    @Test
+    void batchTurnover_matchesSingleAccountQueryInRequestOrder() {
+        // given
+        LocalDateTime day = LocalDateTime.of(2026, 3, 10, 0, 0);
+        insertTransfer(day.plusHours(3), "1.10");
+        insertTransfer(day.plusDays(1).plusHours(3), "2.20");
+        insertTransfer(day.plusDays(2).plusHours(23), "3.30");
+        jdbcTemplate.update(
+                "INSERT INTO transfers (id, from_account, to_account, amount, transaction_at) VALUES (?, ?, ?, ?, ?)",
+                UUID.randomUUID(), accountToId, accountFromId, new BigDecimal("9.00"),
+                Timestamp.valueOf(day.plusDays(1)));
+        Instant from = day.plusHours(12).atZone(ZoneId.systemDefault()).toInstant();
+        Instant to = day.plusDays(2).plusHours(12).atZone(ZoneId.systemDefault()).toInstant();
+
+        // when
+        List<AccountTurnoverRow> rows = new ArrayList<>();
+        analyticsService.forEachAccountTurnover(
+                List.of(accountToId, UUID.randomUUID(), accountFromId, accountToId), from, to, rows::add);
+
+        // then
+        assertThat(rows).extracting(AccountTurnoverRow::accountId).containsExactly(accountToId, accountFromId);
+        for (AccountTurnoverRow row : rows) {
+            AccountTurnover single = analyticsService.getAccountTurnover(row.accountId(), from, to);
+            assertThat(row.currency()).isEqualTo(single.getCurrency());
+            assertThat(row.operationsCount()).isEqualTo(single.getOperationsCount());
+            assertThat(row.turnover()).isEqualTo(single.getTurnover());
+        }
+        assertThat(rows.get(1).turnover()).isEqualTo(new BigDecimal("2.20"));
+    }
+
+    @Test
+    void analyticsCache_servesOpenRangeUntilAccountVersionChanges() {
+        // given
+        transferService.transfer(new TransferRequest(cardFromId, cardToId, new BigDecimal("40")), null);
+        Instant from = Instant.now().minus(Duration.ofHours(1));
+        Instant to = Instant.now().plus(Duration.ofHours(1));
+        AccountTurnover first = analyticsService.getAccountTurnover(accountFromId, from, to);
+        List<TransferDto> firstTop = analyticsService.getTopTransfers(accountFromId, from, 5);
+
+        // when
+        AccountTurnover repeated = analyticsService.getAccountTurnover(accountFromId, from, to);
+        transferService.transfer(new TransferRequest(cardFromId, cardToId, new BigDecimal("60")), null);
+        AccountTurnover afterTransfer = analyticsService.getAccountTurnover(accountFromId, from, to);
+        List<TransferDto> topAfterTransfer = analyticsService.getTopTransfers(accountFromId, from, 5);
+
+        // then
+        assertThat(repeated).isSameAs(first);
+        assertThat(first.getOperationsCount()).isEqualTo(1L);
+        assertThat(afterTransfer.getOperationsCount()).isEqualTo(2L);
+        assertThat(afterTransfer.getTurnover()).isEqualByComparingTo("100");
+        assertThat(firstTop).hasSize(1);
+        assertThat(topAfterTransfer).extracting(TransferDto::getAmount)
+                .containsExactly(new BigDecimal("60.00"), new BigDecimal("40.00"));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT version FROM account_analytics_versions WHERE account_id = ?", Long.class, accountFromId))
+                .isEqualTo(2L);
+    }
+
+    private void insertTransfer(LocalDateTime transactionAt, String amount) {
+        jdbcTemplate.update(
+                "INSERT INTO transfers (id, from_account, to_account, amount, transaction_at) VALUES (?, ?, ?, ?, ?)",
+                UUID.randomUUID(), accountFromId, accountToId, new BigDecimal(amount), Timestamp.valueOf(transactionAt));
+    }
+}
@@ -4,6 +4,8 @@ plugins {
 }
 
 dependencies {
+    implementation(project(":virtual-threads"))
+
     implementation("org.springframework.boot:spring-boot-starter-web")
     implementation("org.springframework.boot:spring-boot-starter-security")
     implementation("org.springframework.boot:spring-boot-starter-oauth2-resource-server")
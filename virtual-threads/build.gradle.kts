@@ -0,0 +1,21 @@
+plugins {
+    `java-library`
+}
+
+dependencyManagement {
+    imports {
+        mavenBom("org.springframework.boot:spring-boot-dependencies:3.1.6")
+    }
+}
+
+dependencies {
+    implementation("org.springframework.boot:spring-boot-starter")
+
+    // each service brings its own web server and Kafka client; the matching parts apply only when present
+    compileOnly("org.springframework.boot:spring-boot-starter-tomcat")
+    compileOnly("org.springframework.kafka:spring-kafka")
+
+    testImplementation("org.springframework.boot:spring-boot-starter-test")
+    testImplementation("org.springframework.boot:spring-boot-starter-tomcat")
+    testImplementation("org.springframework.kafka:spring-kafka")
+}
@@ -0,0 +1,92 @@
+package com.mike.virtualthreads;
+
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskSchedulerCustomizer;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.kafka.config.AbstractKafkaListenerContainerFactory;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Opt-in virtual-thread mode ({@code virtual-threads.enabled}) shared by the servlet services: Tomcat
+ * requests, Kafka listener consumers, {@code @Scheduled} tasks and the application task executor used
+ * by {@code @Async} run on virtual threads, so threads waiting on JDBC, Feign or Kafka no longer hold a
+ * platform thread. Blocking while holding a monitor pins the carrier; {@link VirtualThreadPinningMonitor}
+ * reports where that happens.
+ * <p>
+ * Runs before {@link TaskExecutionAutoConfiguration}, whose executor backs off when this one exists.
+ */
+@AutoConfiguration(before = TaskExecutionAutoConfiguration.class)
+@ConditionalOnProperty(prefix = "virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadsAutoConfiguration {
+
+    @Bean(name = {
+            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME
+    })
+    public AsyncTaskExecutor applicationTaskExecutor() {
+        return new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(virtualThreads("task-")));
+    }
+
+    @Bean
+    public TaskSchedulerCustomizer virtualThreadsTaskSchedulerCustomizer() {
+        return scheduler -> scheduler.setThreadFactory(virtualThreads("scheduling-"));
+    }
+
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            @Value("${virtual-threads.pinned-threshold:PT0.02S}") Duration threshold) {
+        return new VirtualThreadPinningMonitor(threshold);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(ProtocolHandler.class)
+    static class TomcatConfiguration {
+
+        @Bean
+        public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadsTomcatCustomizer() {
+            return protocolHandler -> protocolHandler.setExecutor(
+                    Executors.newThreadPerTaskExecutor(virtualThreads("tomcat-handler-")));
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnClass(AbstractKafkaListenerContainerFactory.class)
+    static class KafkaConfiguration {
+
+        /**
+         * Covers declared and auto-configured listener factories alike; containers copy the consumer
+         * executor from the factory's container properties.
+         */
+        @Bean
+        public static BeanPostProcessor virtualThreadsKafkaListenerCustomizer() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof AbstractKafkaListenerContainerFactory<?, ?, ?> factory) {
+                        factory.getContainerProperties().setListenerTaskExecutor(
+                                new TaskExecutorAdapter(Executors.newThreadPerTaskExecutor(virtualThreads("kafka-consumer-"))));
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    private static ThreadFactory virtualThreads(String prefix) {
+        return Thread.ofVirtual().name(prefix, 0).factory();
+    }
+}
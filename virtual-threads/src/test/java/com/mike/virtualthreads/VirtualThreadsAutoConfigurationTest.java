@@ -0,0 +1,83 @@
+package com.mike.virtualthreads;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.convert.ApplicationConversionService;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VirtualThreadsAutoConfigurationTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(context -> context.getBeanFactory()
+                    .setConversionService(ApplicationConversionService.getSharedInstance()))
+            .withConfiguration(AutoConfigurations.of(
+                    VirtualThreadsAutoConfiguration.class, TaskExecutionAutoConfiguration.class))
+            .withUserConfiguration(KafkaListenerConfig.class);
+
+    @Test
+    void disabled_registersNothing() {
+        contextRunner
+                .withPropertyValues("virtual-threads.enabled=false")
+                .run(context -> {
+                    assertThat(context).doesNotHaveBean(VirtualThreadPinningMonitor.class);
+                    assertThat(context).doesNotHaveBean(TomcatProtocolHandlerCustomizer.class);
+                    assertThat(context).doesNotHaveBean("virtualThreadsKafkaListenerCustomizer");
+                    assertThat(context.getBean(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME))
+                            .isInstanceOf(ThreadPoolTaskExecutor.class);
+                    assertThat(context.getBean(ConcurrentKafkaListenerContainerFactory.class)
+                            .getContainerProperties().getListenerTaskExecutor()).isNull();
+                });
+    }
+
+    @Test
+    void enabled_replacesTheApplicationTaskExecutor() {
+        contextRunner
+                .withPropertyValues("virtual-threads.enabled=true")
+                .run(context -> {
+                    assertThat(context).hasSingleBean(VirtualThreadPinningMonitor.class);
+                    assertThat(context).hasSingleBean(TomcatProtocolHandlerCustomizer.class);
+                    AsyncTaskExecutor executor = context.getBean(
+                            TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, AsyncTaskExecutor.class);
+                    assertThat(executor).isInstanceOf(TaskExecutorAdapter.class);
+                    assertThat(runsOnVirtualThread(executor)).isTrue();
+                });
+    }
+
+    @Test
+    void enabled_setsTheKafkaListenerExecutor() {
+        contextRunner
+                .withPropertyValues("virtual-threads.enabled=true")
+                .run(context -> {
+                    AsyncTaskExecutor listenerExecutor = context.getBean(ConcurrentKafkaListenerContainerFactory.class)
+                            .getContainerProperties().getListenerTaskExecutor();
+                    assertThat(listenerExecutor).isNotNull();
+                    assertThat(runsOnVirtualThread(listenerExecutor)).isTrue();
+                });
+    }
+
+    private static boolean runsOnVirtualThread(AsyncTaskExecutor executor) throws Exception {
+        Future<Boolean> virtual = executor.submit(() -> Thread.currentThread().isVirtual());
+        return virtual.get();
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    static class KafkaListenerConfig {
+
+        @Bean
+        ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory() {
+            return new ConcurrentKafkaListenerContainerFactory<>();
+        }
+    }
+}